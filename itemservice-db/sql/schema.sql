@@ -1,4 +1,5 @@
 drop table if exists item CASCADE;
+drop sequence if exists item_seq;
 create table item
 (
     id        bigint generated by default as identity,
@@ -8,6 +9,9 @@ create table item
     primary key (id)
 );
 
+--Item id 시퀀스 - jpa-batch 프로필, itemservice.id-allocator 가 pooled-lo 로 사용한다. 발급 단위와 같은 50 씩 증가
+create sequence item_seq start with 1 increment by 50;
+
 --데이터베이스 기본 키는 3가지 조건을 모두 만족해야 함
     --null 은 허용하지 않는다, 유일해야 한다, 변해선 안됨
 
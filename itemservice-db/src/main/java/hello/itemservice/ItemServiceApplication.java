@@ -1,10 +1,13 @@
 package hello.itemservice;
 
 import hello.itemservice.config.*;
+import hello.itemservice.domain.Item;
 import hello.itemservice.repository.ItemRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Profile;
@@ -21,13 +24,21 @@ import javax.sql.DataSource;
 //@Import(JpaConfig.class)
 //@Import(SpringDataJpaConfig.class)
 //@Import(QuerydslConfig.class)
-@Import(V2Config.class)
+//@Import(V2Config.class)
+//구현 기술은 itemservice.backend 로 선택한다 (기본 v2) - ItemBackendSelector
+@Import({ItemBackendSelector.class, ReplicationDataSourceConfig.class, SqlProfilerConfig.class, WarmupConfig.class, StartupConfig.class,
+		ItemChangeFeedConfig.class, ItemImportConfig.class, ItemExportConfig.class, ItemServiceDecoratorConfig.class})
+@EntityScan(basePackageClasses = Item.class) //엔티티 스캔 범위를 domain 패키지로 제한
 @SpringBootApplication(scanBasePackages = "hello.itemservice.web")
 @Slf4j
 public class ItemServiceApplication {
 
+	private static final int STARTUP_STEPS = 10_000;
+
 	public static void main(String[] args) {
-		SpringApplication.run(ItemServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(ItemServiceApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS)); //빈 별 초기화 시간 기록 - StartupTimingReport
+		application.run(args);
 	}
 
 	@Bean
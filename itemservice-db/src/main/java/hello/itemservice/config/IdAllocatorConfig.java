@@ -0,0 +1,27 @@
+package hello.itemservice.config;
+
+import hello.itemservice.repository.sequence.IdAllocatorProperties;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 시퀀스 기반 id 발급기
+ * - itemservice.id-allocator.enabled=true 일 때만 등록한다
+ * - 등록되면 JdbcTemplate, MyBatis 저장소가 insert 전에 id 를 정한다
+ */
+@Configuration
+@EnableConfigurationProperties(IdAllocatorProperties.class)
+@ConditionalOnProperty(prefix = "itemservice.id-allocator", name = "enabled")
+public class IdAllocatorConfig {
+
+    @Bean
+    public PooledIdAllocator pooledIdAllocator(DataSource dataSource, IdAllocatorProperties properties) {
+        return new PooledIdAllocator(dataSource, properties.getSequence(), properties.getBlockSize());
+    }
+
+}
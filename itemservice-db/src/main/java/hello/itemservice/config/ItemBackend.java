@@ -0,0 +1,62 @@
+package hello.itemservice.config;
+
+import org.springframework.core.env.Environment;
+
+import java.util.Locale;
+
+/**
+ * 사용할 리포지토리 구현 기술
+ * - itemservice.backend=memory, columnar, jdbc-template-v1, ..., v2, tiered (기본 v2)
+ * - 구현 기술마다 필요한 자동 구성(MyBatis, JPA)이 다르다
+ */
+public enum ItemBackend {
+
+    MEMORY(MemoryConfig.class, false, false),
+    COLUMNAR(ColumnarConfig.class, false, false),
+    JDBC_TEMPLATE_V1(JdbcTemplateV1Config.class, false, false),
+    JDBC_TEMPLATE_V2(JdbcTemplateV2Config.class, false, false),
+    JDBC_TEMPLATE_V3(JdbcTemplateV3Config.class, false, false),
+    MYBATIS(MybatisConfig.class, true, false),
+    JPA(JpaConfig.class, false, true),
+    SPRING_DATA_JPA(SpringDataJpaConfig.class, false, true),
+    QUERYDSL(QuerydslConfig.class, false, true),
+    V2(V2Config.class, false, true),
+    TIERED(TieredConfig.class, true, true); //DB 계층은 itemservice.tiered.backing 으로 고른다
+
+    public static final String PROPERTY = "itemservice.backend";
+
+    private final Class<?> configClass;
+    private final boolean usesMyBatis;
+    private final boolean usesJpa;
+
+    ItemBackend(Class<?> configClass, boolean usesMyBatis, boolean usesJpa) {
+        this.configClass = configClass;
+        this.usesMyBatis = usesMyBatis;
+        this.usesJpa = usesJpa;
+    }
+
+    public static ItemBackend from(Environment environment) {
+        String value = environment.getProperty(PROPERTY);
+        if (value == null || value.isBlank()) {
+            return V2;
+        }
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("알 수 없는 " + PROPERTY + "=" + value, e);
+        }
+    }
+
+    public Class<?> getConfigClass() {
+        return configClass;
+    }
+
+    public boolean usesMyBatis() {
+        return usesMyBatis;
+    }
+
+    public boolean usesJpa() {
+        return usesJpa;
+    }
+
+}
@@ -0,0 +1,26 @@
+package hello.itemservice.config;
+
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.ImportSelector;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+
+/**
+ * itemservice.backend 에 맞는 *Config 하나만 등록한다
+ * - 코드를 고쳐서 @Import 대상을 바꾸는 대신 설정으로 구현 기술을 선택한다
+ */
+public class ItemBackendSelector implements ImportSelector, EnvironmentAware {
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public String[] selectImports(AnnotationMetadata importingClassMetadata) {
+        return new String[]{ItemBackend.from(environment).getConfigClass().getName()};
+    }
+
+}
@@ -0,0 +1,38 @@
+package hello.itemservice.config;
+
+import hello.itemservice.feed.ItemChangeController;
+import hello.itemservice.feed.ItemChangeFeed;
+import hello.itemservice.feed.ItemChangeFeedProperties;
+import hello.itemservice.feed.ItemChangePublishingPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 상품 변경 피드
+ * - ItemRepository 빈의 쓰기(와 ItemServiceV2)가 발행한 ItemChangedEvent 를 커밋 후 기록하고, 롱 폴링/SSE 로 제공한다
+ * - /items 를 주기적으로 전체 조회하는 대신 변경분만 이어서 읽을 수 있다
+ */
+@Configuration
+@EnableConfigurationProperties(ItemChangeFeedProperties.class)
+@ConditionalOnProperty(prefix = "itemservice.change-feed", name = "enabled", matchIfMissing = true)
+public class ItemChangeFeedConfig {
+
+    //BeanPostProcessor 는 다른 빈보다 먼저 만들어지므로 static 으로 등록한다
+    @Bean
+    public static ItemChangePublishingPostProcessor itemChangePublishingPostProcessor() {
+        return new ItemChangePublishingPostProcessor();
+    }
+
+    @Bean
+    public ItemChangeFeed itemChangeFeed(ItemChangeFeedProperties properties) {
+        return new ItemChangeFeed(properties.getCapacity());
+    }
+
+    @Bean
+    public ItemChangeController itemChangeController(ItemChangeFeed itemChangeFeed) {
+        return new ItemChangeController(itemChangeFeed);
+    }
+
+}
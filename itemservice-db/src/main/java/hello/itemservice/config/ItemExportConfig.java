@@ -0,0 +1,31 @@
+package hello.itemservice.config;
+
+import hello.itemservice.exporter.ItemExportController;
+import hello.itemservice.exporter.ItemExportProperties;
+import hello.itemservice.exporter.ItemExporter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * 상품 전체 내보내기 - 구현 기술과 상관없이 JdbcTemplate 커서로 item 테이블을 읽는다
+ */
+@Configuration
+@EnableConfigurationProperties(ItemExportProperties.class)
+public class ItemExportConfig {
+
+    @Bean
+    public ItemExporter itemExporter(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                     ItemExportProperties properties) {
+        return new ItemExporter(dataSource, transactionManager, properties.getFetchSize(), properties.getRowGroupSize());
+    }
+
+    @Bean
+    public ItemExportController itemExportController(ItemExporter itemExporter) {
+        return new ItemExportController(itemExporter);
+    }
+
+}
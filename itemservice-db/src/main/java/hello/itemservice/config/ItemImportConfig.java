@@ -0,0 +1,30 @@
+package hello.itemservice.config;
+
+import hello.itemservice.importer.ItemImportController;
+import hello.itemservice.importer.ItemImportProperties;
+import hello.itemservice.importer.ItemImporter;
+import hello.itemservice.repository.ItemRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 상품 대량 가져오기 - 선택한 구현 기술의 ItemRepository.saveAll 을 사용한다
+ */
+@Configuration
+@EnableConfigurationProperties(ItemImportProperties.class)
+public class ItemImportConfig {
+
+    @Bean
+    public ItemImporter itemImporter(ItemRepository itemRepository, PlatformTransactionManager transactionManager,
+                                     ItemImportProperties properties) {
+        return new ItemImporter(itemRepository, transactionManager, properties.getChunkSize(), properties.getWriters());
+    }
+
+    @Bean
+    public ItemImportController itemImportController(ItemImporter itemImporter) {
+        return new ItemImportController(itemImporter);
+    }
+
+}
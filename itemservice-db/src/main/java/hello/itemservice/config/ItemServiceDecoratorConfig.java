@@ -0,0 +1,87 @@
+package hello.itemservice.config;
+
+import hello.itemservice.service.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+/**
+ * ItemService 데코레이터
+ * - 구현 기술별 *Config 가 등록한 itemService 를 감싸서 @Primary 로 등록한다. 컨트롤러는 데코레이터를 주입받는다
+ * - itemservice.coalescing.enabled=true - 같은 조회를 동시에 요청하면 한 번만 DB 를 읽는다
+ * - itemservice.batching.enabled=true - 요청 안에서 읽은 상품을 요청이 끝날 때 까지 재사용한다 (요청 단위 식별자 캐시)
+ * - itemservice.hot-items.enabled=true - 지정한 인기 상품의 동시 재고 차감을 모아서 한 번의 update 로 처리한다
+ * - 순서 (안쪽 -> 바깥): hot-items -> coalescing -> batching, 켠 것만 감싼다
+ *   hot-items 가 가장 안쪽이다. 모은 차감이 끝난 뒤에 바깥 데코레이터가 캐시를 지운다
+ *   batching 이 가장 바깥이다. 요청 안에서 처음 읽는 상품만 coalescing 을 거친다
+ */
+@Configuration
+@EnableConfigurationProperties({CoalescingProperties.class, BatchingProperties.class, HotItemProperties.class})
+public class ItemServiceDecoratorConfig {
+
+    @Bean
+    @Primary
+    @Conditional(AnyDecoratorEnabled.class)
+    public ItemService decoratedItemService(@Qualifier("itemService") ItemService itemService,
+                                            CoalescingProperties coalescing, BatchingProperties batching,
+                                            HotItemProperties hotItems, ObjectProvider<ItemLoaderStats> itemLoaderStats) {
+        ItemService decorated = itemService;
+        if (hotItems.isEnabled()) {
+            decorated = new HotItemItemService(decorated, hotItems);
+        }
+        if (coalescing.isEnabled()) {
+            decorated = new CoalescingItemService(decorated, coalescing);
+        }
+        if (batching.isEnabled()) {
+            decorated = new BatchingItemService(decorated, itemLoaderStats.getObject());
+        }
+        return decorated;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "itemservice.batching", name = "enabled", havingValue = "true")
+    public ItemLoaderStats itemLoaderStats() {
+        return new ItemLoaderStats();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "itemservice.batching", name = "enabled", havingValue = "true")
+    public ItemLoaderStatsController itemLoaderStatsController(ItemLoaderStats itemLoaderStats) {
+        return new ItemLoaderStatsController(itemLoaderStats);
+    }
+
+    //MappedInterceptor 빈은 스프링 MVC 가 찾아서 모든 핸들러에 적용한다
+    @Bean
+    @ConditionalOnProperty(prefix = "itemservice.batching", name = "enabled", havingValue = "true")
+    public MappedInterceptor itemLoaderInterceptor() {
+        return new MappedInterceptor(null, new ItemLoaderInterceptor());
+    }
+
+    static class AnyDecoratorEnabled extends AnyNestedCondition {
+
+        AnyDecoratorEnabled() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "itemservice.coalescing", name = "enabled", havingValue = "true")
+        static class Coalescing {
+        }
+
+        @ConditionalOnProperty(prefix = "itemservice.batching", name = "enabled", havingValue = "true")
+        static class Batching {
+        }
+
+        @ConditionalOnProperty(prefix = "itemservice.hot-items", name = "enabled", havingValue = "true")
+        static class HotItems {
+        }
+
+    }
+
+}
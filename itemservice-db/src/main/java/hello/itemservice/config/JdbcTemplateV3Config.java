@@ -3,19 +3,24 @@ package hello.itemservice.config;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV2;
 import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV3;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
 import hello.itemservice.service.ItemService;
 import hello.itemservice.service.ItemServiceV1;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 import javax.sql.DataSource;
 
 @Configuration
+@Import(IdAllocatorConfig.class)
 @RequiredArgsConstructor
 public class JdbcTemplateV3Config {
 
     private final DataSource dataSource;
+    private final ObjectProvider<PooledIdAllocator> idAllocator;
 
     @Bean
     public ItemService itemService() {
@@ -24,7 +29,7 @@ public class JdbcTemplateV3Config {
 
     @Bean
     public ItemRepository itemRepository() {
-        return new JdbcTemplateItemRepositoryV3(dataSource);
+        return new JdbcTemplateItemRepositoryV3(dataSource, idAllocator.getIfAvailable());
     }
 
 }
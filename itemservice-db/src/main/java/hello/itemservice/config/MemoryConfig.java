@@ -1,23 +1,48 @@
 package hello.itemservice.config;
 
 import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.memory.MemoryItemPersistence;
 import hello.itemservice.repository.memory.MemoryItemRepository;
+import hello.itemservice.repository.memory.TransactionalMemoryItemRepository;
 import hello.itemservice.service.ItemService;
 import hello.itemservice.service.ItemServiceV1;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.lang.Nullable;
 
 @Configuration
+@Import(MemorySnapshotConfig.class)
 public class MemoryConfig {
 
+    private final MemoryItemPersistence persistence;
+
+    public MemoryConfig() {
+        this(null);
+    }
+
+    @Autowired
+    public MemoryConfig(@Nullable MemoryItemPersistence persistence) {
+        this.persistence = persistence;
+    }
+
     @Bean
     public ItemService itemService() {
         return new ItemServiceV1(itemRepository());
     }
 
+    /**
+     * 스프링 트랜잭션 안에서는 커밋할 때 적용하고 롤백하면 버린다
+     */
     @Bean
     public ItemRepository itemRepository() {
-        return new MemoryItemRepository();
+        if (persistence == null) {
+            return new TransactionalMemoryItemRepository(new MemoryItemRepository());
+        }
+        MemoryItemRepository repository = new MemoryItemRepository(persistence);
+        persistence.recover(repository);
+        return new TransactionalMemoryItemRepository(repository);
     }
 
 }
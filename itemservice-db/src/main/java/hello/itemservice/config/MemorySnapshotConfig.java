@@ -0,0 +1,28 @@
+package hello.itemservice.config;
+
+import hello.itemservice.repository.memory.MemoryItemPersistence;
+import hello.itemservice.repository.memory.MemorySnapshotProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * 메모리 저장소 스냅샷 + 로그
+ * - itemservice.memory.snapshot.enabled=true 일 때만 등록한다
+ * - 재시작해도 DB 에서 다시 읽지 않고 스냅샷과 로그로 복구한다
+ */
+@Configuration
+@EnableConfigurationProperties(MemorySnapshotProperties.class)
+@ConditionalOnProperty(prefix = "itemservice.memory.snapshot", name = "enabled")
+public class MemorySnapshotConfig {
+
+    @Bean
+    public MemoryItemPersistence memoryItemPersistence(MemorySnapshotProperties properties) {
+        return new MemoryItemPersistence(Paths.get(properties.getDirectory()), properties.getRegionSize().toBytes(),
+                properties.isForceEveryWrite(), properties.getInterval());
+    }
+
+}
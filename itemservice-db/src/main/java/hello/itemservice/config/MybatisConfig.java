@@ -2,19 +2,36 @@ package hello.itemservice.config;
 
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.mybatis.ItemMapper;
+import hello.itemservice.repository.mybatis.ItemMapperExecutors;
 import hello.itemservice.repository.mybatis.MyBatisItemRepository;
+import hello.itemservice.repository.mybatis.MybatisExecutorProperties;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
 import hello.itemservice.service.ItemService;
 import hello.itemservice.service.ItemServiceV1;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
-
+/**
+ * MyBatis
+ * - itemservice.mybatis.read-executor=reuse : 조회는 REUSE 실행기로 트랜잭션 안에서 PreparedStatement 를 재사용한다
+ * - itemservice.mybatis.batch-writes=true : insert, update 를 BATCH 실행기로 모았다가 커밋할 때 실행한다
+ */
 @Configuration
+@Import(IdAllocatorConfig.class)
+@EnableConfigurationProperties(MybatisExecutorProperties.class)
 @RequiredArgsConstructor
 public class MybatisConfig {
 
     private final ItemMapper itemMapper;
+    private final ObjectProvider<PooledIdAllocator> idAllocator;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final MybatisExecutorProperties properties;
 
     @Bean
     public ItemService itemService() {
@@ -23,7 +40,15 @@ public class MybatisConfig {
 
     @Bean
     public ItemRepository itemRepository() {
-        return new MyBatisItemRepository(itemMapper);
+        return new MyBatisItemRepository(itemMapper, idAllocator.getIfAvailable(), executors());
+    }
+
+    //기본(SIMPLE) 실행기만 사용하면 null
+    private ItemMapperExecutors executors() {
+        if (properties.getReadExecutor() == ExecutorType.SIMPLE && !properties.isBatchWrites()) {
+            return null;
+        }
+        return new ItemMapperExecutors(sqlSessionFactory, properties.getReadExecutor(), properties.isBatchWrites());
     }
 
 }
@@ -0,0 +1,65 @@
+package hello.itemservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hello.itemservice.datasource.ReplicaLagMonitor;
+import hello.itemservice.datasource.ReplicationDataSourceProperties;
+import hello.itemservice.datasource.ReplicationRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 읽기/쓰기 분리
+ * - itemservice.datasource.replication.enabled=true 일 때만 적용된다
+ * - 스프링 부트가 만드는 데이터소스 대신 프라이머리와 레플리카로 라우팅하는 데이터소스를 등록한다
+ */
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(ReplicationDataSourceProperties.class)
+@ConditionalOnProperty(prefix = "itemservice.datasource.replication", name = "enabled", havingValue = "true")
+public class ReplicationDataSourceConfig {
+
+    private final ReplicationDataSourceProperties properties;
+
+    @Bean
+    public ReplicationRoutingDataSource replicationRoutingDataSource() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        properties.getReplicas().forEach((name, node) -> replicas.put(name, hikari(name, node)));
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(
+                replicas, properties.getLagQuery(), properties.getMaxLagMillis());
+        lagMonitor.start(properties.getCheckIntervalMillis());
+
+        DataSource primary = hikari(ReplicationRoutingDataSource.PRIMARY, properties.getPrimary());
+        return new ReplicationRoutingDataSource(primary, replicas, lagMonitor);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicationRoutingDataSource replicationRoutingDataSource) {
+        //실제 커넥션은 첫 쿼리 시점에 획득 - 이때는 트랜잭션의 readOnly 여부를 알 수 있다
+        return new LazyConnectionDataSourceProxy(replicationRoutingDataSource);
+    }
+
+    private DataSource hikari(String name, ReplicationDataSourceProperties.Node node) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(node.getUrl())
+                .username(node.getUsername())
+                .password(node.getPassword())
+                .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(node.getMaximumPoolSize());
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,55 @@
+package hello.itemservice.config;
+
+import hello.itemservice.profiler.ProfilingDataSourcePostProcessor;
+import hello.itemservice.profiler.SqlProfileController;
+import hello.itemservice.profiler.SqlProfiler;
+import hello.itemservice.profiler.SqlProfilerProperties;
+import hello.itemservice.profiler.SqlProfilingInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * SQL 프로파일러
+ * - hibernate.SQL, BasicBinder, MyBatis trace 로그 대신 사용한다
+ * - itemservice.sql-profiler.enabled=true 일 때만 켜진다
+ * - GET, DELETE /sql-profile 은 인증 없이 열리므로 운영 환경에서는 켜지 않는다
+ */
+@Configuration
+@EnableConfigurationProperties(SqlProfilerProperties.class)
+@ConditionalOnProperty(prefix = "itemservice.sql-profiler", name = "enabled", havingValue = "true")
+public class SqlProfilerConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<SqlProfiler> sqlProfiler;
+
+    public SqlProfilerConfig(ObjectProvider<SqlProfiler> sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    //BeanPostProcessor 는 다른 빈보다 먼저 만들어지므로 static 으로 등록한다
+    @Bean
+    public static ProfilingDataSourcePostProcessor profilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> sqlProfiler) {
+        return new ProfilingDataSourcePostProcessor(sqlProfiler);
+    }
+
+    @Bean
+    public SqlProfiler sqlProfiler(SqlProfilerProperties properties) {
+        return new SqlProfiler(properties.getSampleRate(), properties.getNPlusOneThreshold());
+    }
+
+    @Bean
+    public SqlProfileController sqlProfileController(SqlProfiler sqlProfiler) {
+        return new SqlProfileController(sqlProfiler);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlProfilingInterceptor(sqlProfiler.getObject()))
+                .excludePathPatterns("/sql-profile", "/css/**", "/*.ico", "/error");
+    }
+
+}
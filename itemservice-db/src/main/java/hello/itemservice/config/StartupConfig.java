@@ -0,0 +1,33 @@
+package hello.itemservice.config;
+
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.service.ItemService;
+import hello.itemservice.startup.StartupTimingReport;
+import hello.itemservice.warmup.StartupWarmup;
+import hello.itemservice.warmup.WarmupTask;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 시작 시간 최적화 (fast-startup 프로필)
+ * - spring.main.lazy-initialization=true 여도 요청 처리 경로의 서비스, 리포지토리와 warm-up 은 바로 만든다
+ * - 나머지 빈은 처음 사용할 때 만든다
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final int REPORT_TOP_BEANS = 15;
+
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathEagerInitialization() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                ItemService.class, ItemRepository.class, StartupWarmup.class, WarmupTask.class);
+    }
+
+    @Bean
+    public StartupTimingReport startupTimingReport() {
+        return new StartupTimingReport(REPORT_TOP_BEANS);
+    }
+
+}
@@ -0,0 +1,63 @@
+package hello.itemservice.config;
+
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV3;
+import hello.itemservice.repository.jpa.JpaItemRepositoryV3;
+import hello.itemservice.repository.mybatis.ItemMapper;
+import hello.itemservice.repository.mybatis.MyBatisItemRepository;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
+import hello.itemservice.repository.tiered.TieredItemRepository;
+import hello.itemservice.repository.tiered.TieredProperties;
+import hello.itemservice.service.ItemService;
+import hello.itemservice.service.ItemServiceV1;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+/**
+ * 메모리 계층 + DB 계층
+ * - itemservice.backend=tiered, itemservice.tiered.backing=jdbc-template-v3 | mybatis | jpa
+ * - DB 계층 저장소는 빈으로 등록하지 않는다. 트랜잭션은 TieredItemRepository 의 쓰기 메서드가 시작한다
+ */
+@Configuration
+@Import(IdAllocatorConfig.class)
+@EnableConfigurationProperties(TieredProperties.class)
+@RequiredArgsConstructor
+public class TieredConfig {
+
+    private final TieredProperties properties;
+    private final DataSource dataSource;
+    private final ObjectProvider<ItemMapper> itemMapper;
+    private final ObjectProvider<EntityManager> entityManager;
+    private final ObjectProvider<PooledIdAllocator> idAllocator;
+
+    @Bean
+    public ItemService itemService() {
+        return new ItemServiceV1(itemRepository());
+    }
+
+    @Bean
+    public ItemRepository itemRepository() {
+        return new TieredItemRepository(backingRepository(), properties.getCapacity());
+    }
+
+    private ItemRepository backingRepository() {
+        switch (properties.getBacking()) {
+            case JDBC_TEMPLATE_V3:
+                return new JdbcTemplateItemRepositoryV3(dataSource, idAllocator.getIfAvailable());
+            case MYBATIS:
+                return new MyBatisItemRepository(itemMapper.getObject(), idAllocator.getIfAvailable());
+            case JPA:
+                return new JpaItemRepositoryV3(entityManager.getObject());
+            default:
+                throw new IllegalStateException("DB 계층으로 사용할 수 없습니다. itemservice.tiered.backing=" + properties.getBacking());
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package hello.itemservice.config;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import java.util.Set;
+
+/**
+ * 선택한 구현 기술이 사용하지 않는 MyBatis, JPA 자동 구성을 제외한다
+ * - 클래스패스에 있으면 사용하지 않아도 SqlSessionFactory, EntityManagerFactory 를 만들고
+ * - 매퍼 XML 파싱, 엔티티 스캔, 하이버네이트 메타데이터 구성, 스프링 데이터 리포지토리 생성에 시작 시간을 쓴다
+ * - itemservice.startup.exclude-unused-auto-configuration=true 일 때만 동작한다 (fast-startup 프로필)
+ *
+ * 주의
+ * - 제외된 기술의 빈(ItemMapper, 스프링 데이터 리포지토리, EntityManager)은 주입받을 수 없다
+ */
+public class UnusedBackendAutoConfigurationFilter implements AutoConfigurationImportFilter, EnvironmentAware {
+
+    static final String ENABLED = "itemservice.startup.exclude-unused-auto-configuration";
+
+    private static final Set<String> MYBATIS = Set.of(
+            "org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration",
+            "org.mybatis.spring.boot.autoconfigure.MybatisLanguageDriverAutoConfiguration");
+
+    private static final Set<String> JPA = Set.of(
+            "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration");
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+        boolean[] match = new boolean[autoConfigurationClasses.length];
+        boolean enabled = environment.getProperty(ENABLED, Boolean.class, false);
+        ItemBackend backend = enabled ? ItemBackend.from(environment) : null;
+
+        for (int i = 0; i < autoConfigurationClasses.length; i++) {
+            String candidate = autoConfigurationClasses[i];
+            match[i] = backend == null
+                    || !(MYBATIS.contains(candidate) && !backend.usesMyBatis())
+                    && !(JPA.contains(candidate) && !backend.usesJpa());
+        }
+        return match;
+    }
+
+}
@@ -0,0 +1,42 @@
+package hello.itemservice.config;
+
+import hello.itemservice.warmup.ConnectionPoolWarmup;
+import hello.itemservice.warmup.MyBatisMapperValidator;
+import hello.itemservice.warmup.StartupWarmup;
+import hello.itemservice.warmup.WarmupProperties;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 시작 시 warm-up
+ * - 커넥션 풀, MyBatis 매퍼는 여기서 등록하고
+ * - SimpleJdbcInsert 컴파일, 쿼리 플랜 생성은 각 리포지토리가 WarmupTask 를 구현해서 참여한다
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+@ConditionalOnProperty(prefix = "itemservice.warmup", name = "enabled", matchIfMissing = true)
+public class WarmupConfig {
+
+    @Bean
+    public StartupWarmup startupWarmup(ConfigurableListableBeanFactory beanFactory, WarmupProperties properties) {
+        return new StartupWarmup(beanFactory, properties.isFailOnError());
+    }
+
+    @Bean
+    public ConnectionPoolWarmup connectionPoolWarmup(ObjectProvider<DataSource> dataSources) {
+        return new ConnectionPoolWarmup(dataSources);
+    }
+
+    @Bean
+    public MyBatisMapperValidator myBatisMapperValidator(ObjectProvider<SqlSessionFactory> sqlSessionFactory) {
+        return new MyBatisMapperValidator(sqlSessionFactory);
+    }
+
+}
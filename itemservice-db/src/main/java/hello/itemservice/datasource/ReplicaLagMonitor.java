@@ -0,0 +1,84 @@
+package hello.itemservice.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 레플리카 지연 모니터
+ * - 주기적으로 각 레플리카에 lagQuery 를 실행해서 복제 지연(ms)을 확인한다
+ * - 지연이 maxLagMillis 를 넘거나 쿼리가 실패하면 해당 레플리카를 라우팅에서 제외한다
+ *
+ * lagQuery 예시
+ * - PostgreSQL: select coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+ * - 로컬 H2 처럼 복제가 없는 경우: select 0
+ */
+@Slf4j
+public class ReplicaLagMonitor implements Closeable {
+
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final Map<String, Long> lags = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, String lagQuery, long maxLagMillis) {
+        this.replicas = replicas;
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long checkIntervalMillis) {
+        checkNow();
+        scheduler.scheduleWithFixedDelay(this::checkNow, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void checkNow() {
+        replicas.forEach((key, dataSource) -> {
+            try {
+                long lag = queryLag(dataSource);
+                lags.put(key, lag);
+                if (lag > maxLagMillis) {
+                    log.warn("레플리카 지연 초과 replica={}, lag={}ms", key, lag);
+                }
+            } catch (SQLException | RuntimeException e) {
+                lags.remove(key);
+                log.warn("레플리카 상태 확인 실패 replica={}", key, e);
+            }
+        });
+    }
+
+    public boolean isAvailable(String key) {
+        Long lag = lags.get(key);
+        return lag != null && lag <= maxLagMillis;
+    }
+
+    private long queryLag(DataSource dataSource) throws SQLException {
+        try (Connection con = dataSource.getConnection();
+             Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery(lagQuery)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+}
@@ -0,0 +1,35 @@
+package hello.itemservice.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.datasource.replication")
+public class ReplicationDataSourceProperties {
+
+    private boolean enabled;
+
+    private Node primary = new Node();
+
+    //key: 레플리카 이름
+    private Map<String, Node> replicas = new LinkedHashMap<>();
+
+    //레플리카 지연 확인 쿼리 - 결과는 지연 시간(ms)
+    private String lagQuery = "select 0";
+
+    private long maxLagMillis = 1000;
+
+    private long checkIntervalMillis = 1000;
+
+    @Data
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+
+}
@@ -0,0 +1,84 @@
+package hello.itemservice.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기/쓰기 분리 라우팅 데이터소스
+ * - 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 레플리카로, 나머지는 프라이머리로 보낸다
+ * - 레플리카는 라운드 로빈으로 선택하고, 지연이 크거나 응답이 없는 레플리카는 건너뛴다
+ * - 사용 가능한 레플리카가 없으면 프라이머리로 보낸다
+ *
+ * 주의
+ * - 트랜잭션 매니저는 트랜잭션 동기화(readOnly 정보)를 설정하기 전에 커넥션을 먼저 획득한다
+ * - 그래서 LazyConnectionDataSourceProxy 로 감싸서 실제 쿼리 시점에 커넥션을 고르도록 해야 한다
+ */
+@Slf4j
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final ReplicaLagMonitor lagMonitor;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReplicationRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.replicaKeys = new ArrayList<>(replicas.keySet());
+        this.lagMonitor = lagMonitor;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicaKeys.isEmpty()) {
+            return PRIMARY;
+        }
+
+        int size = replicaKeys.size();
+        int start = Math.floorMod(counter.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (lagMonitor.isAvailable(key)) {
+                return key;
+            }
+        }
+
+        log.debug("사용 가능한 레플리카가 없어 프라이머리로 조회");
+        return PRIMARY;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lagMonitor.close();
+        closeIfPossible(primary);
+        for (DataSource replica : replicas.values()) {
+            closeIfPossible(replica);
+        }
+    }
+
+    private void closeIfPossible(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package hello.itemservice.exporter;
+
+import hello.itemservice.domain.Item;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 컬럼 형식 파일 읽기 - 형식은 ColumnarItemWriter 참고
+ * - 행 그룹 하나씩 읽어서 행으로 되돌린다
+ */
+public class ColumnarItemReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @return 읽은 행 수
+     */
+    public static long read(InputStream compressed, Consumer<Item> consumer) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(compressed, BUFFER_SIZE), BUFFER_SIZE));
+        if (in.readInt() != ColumnarItemWriter.MAGIC) {
+            throw new IOException("컬럼 형식 파일이 아닙니다");
+        }
+
+        long rows = 0;
+        long lastId = 0;
+        int size;
+        while ((size = Varints.readInt(in)) != 0) {
+            long[] ids = new long[size];
+            for (int i = 0; i < size; i++) {
+                lastId += Varints.unzigzag(Varints.readLong(in));
+                ids[i] = lastId;
+            }
+
+            String[] itemNames = new String[size];
+            byte[] nameNulls = readNulls(in, size);
+            for (int i = 0; i < size; i++) {
+                if (!isNull(nameNulls, i)) {
+                    byte[] bytes = new byte[Varints.readInt(in)];
+                    in.readFully(bytes);
+                    itemNames[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+
+            Integer[] prices = readInts(in, size);
+            Integer[] quantities = readInts(in, size);
+
+            for (int i = 0; i < size; i++) {
+                Item item = new Item(itemNames[i], prices[i], quantities[i]);
+                item.setId(ids[i]);
+                consumer.accept(item);
+            }
+            rows += size;
+        }
+
+        long expected = Varints.readLong(in);
+        if (rows != expected) {
+            throw new IOException("행 수가 맞지 않습니다 expected=" + expected + " actual=" + rows);
+        }
+        return rows;
+    }
+
+    private static Integer[] readInts(DataInputStream in, int size) throws IOException {
+        byte[] nulls = readNulls(in, size);
+        Integer[] values = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            if (!isNull(nulls, i)) {
+                values[i] = Varints.unzigzag(Varints.readInt(in));
+            }
+        }
+        return values;
+    }
+
+    private static byte[] readNulls(DataInputStream in, int size) throws IOException {
+        byte[] bitmap = new byte[(size + 7) / 8];
+        in.readFully(bitmap);
+        return bitmap;
+    }
+
+    private static boolean isNull(byte[] bitmap, int i) {
+        return (bitmap[i >> 3] & (1 << (i & 7))) != 0;
+    }
+
+}
@@ -0,0 +1,110 @@
+package hello.itemservice.exporter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 컬럼 형식 - rowGroupSize 행씩 모아서 컬럼별로 연속해서 쓴다
+ *
+ * <pre>
+ * 파일   : MAGIC, 행 그룹..., 0(행 그룹 끝), 전체 행 수(varlong)
+ * 행 그룹: 행 수(varint)
+ *         id       - 이전 id 와의 차이(zigzag varlong). id 순서로 읽으므로 대부분 1바이트
+ *         itemName - null 비트맵, 길이(varint) + UTF-8
+ *         price    - null 비트맵, zigzag varint
+ *         quantity - null 비트맵, zigzag varint
+ * </pre>
+ *
+ * - 같은 컬럼 값이 모여 있어서 압축이 잘 되고, 필요한 컬럼만 읽기 쉽다
+ * - 행 그룹 하나만 메모리에 두므로 테이블 크기와 상관없이 메모리 사용량이 일정하다
+ */
+class ColumnarItemWriter implements ItemRowWriter {
+
+    static final int MAGIC = 0x49434F4C; //"ICOL"
+
+    private final DataOutputStream out;
+    private final long[] ids;
+    private final String[] itemNames;
+    private final Integer[] prices;
+    private final Integer[] quantities;
+    private int size;
+    private long lastId;
+    private long totalRows;
+
+    ColumnarItemWriter(DataOutputStream out, int rowGroupSize) throws IOException {
+        this.out = out;
+        this.ids = new long[rowGroupSize];
+        this.itemNames = new String[rowGroupSize];
+        this.prices = new Integer[rowGroupSize];
+        this.quantities = new Integer[rowGroupSize];
+        out.writeInt(MAGIC);
+    }
+
+    @Override
+    public void write(long id, String itemName, Integer price, Integer quantity) throws IOException {
+        ids[size] = id;
+        itemNames[size] = itemName;
+        prices[size] = price;
+        quantities[size] = quantity;
+        size++;
+        if (size == ids.length) {
+            flushRowGroup();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        Varints.writeInt(out, size);
+
+        for (int i = 0; i < size; i++) {
+            Varints.writeLong(out, Varints.zigzag(ids[i] - lastId));
+            lastId = ids[i];
+        }
+
+        writeNulls(itemNames);
+        for (int i = 0; i < size; i++) {
+            if (itemNames[i] != null) {
+                byte[] bytes = itemNames[i].getBytes(StandardCharsets.UTF_8);
+                Varints.writeInt(out, bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        writeInts(prices);
+        writeInts(quantities);
+
+        totalRows += size;
+        size = 0;
+    }
+
+    private void writeInts(Integer[] values) throws IOException {
+        writeNulls(values);
+        for (int i = 0; i < size; i++) {
+            if (values[i] != null) {
+                Varints.writeInt(out, Varints.zigzag(values[i]));
+            }
+        }
+    }
+
+    private void writeNulls(Object[] values) throws IOException {
+        byte[] bitmap = new byte[(size + 7) / 8];
+        for (int i = 0; i < size; i++) {
+            if (values[i] == null) {
+                bitmap[i >> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.write(bitmap);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flushRowGroup();
+        Varints.writeInt(out, 0);
+        Varints.writeLong(out, totalRows);
+        out.flush();
+    }
+
+}
@@ -0,0 +1,55 @@
+package hello.itemservice.exporter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * CSV - id,item_name,price,quantity 헤더 포함
+ * - 가져오기(ItemRecordReader)는 이 헤더를 보고 id 컬럼을 건너뛴다
+ * - 쉼표, 큰따옴표, 줄바꿈이 있는 이름은 큰따옴표로 감싼다
+ *   ItemRecordReader 는 한 줄씩 읽으므로 줄바꿈이 있는 이름은 다시 가져올 수 없고 오류 행이 된다
+ */
+class CsvItemWriter implements ItemRowWriter {
+
+    private final Writer writer;
+
+    CsvItemWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write("id,item_name,price,quantity\n");
+    }
+
+    @Override
+    public void write(long id, String itemName, Integer price, Integer quantity) throws IOException {
+        writer.write(Long.toString(id));
+        writer.write(',');
+        writeName(itemName);
+        writer.write(',');
+        if (price != null) {
+            writer.write(Integer.toString(price));
+        }
+        writer.write(',');
+        if (quantity != null) {
+            writer.write(Integer.toString(quantity));
+        }
+        writer.write('\n');
+    }
+
+    private void writeName(String itemName) throws IOException {
+        if (itemName == null) {
+            return;
+        }
+        if (itemName.indexOf(',') < 0 && itemName.indexOf('"') < 0 && itemName.indexOf('\n') < 0) {
+            writer.write(itemName);
+            return;
+        }
+        writer.write('"');
+        writer.write(itemName.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+}
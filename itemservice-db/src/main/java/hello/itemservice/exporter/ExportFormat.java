@@ -0,0 +1,24 @@
+package hello.itemservice.exporter;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+
+    CSV("csv.gz"),
+    COLUMNAR("itemcol.gz"); //ColumnarItemWriter 참고
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public static ExportFormat of(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+}
@@ -0,0 +1,14 @@
+package hello.itemservice.exporter;
+
+import lombok.Value;
+
+@Value
+public class ExportReport {
+
+    ExportFormat format;
+    long rows;
+    long bytes; //압축 후 크기
+    long elapsedMillis;
+    long rowsPerSecond;
+
+}
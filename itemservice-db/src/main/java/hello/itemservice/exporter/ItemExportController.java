@@ -0,0 +1,41 @@
+package hello.itemservice.exporter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * 상품 전체 내보내기
+ * - GET /item-export?format=csv (또는 columnar) - gzip 파일을 내려받는다
+ * - 응답에 바로 쓰므로 상품 수와 상관없이 메모리 사용량이 일정하다
+ * - 야간 배치처럼 파일로 남길 때는 ItemExporter.exportFile 을 사용한다
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class ItemExportController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ItemExporter itemExporter;
+
+    @GetMapping("/item-export")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody body = out -> {
+            ExportReport report = itemExporter.export(out, exportFormat);
+            log.info("상품 내보내기 응답 rows={} bytes={} {}ms", report.getRows(), report.getBytes(), report.getElapsedMillis());
+        };
+        return ResponseEntity.ok()
+                .contentType(GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"items." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+}
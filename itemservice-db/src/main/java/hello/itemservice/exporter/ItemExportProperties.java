@@ -0,0 +1,16 @@
+package hello.itemservice.exporter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.export")
+public class ItemExportProperties {
+
+    //드라이버가 한 번에 가져오는 행 수 - 메모리에 올라가는 결과의 최대 크기
+    private int fetchSize = 1000;
+
+    //컬럼 형식에서 한 번에 모아 쓰는 행 수
+    private int rowGroupSize = 8192;
+
+}
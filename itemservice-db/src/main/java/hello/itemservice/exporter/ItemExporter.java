@@ -0,0 +1,141 @@
+package hello.itemservice.exporter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * 상품 전체 내보내기 (CSV, 컬럼 형식 - gzip 압축)
+ * - 결과를 List 로 모으지 않고 fetchSize 단위로 가져오면서 한 행씩 바로 쓴다
+ * - 드라이버가 커서로 읽도록 readOnly 트랜잭션 안에서 조회한다 (PostgreSQL 은 autocommit 이 꺼져 있어야 커서를 쓴다)
+ *   MySQL 은 useCursorFetch=true 를 URL 에 추가해야 fetchSize 가 적용된다
+ * - readOnly 트랜잭션이므로 읽기/쓰기 분리를 켜면 레플리카에서 읽는다
+ * - 파일은 임시 파일에 쓴 뒤 이름을 바꾸므로, 중간에 실패해도 이전 파일이 남는다
+ */
+@Slf4j
+public class ItemExporter {
+
+    private static final String SQL = "select id, item_name, price, quantity from item order by id";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate template;
+    private final TransactionTemplate txTemplate;
+    private final int rowGroupSize;
+
+    public ItemExporter(DataSource dataSource, PlatformTransactionManager transactionManager,
+                        int fetchSize, int rowGroupSize) {
+        this.template = new JdbcTemplate(dataSource);
+        this.template.setFetchSize(fetchSize);
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.txTemplate.setReadOnly(true);
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    public ExportReport exportFile(Path target, ExportFormat format) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ExportReport report;
+        try (FileChannel channel = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            report = export(Channels.newOutputStream(channel), format);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+        log.info("상품 내보내기 완료 file={} rows={} bytes={} {}ms ({} rows/s)", target, report.getRows(),
+                report.getBytes(), report.getElapsedMillis(), report.getRowsPerSecond());
+        return report;
+    }
+
+    /**
+     * out 에 압축된 결과를 쓴다. out 은 닫지 않는다
+     */
+    public ExportReport export(OutputStream out, ExportFormat format) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        GZIPOutputStream gzip = new GZIPOutputStream(counting, BUFFER_SIZE);
+        BufferedOutputStream buffered = new BufferedOutputStream(gzip, BUFFER_SIZE);
+        ItemRowWriter writer = format == ExportFormat.CSV
+                ? new CsvItemWriter(new OutputStreamWriter(buffered, StandardCharsets.UTF_8))
+                : new ColumnarItemWriter(new DataOutputStream(buffered), rowGroupSize);
+
+        long rows = writeRows(writer);
+        writer.finish();
+        buffered.flush();
+        gzip.finish();
+        counting.flush();
+
+        long elapsedNanos = System.nanoTime() - start;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        long rowsPerSecond = elapsedNanos == 0 ? rows : rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        return new ExportReport(format, rows, counting.count, elapsedMillis, rowsPerSecond);
+    }
+
+    private long writeRows(ItemRowWriter writer) throws IOException {
+        long[] rows = new long[1];
+        try {
+            txTemplate.executeWithoutResult(status -> template.query(SQL, rs -> {
+                int price = rs.getInt(3);
+                Integer priceOrNull = rs.wasNull() ? null : price;
+                int quantity = rs.getInt(4);
+                Integer quantityOrNull = rs.wasNull() ? null : quantity;
+                try {
+                    writer.write(rs.getLong(1), rs.getString(2), priceOrNull, quantityOrNull);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    /**
+     * 압축 후 크기를 센다
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+    }
+
+}
@@ -0,0 +1,15 @@
+package hello.itemservice.exporter;
+
+import java.io.IOException;
+
+/**
+ * 내보내기 형식별 쓰기 - 한 행씩 받아서 스트림에 쓴다
+ */
+interface ItemRowWriter {
+
+    void write(long id, String itemName, Integer price, Integer quantity) throws IOException;
+
+    //남은 버퍼를 쓰고 형식의 끝을 기록한다. 스트림은 닫지 않는다
+    void finish() throws IOException;
+
+}
@@ -0,0 +1,25 @@
+package hello.itemservice.feed;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * 변경 피드에 기록된 변경
+ * - offset: 피드 전체에서 증가하는 순번, 소비자는 다음에 읽을 offset 을 기억했다가 이어서 읽는다
+ * - version: 상품별로 증가하는 버전, 그 상품의 변경이 모두 링 버퍼에서 밀려나면 1 부터 다시 센다
+ */
+@Value
+public class ItemChange {
+
+    long offset;
+    long version;
+    Instant committedAt;
+    ItemChangeType type;
+    Long itemId;
+    String itemName;
+    Integer price;
+    Integer quantity;
+    Integer quantityDelta;
+
+}
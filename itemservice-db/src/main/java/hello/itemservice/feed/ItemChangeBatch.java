@@ -0,0 +1,19 @@
+package hello.itemservice.feed;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * 변경 피드 조회 결과
+ * - nextOffset: 다음 조회 시 사용할 offset
+ * - truncated: 요청한 offset 의 변경이 이미 링 버퍼에서 밀려났다. 전체 목록을 다시 읽고 nextOffset 부터 이어서 읽어야 한다
+ */
+@Value
+public class ItemChangeBatch {
+
+    List<ItemChange> changes;
+    long nextOffset;
+    boolean truncated;
+
+}
@@ -0,0 +1,125 @@
+package hello.itemservice.feed;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * 상품 변경 피드 조회
+ * - GET /item-changes?offset=0 : 롱 폴링, 새 변경이 없으면 waitMillis 동안 기다린다
+ * - GET /item-changes/stream?offset=0 : SSE, 이벤트 id 가 offset 이므로 재연결 시 Last-Event-ID 다음부터 이어서 받는다
+ *
+ * 소비자는 응답의 nextOffset 을 저장해 두었다가 다음 요청에 사용한다
+ * truncated 면 놓친 변경이 있으므로 /items 로 전체를 다시 읽은 뒤 이어서 읽는다
+ */
+@Slf4j
+@RestController
+@RequestMapping("/item-changes")
+@RequiredArgsConstructor
+public class ItemChangeController {
+
+    private static final int MAX_BATCH = 1000;
+    private static final long MAX_WAIT_MILLIS = 60_000;
+    private static final long STREAM_TIMEOUT_MILLIS = 30 * 60_000;
+
+    private final ItemChangeFeed feed;
+
+    @GetMapping
+    public DeferredResult<ItemChangeBatch> poll(@RequestParam(defaultValue = "0") long offset,
+                                                @RequestParam(defaultValue = "100") int max,
+                                                @RequestParam(defaultValue = "30000") long waitMillis) {
+        int limit = Math.min(Math.max(max, 1), MAX_BATCH);
+        long wait = Math.min(Math.max(waitMillis, 0), MAX_WAIT_MILLIS);
+        DeferredResult<ItemChangeBatch> result = new DeferredResult<>(wait, () -> feed.read(offset, limit));
+
+        ItemChangeBatch batch = feed.read(offset, limit);
+        if (!batch.getChanges().isEmpty() || batch.isTruncated() || wait == 0) {
+            result.setResult(batch);
+            return result;
+        }
+
+        Runnable unsubscribe = feed.subscribe(change -> {
+            if (change.getOffset() >= offset) {
+                result.setResult(feed.read(offset, limit));
+            }
+        });
+        result.onCompletion(unsubscribe);
+
+        //구독하기 전에 기록된 변경을 놓치지 않도록 한 번 더 확인
+        ItemChangeBatch recheck = feed.read(offset, limit);
+        if (!recheck.getChanges().isEmpty()) {
+            result.setResult(recheck);
+        }
+        return result;
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long offset,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = lastEventId != null ? lastEventId + 1 : offset != null ? offset : feed.getNextOffset();
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        StreamSubscriber subscriber = new StreamSubscriber(emitter, from);
+        Runnable unsubscribe = feed.subscribe(change -> subscriber.catchUp());
+        subscriber.unsubscribe = unsubscribe;
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        subscriber.catchUp(); //구독 전에 기록된 변경부터 보낸다
+        return emitter;
+    }
+
+    /**
+     * 알림이 올 때마다 마지막으로 보낸 다음 offset 부터 피드를 읽어서 보낸다
+     * - 요청 스레드(처음)와 알림 스레드에서 호출되므로 동기화한다
+     */
+    private class StreamSubscriber {
+
+        private final SseEmitter emitter;
+        private long next;
+        private volatile Runnable unsubscribe;
+
+        private StreamSubscriber(SseEmitter emitter, long next) {
+            this.emitter = emitter;
+            this.next = next;
+        }
+
+        synchronized void catchUp() {
+            try {
+                while (true) {
+                    ItemChangeBatch batch = feed.read(next, MAX_BATCH);
+                    if (batch.isTruncated()) {
+                        emitter.send(SseEmitter.event().name("truncated").data(batch.getNextOffset()));
+                    }
+                    for (ItemChange change : batch.getChanges()) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(change.getOffset()))
+                                .name("item-change")
+                                .data(change, MediaType.APPLICATION_JSON));
+                    }
+                    next = batch.getNextOffset();
+                    if (batch.getChanges().isEmpty()) {
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("변경 피드 스트림 종료 next={}", next, e);
+                if (unsubscribe != null) {
+                    unsubscribe.run();
+                }
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package hello.itemservice.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * 상품 변경 피드 (CDC)
+ * - 커밋된 변경만 기록한다. 트랜잭션 밖에서 발행된 이벤트는 바로 기록한다
+ * - 최근 capacity 개의 변경만 링 버퍼에 보관한다. 상품별 버전도 링 버퍼에 남아 있는 상품만 보관한다
+ * - 구독자에게는 별도의 스레드 하나에서 offset 순서대로 알린다. 커밋한 스레드가 느린 구독자를 기다리지 않는다
+ *
+ * 순서
+ * - offset 은 커밋 후 기록된 순서다
+ * - 서로 다른 트랜잭션이 거의 동시에 커밋되면 커밋 순서와 기록 순서가 다를 수 있다
+ */
+@Slf4j
+public class ItemChangeFeed implements Closeable {
+
+    private final ItemChange[] ring;
+    private final Clock clock;
+    private final Map<Long, Long> versions = new HashMap<>(); //링 버퍼에 남은 상품의 마지막 버전
+    private final List<Consumer<ItemChange>> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "item-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long nextOffset;
+
+    public ItemChangeFeed(int capacity) {
+        this(capacity, Clock.systemUTC());
+    }
+
+    ItemChangeFeed(int capacity, Clock clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity 는 0 보다 커야 합니다. capacity=" + capacity);
+        }
+        this.ring = new ItemChange[capacity];
+        this.clock = clock;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        ItemChange change = append(event);
+        log.debug("item change offset={}, type={}, itemId={}", change.getOffset(), change.getType(), change.getItemId());
+    }
+
+    ItemChange append(ItemChangedEvent event) {
+        ItemChange change;
+        synchronized (this) {
+            long version = versions.merge(event.getItemId(), 1L, Long::sum);
+            change = new ItemChange(nextOffset, version, clock.instant(), event.getType(), event.getItemId(),
+                    event.getItemName(), event.getPrice(), event.getQuantity(), event.getQuantityDelta());
+            int slot = (int) (nextOffset % ring.length);
+            ItemChange evicted = ring[slot];
+            if (evicted != null) {
+                //밀려나는 변경이 그 상품의 마지막 변경이면 버전도 지운다
+                versions.remove(evicted.getItemId(), evicted.getVersion());
+            }
+            ring[slot] = change;
+            nextOffset++;
+            //락 안에서 작업을 넣어야 offset 순서대로 알린다
+            notifier.execute(() -> notifySubscribers(change));
+        }
+        return change;
+    }
+
+    private void notifySubscribers(ItemChange change) {
+        for (Consumer<ItemChange> subscriber : subscribers) {
+            try {
+                subscriber.accept(change);
+            } catch (RuntimeException e) {
+                log.warn("변경 피드 구독자 오류 offset={}", change.getOffset(), e);
+            }
+        }
+    }
+
+    /**
+     * fromOffset 부터 최대 max 개의 변경 조회
+     */
+    public synchronized ItemChangeBatch read(long fromOffset, int max) {
+        if (fromOffset > nextOffset) {
+            //재시작 등으로 피드가 처음부터 다시 시작되었다
+            return new ItemChangeBatch(List.of(), nextOffset, true);
+        }
+        long oldest = Math.max(0, nextOffset - ring.length);
+        long from = Math.max(fromOffset, oldest);
+        boolean truncated = fromOffset < oldest;
+
+        List<ItemChange> changes = new ArrayList<>();
+        long offset = from;
+        while (offset < nextOffset && changes.size() < max) {
+            changes.add(ring[(int) (offset % ring.length)]);
+            offset++;
+        }
+        return new ItemChangeBatch(changes, offset, truncated);
+    }
+
+    /**
+     * 새 변경을 구독한다. 반환된 Runnable 을 실행하면 구독을 해지한다
+     * - 구독 전에 기록된 변경은 read 로 읽어야 한다
+     */
+    public Runnable subscribe(Consumer<ItemChange> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+
+    @Override
+    public void close() {
+        notifier.shutdown();
+    }
+
+}
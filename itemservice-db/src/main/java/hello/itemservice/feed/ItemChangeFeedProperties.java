@@ -0,0 +1,15 @@
+package hello.itemservice.feed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.change-feed")
+public class ItemChangeFeedProperties {
+
+    private boolean enabled = true;
+
+    //링 버퍼에 보관할 최근 변경 수 - 소비자가 이보다 많이 밀리면 전체를 다시 읽어야 한다
+    private int capacity = 10_000;
+
+}
@@ -0,0 +1,75 @@
+package hello.itemservice.feed;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+
+import java.lang.reflect.Method;
+
+/**
+ * ItemRepository 빈의 쓰기에서 ItemChangedEvent 를 발행한다
+ * - 서비스, 인기 상품 재고 차감 등 저장소 빈을 거치는 save, update, decreaseQuantity 가 피드에 기록된다
+ * - saveAll(가져오기 등 대량 등록)은 기록하지 않는다. 행마다 이벤트와 트랜잭션 동기화가 생겨 청크 크기만큼 쌓인다
+ * - 이미 트랜잭션 프록시가 있으면 그 안쪽(마지막 어드바이스)에 추가한다. 커밋이 실패하면 이벤트도 기록되지 않는다
+ * - 예외가 나면 발행하지 않는다. 없는 상품의 update 는 저장소가 NoSuchElementException 을 던진다
+ * - 재고 차감은 성공했을 때만 발행한다
+ *
+ * ItemServiceV2 는 스프링 데이터 JPA(ItemRepositoryV2)로 쓰므로 서비스에서 직접 발행한다
+ */
+public class ItemChangePublishingPostProcessor extends AbstractAdvisingBeanPostProcessor implements ApplicationEventPublisherAware {
+
+    private ApplicationEventPublisher eventPublisher;
+
+    public ItemChangePublishingPostProcessor() {
+        this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut(new RootClassFilter(ItemRepository.class)), new Publisher());
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    private class Publisher implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            Method method = invocation.getMethod();
+            Object[] args = invocation.getArguments();
+            switch (method.getName()) {
+                case "save":
+                    if (result instanceof Item) {
+                        publish(ItemChangedEvent.saved((Item) result));
+                    }
+                    break;
+                case "update":
+                    if (args.length == 2 && args[1] instanceof ItemUpdateDto) {
+                        publish(ItemChangedEvent.updated((Long) args[0], (ItemUpdateDto) args[1]));
+                    }
+                    break;
+                case "decreaseQuantity":
+                    if (Boolean.TRUE.equals(result)) {
+                        publish(ItemChangedEvent.quantityDecreased((Long) args[0], (Integer) args[1]));
+                    }
+                    break;
+                default:
+            }
+            return result;
+        }
+
+        private void publish(ItemChangedEvent event) {
+            if (eventPublisher != null) {
+                eventPublisher.publishEvent(event);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,5 @@
+package hello.itemservice.feed;
+
+public enum ItemChangeType {
+    SAVED, UPDATED, QUANTITY_DECREASED
+}
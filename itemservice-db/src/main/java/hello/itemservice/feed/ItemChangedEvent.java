@@ -0,0 +1,36 @@
+package hello.itemservice.feed;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemUpdateDto;
+import lombok.Value;
+
+/**
+ * 상품을 변경할 때 발행하는 이벤트 (ItemChangePublishingPostProcessor, ItemServiceV2)
+ * - 트랜잭션 안에서 발행하고, 커밋된 후에 ItemChangeFeed 에 기록된다
+ * - 재고 차감은 차감 후 재고를 모르므로 quantity 대신 quantityDelta 만 담는다
+ */
+@Value
+public class ItemChangedEvent {
+
+    ItemChangeType type;
+    Long itemId;
+    String itemName;
+    Integer price;
+    Integer quantity;
+    Integer quantityDelta;
+
+    public static ItemChangedEvent saved(Item item) {
+        return new ItemChangedEvent(ItemChangeType.SAVED, item.getId(),
+                item.getItemName(), item.getPrice(), item.getQuantity(), null);
+    }
+
+    public static ItemChangedEvent updated(Long itemId, ItemUpdateDto updateParam) {
+        return new ItemChangedEvent(ItemChangeType.UPDATED, itemId,
+                updateParam.getItemName(), updateParam.getPrice(), updateParam.getQuantity(), null);
+    }
+
+    public static ItemChangedEvent quantityDecreased(Long itemId, int amount) {
+        return new ItemChangedEvent(ItemChangeType.QUANTITY_DECREASED, itemId, null, null, null, -amount);
+    }
+
+}
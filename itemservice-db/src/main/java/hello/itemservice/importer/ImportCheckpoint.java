@@ -0,0 +1,112 @@
+package hello.itemservice.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 가져오기 체크포인트 - 커밋된 청크 번호
+ * - 청크는 원본의 행(잘못된 행 포함)을 chunkSize 개씩 나눈 것이므로 같은 원본이면 재시작해도 같은 경계가 된다
+ * - 병렬로 커밋되므로 frontier(이보다 작은 청크는 모두 커밋) + frontier 이후에 커밋된 청크 번호로 기록한다
+ * - 원본(sourceId)이나 chunkSize 가 다르면 이전 체크포인트를 무시한다
+ *
+ * 주의
+ * - 청크 커밋 후 체크포인트 기록 전에 중단되면 그 청크는 다시 저장된다
+ */
+public class ImportCheckpoint {
+
+    private final Path file;
+    private final String sourceId;
+    private final int chunkSize;
+    private long frontier;
+    private final TreeSet<Long> committed = new TreeSet<>();
+
+    private ImportCheckpoint(Path file, String sourceId, int chunkSize) {
+        this.file = file;
+        this.sourceId = sourceId;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 파일에 기록하지 않는 체크포인트 - 재시작하지 않는 가져오기에 사용
+     */
+    public static ImportCheckpoint none() {
+        return new ImportCheckpoint(null, null, 0);
+    }
+
+    public static ImportCheckpoint load(Path file, String sourceId, int chunkSize) {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(file, sourceId, chunkSize);
+        if (!Files.exists(file)) {
+            return checkpoint;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("체크포인트를 읽을 수 없습니다: " + file, e);
+        }
+        if (!sourceId.equals(properties.getProperty("source"))
+                || !String.valueOf(chunkSize).equals(properties.getProperty("chunkSize"))) {
+            return checkpoint; //다른 원본 - 처음부터
+        }
+
+        checkpoint.frontier = Long.parseLong(properties.getProperty("frontier", "0"));
+        String committed = properties.getProperty("committed", "");
+        if (!committed.isEmpty()) {
+            for (String chunk : committed.split(",")) {
+                checkpoint.committed.add(Long.valueOf(chunk));
+            }
+        }
+        return checkpoint;
+    }
+
+    public synchronized boolean isCommitted(long chunk) {
+        return chunk < frontier || committed.contains(chunk);
+    }
+
+    public synchronized void markCommitted(long chunk) {
+        committed.add(chunk);
+        while (committed.remove(frontier)) {
+            frontier++;
+        }
+        save();
+    }
+
+    public synchronized long getFrontier() {
+        return frontier;
+    }
+
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty("source", sourceId);
+        properties.setProperty("chunkSize", String.valueOf(chunkSize));
+        properties.setProperty("frontier", String.valueOf(frontier));
+        properties.setProperty("committed", committed.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+        //임시 파일에 쓴 뒤 바꿔치기 - 쓰는 도중에 중단되어도 이전 체크포인트가 남는다
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("체크포인트를 기록할 수 없습니다: " + file, e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("체크포인트를 기록할 수 없습니다: " + file, e);
+        }
+    }
+
+}
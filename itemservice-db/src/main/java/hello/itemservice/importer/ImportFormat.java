@@ -0,0 +1,23 @@
+package hello.itemservice.importer;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+
+    CSV, //item_name,price,quantity (첫 줄 헤더는 생략 가능)
+    JSON_LINES; //한 줄에 하나씩 {"item_name":"..","price":..,"quantity":..}
+
+    public static ImportFormat of(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return CSV;
+            case "jsonl":
+            case "json":
+            case "json_lines":
+                return JSON_LINES;
+            default:
+                throw new IllegalArgumentException("지원하지 않는 형식: " + value);
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package hello.itemservice.importer;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class ImportReport {
+
+    boolean completed; //false 면 failure 를 확인하고 같은 체크포인트로 다시 실행한다
+    long rowsRead;
+    long imported;
+    long rejected;
+    long skipped; //이전 실행에서 이미 커밋된 청크의 행
+    long chunks;
+    long elapsedMillis;
+    long rowsPerSecond;
+    List<String> errors; //잘못된 행 - 앞에서부터 일부만
+    String failure;
+
+}
@@ -0,0 +1,29 @@
+package hello.itemservice.importer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * 상품 대량 가져오기
+ * - POST /item-import?format=csv (본문: CSV 또는 JSON lines)
+ * - 본문을 스트림으로 읽으므로 업로드 크기만큼 메모리를 쓰지 않는다
+ * - 요청으로 가져오면 체크포인트를 남기지 않는다. 재시작이 필요한 대량 적재는 ItemImporter.importFile 을 사용한다
+ */
+@RestController
+@RequiredArgsConstructor
+public class ItemImportController {
+
+    private final ItemImporter itemImporter;
+
+    @PostMapping("/item-import")
+    public ImportReport importItems(@RequestParam(defaultValue = "csv") String format,
+                                    HttpServletRequest request) throws IOException {
+        return itemImporter.importStream(request.getInputStream(), ImportFormat.of(format), ImportCheckpoint.none());
+    }
+
+}
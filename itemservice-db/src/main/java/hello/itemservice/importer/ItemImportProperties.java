@@ -0,0 +1,16 @@
+package hello.itemservice.importer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.import")
+public class ItemImportProperties {
+
+    //청크 하나 = 트랜잭션 하나 = saveAll 한 번
+    private int chunkSize = 1000;
+
+    //동시에 청크를 저장하는 스레드 수 - 커넥션 풀 크기보다 작게 잡는다
+    private int writers = 4;
+
+}
@@ -0,0 +1,188 @@
+package hello.itemservice.importer;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 상품 대량 가져오기
+ * - 원본을 한 줄씩 읽어서 chunkSize 행 단위 청크로 나누고, writers 개의 스레드가 청크마다 트랜잭션 하나로 saveAll 한다
+ * - 진행 중인 청크 수를 제한해서 읽기가 쓰기보다 빨라도 메모리가 늘어나지 않는다
+ * - 청크가 실패하면 새 청크를 만들지 않고 진행 중인 청크를 마친 뒤 중단한다. 같은 체크포인트로 다시 실행하면 커밋된 청크는 건너뛴다
+ * - 대량 등록(saveAll)은 상품 변경 피드에 기록하지 않는다 (ItemChangePublishingPostProcessor)
+ */
+@Slf4j
+public class ItemImporter {
+
+    private static final int MAX_ERRORS = 100;
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate txTemplate;
+    private final ItemValidator validator = new ItemValidator();
+    private final int chunkSize;
+    private final int writers;
+
+    public ItemImporter(ItemRepository itemRepository, PlatformTransactionManager transactionManager,
+                        int chunkSize, int writers) {
+        this.itemRepository = itemRepository;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.writers = writers;
+    }
+
+    /**
+     * 파일 가져오기 - checkpointFile 에 진행 상황을 기록하고, 다시 실행하면 이어서 가져온다
+     */
+    public ImportReport importFile(Path source, ImportFormat format, Path checkpointFile) throws IOException {
+        String sourceId = source.toAbsolutePath() + ":" + Files.size(source) + ":" + Files.getLastModifiedTime(source).toMillis();
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(checkpointFile, sourceId, chunkSize);
+        try (InputStream in = Files.newInputStream(source)) {
+            return importStream(in, format, checkpoint);
+        }
+    }
+
+    public ImportReport importStream(InputStream in, ImportFormat format, ImportCheckpoint checkpoint) throws IOException {
+        Run run = new Run(checkpoint);
+        try (ItemRecordReader reader = new ItemRecordReader(new InputStreamReader(in, StandardCharsets.UTF_8), format)) {
+            run.execute(reader);
+        }
+        return run.report();
+    }
+
+    /**
+     * 가져오기 한 번의 상태
+     */
+    private class Run {
+
+        private final ImportCheckpoint checkpoint;
+        private final long start = System.nanoTime();
+        private final ExecutorService executor;
+        private final Semaphore inFlight = new Semaphore(writers * 2);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final LongAdder imported = new LongAdder();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private long rowsRead;
+        private long rejected;
+        private long skipped;
+        private long chunks;
+
+        private Run(ImportCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            AtomicInteger sequence = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(writers, r -> new Thread(r, "item-import-" + sequence.getAndIncrement()));
+        }
+
+        private void execute(ItemRecordReader reader) throws IOException {
+            try {
+                List<Item> items = new ArrayList<>(chunkSize);
+                int rows = 0;
+                ItemRecord record;
+                while (failure.get() == null && (record = reader.next()) != null) {
+                    rowsRead++;
+                    rows++;
+                    if (checkpoint.isCommitted(chunks)) {
+                        skipped++;
+                    } else {
+                        accept(record, items);
+                    }
+                    if (rows == chunkSize) {
+                        submit(chunks++, items);
+                        items = new ArrayList<>(chunkSize);
+                        rows = 0;
+                    }
+                }
+                if (rows > 0 && failure.get() == null) {
+                    submit(chunks++, items);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+            } finally {
+                executor.shutdown();
+                awaitWriters();
+            }
+        }
+
+        private void accept(ItemRecord record, List<Item> items) {
+            String error = validator.validate(record);
+            if (error == null) {
+                items.add(new Item(record.getItemName(), record.getPrice(), record.getQuantity()));
+                return;
+            }
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("line " + record.getLineNumber() + ": " + error);
+            }
+        }
+
+        private void submit(long chunk, List<Item> items) throws InterruptedException {
+            if (checkpoint.isCommitted(chunk)) {
+                return;
+            }
+            if (items.isEmpty()) { //모두 잘못된 행
+                checkpoint.markCommitted(chunk);
+                return;
+            }
+
+            inFlight.acquire();
+            executor.execute(() -> {
+                try {
+                    if (failure.get() == null) {
+                        txTemplate.executeWithoutResult(status -> itemRepository.saveAll(items));
+                        imported.add(items.size());
+                        checkpoint.markCommitted(chunk);
+                    }
+                } catch (Throwable e) {
+                    log.warn("청크 저장 실패 chunk={}", chunk, e);
+                    failure.compareAndSet(null, e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        private void awaitWriters() {
+            try {
+                while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    log.info("가져오기 쓰기 대기 중 imported={}", imported.sum());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        private ImportReport report() {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long rowsPerSecond = elapsedMillis == 0 ? imported.sum() : imported.sum() * 1000 / elapsedMillis;
+            Throwable error = failure.get();
+            ImportReport report = new ImportReport(error == null, rowsRead, imported.sum(), rejected, skipped,
+                    chunks, elapsedMillis, rowsPerSecond, List.copyOf(errors), error == null ? null : error.toString());
+            log.info("가져오기 {} rows={}, imported={}, rejected={}, skipped={}, {}ms, {} rows/s",
+                    report.isCompleted() ? "완료" : "실패", rowsRead, report.getImported(), rejected, skipped,
+                    elapsedMillis, rowsPerSecond);
+            return report;
+        }
+    }
+
+}
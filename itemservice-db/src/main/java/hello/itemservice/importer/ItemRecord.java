@@ -0,0 +1,21 @@
+package hello.itemservice.importer;
+
+import lombok.Value;
+
+/**
+ * 원본의 한 행 - 파싱에 실패하면 error 에 이유를 담는다
+ */
+@Value
+public class ItemRecord {
+
+    long lineNumber;
+    String itemName;
+    Integer price;
+    Integer quantity;
+    String error;
+
+    static ItemRecord invalid(long lineNumber, String error) {
+        return new ItemRecord(lineNumber, null, null, null, error);
+    }
+
+}
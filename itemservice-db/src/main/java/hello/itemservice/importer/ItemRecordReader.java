@@ -0,0 +1,153 @@
+package hello.itemservice.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CSV, JSON lines 를 한 줄씩 읽는다
+ * - 전체를 메모리에 올리지 않으므로 원본 크기와 상관없이 일정한 메모리로 읽는다
+ * - 형식이 잘못된 행은 예외 대신 error 가 있는 ItemRecord 로 돌려준다
+ * - 빈 줄은 건너뛴다
+ * - CSV 는 item_name,price,quantity 와 내보내기(CsvItemWriter) 형식인 id,item_name,price,quantity 를 읽는다
+ *   id 컬럼은 무시하고 저장할 때 새 id 를 발급한다
+ * - 한 줄씩 읽으므로 큰따옴표 안에 줄바꿈이 있는 값은 읽을 수 없다. 닫히지 않은 따옴표가 있는 행은 오류로 돌려준다
+ */
+public class ItemRecordReader implements Closeable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private long lineNumber;
+    private boolean idColumn;
+
+    public ItemRecordReader(Reader reader, ImportFormat format) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 64 * 1024);
+        this.format = format;
+    }
+
+    /**
+     * 다음 행, 더 이상 없으면 null
+     */
+    public ItemRecord next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == ImportFormat.CSV && lineNumber == 1 && isHeader(line)) {
+                continue;
+            }
+            return format == ImportFormat.CSV ? parseCsv(line) : parseJson(line);
+        }
+        return null;
+    }
+
+    private boolean isHeader(String line) {
+        String header = line.trim().toLowerCase(Locale.ROOT);
+        if (header.startsWith("id,item_name")) {
+            idColumn = true;
+            return true;
+        }
+        return header.startsWith("item_name");
+    }
+
+    private ItemRecord parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields == null) {
+            return ItemRecord.invalid(lineNumber, "닫히지 않은 큰따옴표 - 줄바꿈이 들어간 값은 읽을 수 없습니다");
+        }
+        int columns = idColumn ? 4 : 3;
+        if (fields.size() != columns) {
+            return ItemRecord.invalid(lineNumber, "컬럼 수가 " + columns + "개가 아닙니다: " + fields.size());
+        }
+        int first = idColumn ? 1 : 0;
+        try {
+            return new ItemRecord(lineNumber, fields.get(first), parseInt(fields.get(first + 1)), parseInt(fields.get(first + 2)), null);
+        } catch (NumberFormatException e) {
+            return ItemRecord.invalid(lineNumber, "숫자 형식 오류: " + e.getMessage());
+        }
+    }
+
+    private ItemRecord parseJson(String line) {
+        try {
+            JsonNode node = OBJECT_MAPPER.readTree(line);
+            JsonNode itemName = node.has("item_name") ? node.get("item_name") : node.get("itemName");
+            return new ItemRecord(lineNumber,
+                    itemName == null || itemName.isNull() ? null : itemName.asText(),
+                    intValue(node.get("price")),
+                    intValue(node.get("quantity")),
+                    null);
+        } catch (JsonProcessingException e) {
+            return ItemRecord.invalid(lineNumber, "JSON 형식 오류: " + e.getOriginalMessage());
+        } catch (NumberFormatException e) {
+            return ItemRecord.invalid(lineNumber, "숫자 형식 오류: " + e.getMessage());
+        }
+    }
+
+    private static Integer intValue(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isInt()) {
+            return node.intValue();
+        }
+        return parseInt(node.asText());
+    }
+
+    private static Integer parseInt(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : Integer.valueOf(trimmed);
+    }
+
+    /**
+     * 쉼표로 나누되 큰따옴표로 감싼 필드 안의 쉼표와 "" 는 값으로 본다
+     * 줄 끝까지 따옴표가 닫히지 않으면 null
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
@@ -0,0 +1,45 @@
+package hello.itemservice.importer;
+
+import hello.itemservice.domain.Item;
+
+import javax.persistence.Column;
+
+/**
+ * 가져올 상품 검증
+ * - 상품명 최대 길이는 Item 엔티티의 @Column(length) 를 그대로 사용한다
+ */
+public class ItemValidator {
+
+    static final int MAX_ITEM_NAME_LENGTH = itemNameLength();
+
+    private static int itemNameLength() {
+        try {
+            return Item.class.getDeclaredField("itemName").getAnnotation(Column.class).length();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 오류 메시지, 정상이면 null
+     */
+    public String validate(ItemRecord record) {
+        if (record.getError() != null) {
+            return record.getError();
+        }
+        if (record.getItemName() == null || record.getItemName().isBlank()) {
+            return "상품명이 없습니다";
+        }
+        if (record.getItemName().length() > MAX_ITEM_NAME_LENGTH) {
+            return "상품명은 " + MAX_ITEM_NAME_LENGTH + "자 이하여야 합니다: " + record.getItemName();
+        }
+        if (record.getPrice() == null || record.getPrice() < 0) {
+            return "가격은 0 이상이어야 합니다";
+        }
+        if (record.getQuantity() == null || record.getQuantity() < 0) {
+            return "수량은 0 이상이어야 합니다";
+        }
+        return null;
+    }
+
+}
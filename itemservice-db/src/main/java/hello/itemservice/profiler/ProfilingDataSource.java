@@ -0,0 +1,232 @@
+package hello.itemservice.profiler;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * SQL 실행을 SqlProfiler 에 기록하는 데이터소스 프록시
+ * - Connection, Statement, ResultSet 을 JDK 동적 프록시로 감싼다
+ * - JdbcTemplate, MyBatis, JPA 모두 같은 데이터소스 빈을 사용하므로 기술에 상관없이 기록된다
+ * - ResultSet 은 샘플링된 실행만 감싸서 row 수를 센다
+ * - 빈을 감싸므로 종료할 때 close 를 대상 데이터소스(커넥션 풀)에 넘긴다
+ */
+public class ProfilingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final ClassLoader CLASS_LOADER = ProfilingDataSource.class.getClassLoader();
+    private static final List<String> EXECUTE_METHODS =
+            List.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final SqlProfiler profiler;
+
+    public ProfilingDataSource(DataSource targetDataSource, SqlProfiler profiler) {
+        super(targetDataSource);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    @Override
+    public void close() throws Exception {
+        DataSource target = obtainTargetDataSource();
+        if (target instanceof AutoCloseable) {
+            ((AutoCloseable) target).close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{type}, handler);
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 프록시 자신의 equals, hashCode, toString 처리
+     */
+    private static Object objectMethod(Object proxy, Object target, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "Profiling[" + target + "]";
+        }
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        return method.getDeclaringClass() == Object.class;
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isObjectMethod(method)) {
+                return objectMethod(proxy, target, method, args);
+            }
+
+            String name = method.getName();
+            if (name.equals("getMetaData")) {
+                profiler.metadataLookup();
+            }
+
+            Object result = invokeTarget(target, method, args);
+
+            if (result instanceof Statement && (name.startsWith("prepare") || name.equals("createStatement"))) {
+                String sql = name.startsWith("prepare") ? (String) args[0] : null;
+                return proxy(method.getReturnType(), new StatementHandler((Statement) result, sql));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+        private String batchSql;
+        private StatementStats sampledStats;
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isObjectMethod(method)) {
+                return objectMethod(proxy, target, method, args);
+            }
+
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0]; //Statement.addBatch(sql)
+            }
+            if (name.equals("getResultSet")) {
+                return profileResultSet((ResultSet) invokeTarget(target, method, args));
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return invokeTarget(target, method, args);
+            }
+
+            return execute(method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String executedSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            if (executedSql == null) {
+                executedSql = batchSql;
+            }
+            if (executedSql == null) {
+                return invokeTarget(target, method, args);
+            }
+
+            StatementStats stats = profiler.executed(executedSql);
+            boolean sample = profiler.shouldSample();
+            long start = sample ? System.nanoTime() : 0;
+
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable e) {
+                stats.failed();
+                throw e;
+            }
+
+            if (!sample) {
+                sampledStats = null;
+                return result;
+            }
+
+            stats.sample(System.nanoTime() - start);
+            sampledStats = null;
+            if (result instanceof Boolean) {
+                sampledStats = stats; //execute() 후 getResultSet() 으로 결과를 가져오는 경우 (MyBatis)
+            } else if (result instanceof Integer) {
+                stats.rows((Integer) result);
+            } else if (result instanceof Long) {
+                stats.rows((Long) result);
+            } else if (result instanceof int[]) {
+                long rows = 0;
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+                stats.rows(rows);
+            } else if (result instanceof ResultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, stats));
+            }
+            return result;
+        }
+
+        private ResultSet profileResultSet(ResultSet resultSet) {
+            if (resultSet == null || sampledStats == null) {
+                return resultSet;
+            }
+            StatementStats stats = sampledStats;
+            sampledStats = null;
+            return proxy(ResultSet.class, new ResultSetHandler(resultSet, stats));
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final StatementStats stats;
+        private long rows;
+        private boolean recorded;
+
+        private ResultSetHandler(ResultSet target, StatementStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isObjectMethod(method)) {
+                return objectMethod(proxy, target, method, args);
+            }
+
+            Object result = invokeTarget(target, method, args);
+            String name = method.getName();
+            if (name.equals("next") && Boolean.TRUE.equals(result)) {
+                rows++;
+            } else if (name.equals("close") && !recorded) {
+                recorded = true;
+                stats.rows(rows);
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package hello.itemservice.profiler;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * 데이터소스 빈을 ProfilingDataSource 로 감싼다
+ * - 라우팅 데이터소스는 감싸지 않는다. 라우팅 데이터소스를 사용하는 데이터소스 빈에서 한 번만 기록한다
+ */
+public class ProfilingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SqlProfiler> profiler;
+
+    public ProfilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource
+                && !(bean instanceof ProfilingDataSource)
+                && !(bean instanceof AbstractRoutingDataSource)) {
+            return new ProfilingDataSource((DataSource) bean, profiler.getObject());
+        }
+        return bean;
+    }
+
+}
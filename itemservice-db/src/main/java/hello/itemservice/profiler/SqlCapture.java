@@ -0,0 +1,133 @@
+package hello.itemservice.profiler;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 현재 스레드에서 실행된 SQL 을 범위(요청, 트랜잭션, 테스트) 단위로 모은다
+ *
+ * <pre>
+ * try (SqlCapture capture = SqlCapture.start()) {
+ *     itemRepository.findById(id);
+ *     capture.assertAtMost(SqlType.SELECT, 1);
+ * }
+ * </pre>
+ *
+ * - 범위는 중첩할 수 있고, 실행된 SQL 은 열려있는 모든 범위에 기록된다
+ * - nPlusOneThreshold 이상 같은 select 가 반복되면 N+1 로 의심한다
+ */
+public class SqlCapture implements AutoCloseable {
+
+    private static final ThreadLocal<SqlCapture> CURRENT = new ThreadLocal<>();
+
+    private final SqlCapture parent;
+    private final int nPlusOneThreshold;
+    private final BiConsumer<SqlCapture, String> nPlusOneListener;
+    private final Map<SqlType, Integer> typeCounts = new EnumMap<>(SqlType.class);
+    private final Map<String, Integer> selectCounts = new HashMap<>();
+    private boolean closed;
+
+    private SqlCapture(int nPlusOneThreshold, BiConsumer<SqlCapture, String> nPlusOneListener) {
+        this.parent = CURRENT.get();
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.nPlusOneListener = nPlusOneListener;
+        CURRENT.set(this);
+    }
+
+    public static SqlCapture start() {
+        return new SqlCapture(0, null);
+    }
+
+    static SqlCapture start(int nPlusOneThreshold, BiConsumer<SqlCapture, String> nPlusOneListener) {
+        return new SqlCapture(nPlusOneThreshold, nPlusOneListener);
+    }
+
+    static void record(SqlType type, String shape) {
+        for (SqlCapture capture = CURRENT.get(); capture != null; capture = capture.parent) {
+            capture.add(type, shape);
+        }
+    }
+
+    private void add(SqlType type, String shape) {
+        typeCounts.merge(type, 1, Integer::sum);
+        if (type != SqlType.SELECT || nPlusOneThreshold <= 0) {
+            return;
+        }
+        int count = selectCounts.merge(shape, 1, Integer::sum);
+        if (count == nPlusOneThreshold && nPlusOneListener != null) {
+            nPlusOneListener.accept(this, shape);
+        }
+    }
+
+    public int count(SqlType type) {
+        return typeCounts.getOrDefault(type, 0);
+    }
+
+    public int total() {
+        int total = 0;
+        for (Map.Entry<SqlType, Integer> entry : typeCounts.entrySet()) {
+            if (entry.getKey() != SqlType.METADATA) {
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    public Map<SqlType, Integer> counts() {
+        return new EnumMap<>(typeCounts);
+    }
+
+    //N+1 로 의심되는 select 모양
+    public Set<String> repeatedSelects() {
+        Set<String> repeated = new LinkedHashSet<>();
+        selectCounts.forEach((shape, count) -> {
+            if (nPlusOneThreshold > 0 && count >= nPlusOneThreshold) {
+                repeated.add(shape);
+            }
+        });
+        return repeated;
+    }
+
+    public void reset() {
+        typeCounts.clear();
+        selectCounts.clear();
+    }
+
+    public SqlCapture assertAtMost(SqlType type, int max) {
+        int actual = count(type);
+        if (actual > max) {
+            throw new AssertionError(String.format("expected at most %d %s statement(s) but was %d: %s",
+                    max, type, actual, typeCounts));
+        }
+        return this;
+    }
+
+    public SqlCapture assertExactly(SqlType type, int expected) {
+        int actual = count(type);
+        if (actual != expected) {
+            throw new AssertionError(String.format("expected %d %s statement(s) but was %d: %s",
+                    expected, type, actual, typeCounts));
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() == this) {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package hello.itemservice.profiler;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * SQL 실행 통계 조회
+ * - GET /sql-profile : SQL 모양별 통계 (실행 횟수 순)
+ * - DELETE /sql-profile : 통계 초기화
+ */
+@RestController
+@RequestMapping("/sql-profile")
+@RequiredArgsConstructor
+public class SqlProfileController {
+
+    private final SqlProfiler profiler;
+
+    @GetMapping
+    public List<Map<String, Object>> stats() {
+        return profiler.getStats().stream()
+                .map(this::toMap)
+                .collect(Collectors.toList());
+    }
+
+    @DeleteMapping
+    public void reset() {
+        profiler.reset();
+    }
+
+    private Map<String, Object> toMap(StatementStats stats) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("sql", stats.getSql());
+        map.put("type", stats.getType());
+        map.put("count", stats.getCount());
+        map.put("errors", stats.getErrors());
+        map.put("nPlusOneSuspects", stats.getNPlusOneSuspects());
+        map.put("sampled", stats.getSampled());
+        map.put("avgMicros", stats.getAvgMicros());
+        map.put("p50Micros", stats.percentileMicros(0.50));
+        map.put("p95Micros", stats.percentileMicros(0.95));
+        map.put("p99Micros", stats.percentileMicros(0.99));
+        map.put("avgRows", stats.getAvgRows());
+        return map;
+    }
+
+}
@@ -0,0 +1,100 @@
+package hello.itemservice.profiler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 실행 통계
+ * - hibernate.SQL, BasicBinder 로그 대신 SQL 모양별로 실행 횟수, 실행 시간 히스토그램, row 수를 모은다
+ * - 실행 횟수는 항상 세고, 실행 시간과 row 수는 sampleRate 번에 한 번 꼴로만 측정한다
+ * - 요청 단위 SqlCapture 에서 같은 select 가 반복되면 N+1 로 의심하고 경고한다
+ */
+@Slf4j
+public class SqlProfiler {
+
+    private static final int MAX_SHAPES = 10_000;
+    private static final String OVERFLOW_SHAPE = "(too many distinct statements)";
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int sampleRate;
+    private final int nPlusOneThreshold;
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final Map<String, StatementStats> stats = new ConcurrentHashMap<>();
+
+    public SqlProfiler(int sampleRate, int nPlusOneThreshold) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    /**
+     * 요청/트랜잭션 범위 시작 - N+1 감지 포함
+     */
+    public SqlCapture startScope(String name) {
+        return SqlCapture.start(nPlusOneThreshold, (capture, shape) -> {
+            StatementStats statementStats = stats.get(shape);
+            if (statementStats != null) {
+                statementStats.nPlusOneSuspected();
+            }
+            log.warn("N+1 의심 scope={}, 같은 select {}회 이상 실행: {}", name, nPlusOneThreshold, shape);
+        });
+    }
+
+    boolean shouldSample() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    StatementStats executed(String sql) {
+        String shape = shape(sql);
+        StatementStats statementStats = stats.get(shape);
+        if (statementStats == null) {
+            SqlType type = SqlType.of(shape);
+            String key = stats.size() < MAX_SHAPES ? shape : OVERFLOW_SHAPE + " " + type;
+            statementStats = stats.computeIfAbsent(key, k -> new StatementStats(k, type));
+        }
+        statementStats.executed();
+        SqlCapture.record(statementStats.getType(), shape);
+        return statementStats;
+    }
+
+    void metadataLookup() {
+        SqlCapture.record(SqlType.METADATA, "");
+    }
+
+    /**
+     * 리터럴을 ? 로 바꾸고 공백을 정리한 SQL
+     * - PreparedStatement 는 이미 ? 를 사용하므로 대부분 캐시에서 바로 찾는다
+     */
+    String shape(String sql) {
+        String shape = shapes.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        if (shapes.size() < MAX_SHAPES) {
+            shapes.put(sql, shape);
+        }
+        return shape;
+    }
+
+    public Collection<StatementStats> getStats() {
+        List<StatementStats> result = new ArrayList<>(stats.values());
+        result.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+}
@@ -0,0 +1,18 @@
+package hello.itemservice.profiler;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.sql-profiler")
+public class SqlProfilerProperties {
+
+    private boolean enabled = false;
+
+    //실행 시간, row 수 측정 비율 - 10 이면 10번에 한 번 측정
+    private int sampleRate = 10;
+
+    //한 요청에서 같은 select 가 이 횟수 이상 실행되면 N+1 로 의심한다. 0 이면 감지하지 않는다
+    private int nPlusOneThreshold = 5;
+
+}
@@ -0,0 +1,48 @@
+package hello.itemservice.profiler;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * HTTP 요청 하나를 SqlCapture 범위로 묶어서 요청 단위로 N+1 을 감지한다
+ * - 비동기 요청(DeferredResult, SseEmitter, StreamingResponseBody)은 요청 스레드에서 afterCompletion 이 호출되지 않는다
+ *   afterConcurrentHandlingStarted 에서 범위를 닫아 스레드 풀의 스레드에 SqlCapture 가 남지 않게 한다
+ */
+public class SqlProfilingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String CAPTURE = SqlProfilingInterceptor.class.getName() + ".CAPTURE";
+
+    private final SqlProfiler profiler;
+
+    public SqlProfilingInterceptor(SqlProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(CAPTURE, profiler.startScope(request.getMethod() + " " + request.getRequestURI()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        closeCapture(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        closeCapture(request);
+    }
+
+    //SqlCapture 는 연 스레드에서 닫아야 ThreadLocal 이 지워진다
+    private static void closeCapture(HttpServletRequest request) {
+        Object capture = request.getAttribute(CAPTURE);
+        if (capture instanceof SqlCapture) {
+            ((SqlCapture) capture).close();
+            request.removeAttribute(CAPTURE);
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package hello.itemservice.profiler;
+
+public enum SqlType {
+
+    SELECT, INSERT, UPDATE, DELETE, OTHER,
+
+    //DatabaseMetaData 조회 - SimpleJdbcInsert 등이 테이블 정보를 읽을 때 발생
+    METADATA;
+
+    public static SqlType of(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        switch (trimmed.substring(0, end).toLowerCase()) {
+            case "select":
+            case "with":
+                return SELECT;
+            case "insert":
+                return INSERT;
+            case "update":
+                return UPDATE;
+            case "delete":
+                return DELETE;
+            default:
+                return OTHER;
+        }
+    }
+}
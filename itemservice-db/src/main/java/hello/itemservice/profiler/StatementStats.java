@@ -0,0 +1,108 @@
+package hello.itemservice.profiler;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 모양(파라미터를 ? 로 바꾼 SQL) 하나의 누적 통계
+ * - 실행 횟수, 오류 횟수, N+1 의심 횟수는 모든 실행을 센다
+ * - 실행 시간 히스토그램과 row 수는 샘플링된 실행만 기록한다
+ * - 히스토그램 버킷 i 는 [2^(i-1), 2^i) 마이크로초 구간이다
+ */
+public class StatementStats {
+
+    private static final int BUCKETS = 32;
+
+    @Getter
+    private final String sql;
+    @Getter
+    private final SqlType type;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder nPlusOneSuspects = new LongAdder();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder sampledRows = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+    public StatementStats(String sql, SqlType type) {
+        this.sql = sql;
+        this.type = type;
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    void executed() {
+        count.increment();
+    }
+
+    void failed() {
+        errors.increment();
+    }
+
+    void nPlusOneSuspected() {
+        nPlusOneSuspects.increment();
+    }
+
+    void sample(long nanos) {
+        sampled.increment();
+        sampledNanos.add(nanos);
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        histogram[bucket].increment();
+    }
+
+    void rows(long rows) {
+        sampledRows.add(rows);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getNPlusOneSuspects() {
+        return nPlusOneSuspects.sum();
+    }
+
+    public long getSampled() {
+        return sampled.sum();
+    }
+
+    public double getAvgMicros() {
+        long samples = sampled.sum();
+        return samples == 0 ? 0 : sampledNanos.sum() / 1000.0 / samples;
+    }
+
+    public double getAvgRows() {
+        long samples = sampled.sum();
+        return samples == 0 ? 0 : (double) sampledRows.sum() / samples;
+    }
+
+    /**
+     * 히스토그램으로 추정한 백분위 실행 시간(버킷 상한, 마이크로초)
+     */
+    public long percentileMicros(double percentile) {
+        long total = sampled.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(total * percentile);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += histogram[i].sum();
+            if (cumulative >= threshold) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+}
@@ -0,0 +1,70 @@
+package hello.itemservice.repository;
+
+import hello.itemservice.domain.Item;
+
+import java.util.*;
+
+/**
+ * findAllByIds 용 IN 목록 나누기
+ * - 한 쿼리의 IN 목록은 최대 MAX_IN_SIZE 개로 나눈다
+ * - 각 목록은 2의 거듭제곱 크기(1, 2, 4, ... MAX_IN_SIZE)로 마지막 id 를 반복해서 채운다
+ *   요청마다 id 수가 달라도 SQL 모양은 9가지뿐이므로 DB 실행 계획, PreparedStatement, 쿼리 플랜 캐시를 재사용한다
+ * - null 과 중복 id 는 빼고, 요청한 순서를 유지한다
+ */
+public final class ItemIdChunks {
+
+    public static final int MAX_IN_SIZE = 256;
+
+    private ItemIdChunks() {
+    }
+
+    public static List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> distinct = distinct(ids);
+        List<List<Long>> chunks = new ArrayList<>((distinct.size() + MAX_IN_SIZE - 1) / MAX_IN_SIZE);
+        for (int from = 0; from < distinct.size(); from += MAX_IN_SIZE) {
+            List<Long> chunk = new ArrayList<>(distinct.subList(from, Math.min(from + MAX_IN_SIZE, distinct.size())));
+            Long last = chunk.get(chunk.size() - 1);
+            int padded = paddedSize(chunk.size());
+            while (chunk.size() < padded) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    static int paddedSize(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    public static List<Long> distinct(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids.size() * 2);
+        for (Long id : ids) {
+            if (id != null) {
+                distinct.add(id);
+            }
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * 조회한 상품을 요청한 id 순서의 맵으로 - 없는 id 는 맵에 없다
+     */
+    public static Map<Long, Item> byRequestedOrder(Collection<Long> ids, Collection<Item> found) {
+        Map<Long, Item> byId = new HashMap<>(found.size() * 2);
+        for (Item item : found) {
+            if (item != null) {
+                byId.put(item.getId(), item);
+            }
+        }
+        Map<Long, Item> result = new LinkedHashMap<>(byId.size() * 2);
+        for (Long id : distinct(ids)) {
+            Item item = byId.get(id);
+            if (item != null) {
+                result.put(id, item);
+            }
+        }
+        return result;
+    }
+
+}
@@ -2,17 +2,47 @@ package hello.itemservice.repository;
 
 import hello.itemservice.domain.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ItemRepository {
 
     Item save(Item item);
 
+    /**
+     * 대량 저장 - 저장된 상품에는 id 가 채워진다
+     * - JdbcTemplate 은 JDBC 배치 insert 한 번으로 저장한다
+     * - JPA 는 IDENTITY 전략이라 하이버네이트가 insert 를 배치로 묶지 못한다
+     *   jpa-batch 프로필은 id 를 시퀀스(pooled-lo)로 발급해서 insert 를 배치로 묶는다
+     */
+    List<Item> saveAll(List<Item> items);
+
+    /**
+     * 상품이 없으면 NoSuchElementException - 변경 피드에 기록되지 않는다
+     */
     void update(Long itemId, ItemUpdateDto updateParam);
 
+    /**
+     * 재고 차감
+     * - 조회 후 수정하지 않고, 재고가 충분할 때만 한 번의 조건부 update 로 차감한다
+     * - 차감에 성공하면 true, 상품이 없거나 재고가 부족하면 false
+     */
+    boolean decreaseQuantity(Long itemId, int amount);
+
     Optional<Item> findById(Long id);
 
+    /**
+     * 여러 상품을 한 번에 조회 - 장바구니, 주문 상품처럼 id 가 여러 개일 때 findById 를 반복하지 않는다
+     * - DB 저장소는 IN 목록을 ItemIdChunks 로 나누고 채워서 조회한다
+     * - 요청한 id 순서의 맵을 돌려준다. 없는 id 는 맵에 없다
+     */
+    Map<Long, Item> findAllByIds(Collection<Long> ids);
+
     List<Item> findAll(ItemSearchCond cond);
 
+    //목록 화면용 - 엔티티 대신 조회 전용 DTO 로 조회한다
+    List<ItemSummary> findSummaries(ItemSearchCond cond);
+
 }
@@ -0,0 +1,18 @@
+package hello.itemservice.repository;
+
+import lombok.Value;
+
+/**
+ * 상품 목록 화면용 조회 전용 DTO
+ * - 엔티티가 아니므로 영속성 컨텍스트에 등록되지 않고, 변경 감지용 스냅샷도 만들지 않는다
+ * - 불변 객체로 만들어서 조회 결과를 안전하게 공유할 수 있다
+ */
+@Value
+public class ItemSummary {
+
+    Long id;
+    String itemName;
+    Integer price;
+    Integer quantity;
+
+}
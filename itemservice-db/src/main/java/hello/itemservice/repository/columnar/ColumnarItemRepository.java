@@ -0,0 +1,203 @@
+package hello.itemservice.repository.columnar;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.springframework.util.ObjectUtils;
+
+import java.util.*;
+
+/**
+ * 컬럼형 메모리 저장소
+ * - Item 객체를 보관하지 않고 price, quantity, 상품명 코드를 컬럼(IntColumn)별로 나눠 담는다
+ *   상품 하나에 Item, Long, Integer, String 객체 헤더와 참조가 붙지 않아서 메모리가 적고 GC 가 훑을 객체가 거의 없다
+ * - 상품명은 힙 밖의 사전(NameDictionary)에 한 번만 저장한다
+ * - id 는 1 부터 순서대로 발급하고 슬롯 번호(id - 1)로 쓴다. 삭제가 없으므로 빈 슬롯이 없다
+ * - 조회할 때 마다 새 Item 을 만들어 돌려준다. 돌려받은 Item 을 바꿔도 저장소는 바뀌지 않는다
+ *
+ * 조회
+ * - maxPrice 조건은 price 세그먼트(int[])를 순서대로 비교하는 단순 루프로 거른다
+ * - itemName 조건은 상품마다 비교하지 않고, 사전의 서로 다른 상품명만 한 번씩 비교해서 코드 목록을 만든다
+ *
+ * 동시성
+ * - save, update 는 writeLock 하나로 직렬화한다. decreaseQuantity 는 quantity 컬럼의 CAS 로 락 없이 처리한다
+ * - 읽기는 락이 없다. volatile size 를 먼저 읽고, 그보다 작은 슬롯만 읽는다
+ * - update 중인 상품을 읽으면 일부 컬럼만 바뀐 값이 보일 수 있다 (한 시점의 일관된 결과가 필요하면 MemoryItemRepository)
+ */
+public class ColumnarItemRepository implements ItemRepository {
+
+    private final Object writeLock = new Object();
+    private final IntColumn prices = new IntColumn();
+    private final IntColumn quantities = new IntColumn();
+    private final IntColumn nameCodes = new IntColumn();
+    private final NameDictionary names = new NameDictionary();
+
+    //쓰기가 끝날 때 마다 쓴다. 이후에 size 를 읽은 스레드는 그 전까지의 쓰기를 본다
+    private volatile int size;
+
+    @Override
+    public Item save(Item item) {
+        synchronized (writeLock) {
+            append(item);
+        }
+        return item;
+    }
+
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        synchronized (writeLock) {
+            items.forEach(this::append);
+        }
+        return items;
+    }
+
+    private void append(Item item) {
+        int slot = size;
+        if (slot == Integer.MAX_VALUE) {
+            throw new IllegalStateException("저장소가 가득 찼습니다");
+        }
+        int price = IntColumn.toInt(item.getPrice());
+        int quantity = IntColumn.toInt(item.getQuantity());
+        prices.ensureCapacity(slot + 1);
+        quantities.ensureCapacity(slot + 1);
+        nameCodes.ensureCapacity(slot + 1);
+        prices.set(slot, price);
+        quantities.set(slot, quantity);
+        nameCodes.set(slot, names.encode(item.getItemName()));
+        item.setId(slot + 1L);
+        size = slot + 1;
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        synchronized (writeLock) {
+            int slot = slot(itemId);
+            if (slot < 0) {
+                throw new NoSuchElementException("No value present");
+            }
+            int price = IntColumn.toInt(updateParam.getPrice());
+            int quantity = IntColumn.toInt(updateParam.getQuantity());
+            nameCodes.set(slot, names.encode(updateParam.getItemName()));
+            prices.set(slot, price);
+            quantities.set(slot, quantity);
+        }
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        int slot = slot(itemId);
+        if (slot < 0) {
+            return false;
+        }
+        while (true) {
+            int current = quantities.getVolatile(slot);
+            if (current == IntColumn.NULL || current < amount) {
+                return false;
+            }
+            if (quantities.compareAndSet(slot, current, current - amount)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        int slot = slot(id);
+        return slot < 0 ? Optional.empty() : Optional.of(item(slot));
+    }
+
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        Map<Long, Item> items = new LinkedHashMap<>(ids.size() * 2);
+        for (Long id : ids) {
+            int slot = slot(id);
+            if (slot >= 0) {
+                items.put(id, item(slot));
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public List<Item> findAll(ItemSearchCond cond) {
+        List<Item> items = new ArrayList<>();
+        scan(cond, slot -> items.add(item(slot)));
+        return items;
+    }
+
+    @Override
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        List<ItemSummary> summaries = new ArrayList<>();
+        scan(cond, slot -> summaries.add(new ItemSummary(slot + 1L, names.decode(nameCodes.get(slot)),
+                IntColumn.toInteger(prices.get(slot)), IntColumn.toInteger(quantities.getVolatile(slot)))));
+        return summaries;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private interface SlotConsumer {
+        void accept(int slot);
+    }
+
+    private void scan(ItemSearchCond cond, SlotConsumer consumer) {
+        int count = size;
+        boolean[] nameMatches = matchingNames(cond.getItemName());
+        Integer maxPrice = cond.getMaxPrice();
+
+        for (int segment = 0, base = 0; base < count; segment++, base += IntColumn.SEGMENT_SIZE) {
+            int length = Math.min(IntColumn.SEGMENT_SIZE, count - base);
+            int[] priceSegment = prices.segment(segment);
+            int[] codeSegment = nameCodes.segment(segment);
+            for (int i = 0; i < length; i++) {
+                if (maxPrice != null) {
+                    int price = priceSegment[i];
+                    if (price == IntColumn.NULL || price > maxPrice) {
+                        continue;
+                    }
+                }
+                if (nameMatches != null) {
+                    int code = codeSegment[i];
+                    //스캔 중에 새 상품명으로 바뀐 상품은 조건에 맞지 않는 것으로 본다
+                    if (code == NameDictionary.NULL_CODE || code >= nameMatches.length || !nameMatches[code]) {
+                        continue;
+                    }
+                }
+                consumer.accept(base + i);
+            }
+        }
+    }
+
+    /**
+     * 상품명 조건에 맞는 코드 표시. 조건이 없으면 null
+     */
+    private boolean[] matchingNames(String itemName) {
+        if (ObjectUtils.isEmpty(itemName)) {
+            return null;
+        }
+        int dictionarySize = names.size();
+        boolean[] matches = new boolean[dictionarySize];
+        for (int code = 0; code < dictionarySize; code++) {
+            matches[code] = names.decode(code).contains(itemName);
+        }
+        return matches;
+    }
+
+    private int slot(Long id) {
+        if (id == null || id < 1 || id > size) {
+            return -1;
+        }
+        return (int) (id - 1);
+    }
+
+    private Item item(int slot) {
+        Item item = new Item(names.decode(nameCodes.get(slot)),
+                IntColumn.toInteger(prices.get(slot)), IntColumn.toInteger(quantities.getVolatile(slot)));
+        item.setId(slot + 1L);
+        return item;
+    }
+
+}
@@ -0,0 +1,75 @@
+package hello.itemservice.repository.columnar;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * int 컬럼 - 고정 크기 int[] 세그먼트의 배열
+ * - 세그먼트 하나가 객체 하나다. 상품 수 만큼 객체가 생기지 않고, 안에 참조가 없어서 GC 가 내용을 훑지 않는다
+ * - 크기를 늘릴 때 기존 세그먼트는 그대로 두고 세그먼트 배열만 복사한다
+ * - null 은 NULL(Integer.MIN_VALUE)로 저장한다
+ */
+final class IntColumn {
+
+    static final int NULL = Integer.MIN_VALUE;
+
+    static final int SEGMENT_SHIFT = 16;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private volatile int[][] segments = new int[0][];
+
+    //쓰기 락 안에서만 호출한다
+    void ensureCapacity(int slots) {
+        int[][] current = segments;
+        int required = (slots + SEGMENT_MASK) >>> SEGMENT_SHIFT;
+        if (required > current.length) {
+            int[][] grown = Arrays.copyOf(current, Math.max(required, current.length * 2));
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new int[SEGMENT_SIZE];
+            }
+            segments = grown;
+        }
+    }
+
+    int get(int slot) {
+        return segments[slot >>> SEGMENT_SHIFT][slot & SEGMENT_MASK];
+    }
+
+    int getVolatile(int slot) {
+        return (int) INTS.getVolatile(segments[slot >>> SEGMENT_SHIFT], slot & SEGMENT_MASK);
+    }
+
+    void set(int slot, int value) {
+        INTS.setVolatile(segments[slot >>> SEGMENT_SHIFT], slot & SEGMENT_MASK, value);
+    }
+
+    boolean compareAndSet(int slot, int expected, int value) {
+        return INTS.compareAndSet(segments[slot >>> SEGMENT_SHIFT], slot & SEGMENT_MASK, expected, value);
+    }
+
+    /**
+     * 스캔용 - index 번째 세그먼트를 그대로 돌려준다 (복사하지 않는다)
+     */
+    int[] segment(int index) {
+        return segments[index];
+    }
+
+    static int toInt(Integer value) {
+        if (value == null) {
+            return NULL;
+        }
+        if (value == NULL) {
+            throw new IllegalArgumentException("저장할 수 없는 값입니다. value=" + value);
+        }
+        return value;
+    }
+
+    static Integer toInteger(int value) {
+        return value == NULL ? null : value;
+    }
+
+}
@@ -0,0 +1,130 @@
+package hello.itemservice.repository.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 상품명 사전 - 서로 다른 상품명을 한 번씩만 저장하고 코드(0, 1, 2...)를 붙인다
+ * - UTF-8 바이트는 힙 밖(direct ByteBuffer) 아레나에 이어서 쓴다. 힙에는 String 객체가 남지 않는다
+ * - 코드 i 의 바이트는 arena[ends[i-1], ends[i]) 구간이다
+ * - 문자열 -> 코드 조회는 int[] 오픈 어드레싱 해시 테이블로 한다
+ *
+ * 동시성
+ * - encode 는 저장소의 쓰기 락 안에서만 호출한다
+ * - decode 는 락 없이 호출한다. 늘어난 배열과 아레나는 기존 내용을 복사한 뒤에 교체하므로, 이미 발급된 코드는 항상 읽을 수 있다
+ */
+final class NameDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private volatile ByteBuffer arena = ByteBuffer.allocateDirect(64 * 1024);
+    private volatile int[] ends = new int[1024];
+    private volatile int size;
+    private int[] table = new int[2048]; //코드 + 1, 0 은 빈 칸
+
+    int encode(String name) {
+        if (name == null) {
+            return NULL_CODE;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int hash = mix(Arrays.hashCode(bytes));
+        int mask = table.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == 0) {
+                int code = add(bytes);
+                table[i] = code + 1;
+                if (size * 2 > table.length) {
+                    rehash();
+                }
+                return code;
+            }
+            if (equals(entry - 1, bytes)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    String decode(int code) {
+        if (code == NULL_CODE) {
+            return null;
+        }
+        int[] ends = this.ends;
+        ByteBuffer arena = this.arena.duplicate();
+        int start = code == 0 ? 0 : ends[code - 1];
+        byte[] bytes = new byte[ends[code] - start];
+        arena.position(start);
+        arena.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long offHeapBytes() {
+        return arena.capacity();
+    }
+
+    private int add(byte[] bytes) {
+        int code = size;
+        int start = code == 0 ? 0 : ends[code - 1];
+        ByteBuffer current = arena;
+        if (start + bytes.length > current.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(current.capacity() * 2, start + bytes.length));
+            ByteBuffer copy = current.duplicate();
+            copy.position(0).limit(start);
+            grown.put(copy);
+            arena = grown;
+            current = grown;
+        }
+        ByteBuffer target = current.duplicate();
+        target.position(start);
+        target.put(bytes);
+
+        if (code == ends.length) {
+            ends = Arrays.copyOf(ends, ends.length * 2);
+        }
+        ends[code] = start + bytes.length;
+        size = code + 1;
+        return code;
+    }
+
+    private boolean equals(int code, byte[] bytes) {
+        int start = code == 0 ? 0 : ends[code - 1];
+        if (ends[code] - start != bytes.length) {
+            return false;
+        }
+        ByteBuffer arena = this.arena;
+        for (int i = 0; i < bytes.length; i++) {
+            if (arena.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        int[] grown = new int[table.length * 2];
+        int mask = grown.length - 1;
+        for (int code = 0; code < size; code++) {
+            int start = code == 0 ? 0 : ends[code - 1];
+            byte[] bytes = new byte[ends[code] - start];
+            ByteBuffer copy = arena.duplicate();
+            copy.position(start);
+            copy.get(bytes);
+            int i = mix(Arrays.hashCode(bytes)) & mask;
+            while (grown[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            grown[i] = code + 1;
+        }
+        table = grown;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+}
@@ -0,0 +1,82 @@
+package hello.itemservice.repository.jdbctemplate;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC 배치 insert + 생성된 키 조회
+ * - JdbcTemplate 의 batchUpdate 는 생성된 키를 돌려주지 않으므로 PreparedStatement 를 직접 사용한다
+ * - 트랜잭션 동기화된 커넥션을 사용하므로 바깥 트랜잭션에 참여한다
+ * - 가격, 수량은 null 일 수 있다 (save 와 같다)
+ * - id 발급기가 있으면 id 를 먼저 정하고, 생성된 키 없이 JdbcTemplate batchUpdate 로 저장한다
+ */
+final class ItemBatchInsert {
+
+    private static final String SQL = "insert into item (item_name, price, quantity) values (?, ?, ?)";
+    static final String SQL_WITH_ID = "insert into item (id, item_name, price, quantity) values (?, ?, ?, ?)";
+
+    private ItemBatchInsert() {
+    }
+
+    static List<Item> insert(JdbcOperations jdbcTemplate, List<Item> items, PooledIdAllocator idAllocator) {
+        if (idAllocator != null) {
+            return insertWithIds(jdbcTemplate, items, idAllocator);
+        }
+        return insert(jdbcTemplate, items);
+    }
+
+    static List<Item> insert(JdbcOperations jdbcTemplate, List<Item> items) {
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        return jdbcTemplate.execute((ConnectionCallback<List<Item>>) con -> {
+            try (PreparedStatement pstmt = con.prepareStatement(SQL, new String[]{"id"})) {
+                for (Item item : items) {
+                    pstmt.setString(1, item.getItemName());
+                    pstmt.setObject(2, item.getPrice(), Types.INTEGER);
+                    pstmt.setObject(3, item.getQuantity(), Types.INTEGER);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+
+                int index = 0;
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    while (keys.next() && index < items.size()) {
+                        items.get(index++).setId(keys.getLong(1));
+                    }
+                }
+                if (index != items.size()) {
+                    throw new DataRetrievalFailureException(
+                            "생성된 키 수가 다릅니다. expected=" + items.size() + ", actual=" + index);
+                }
+            }
+            return items;
+        });
+    }
+
+    private static List<Item> insertWithIds(JdbcOperations jdbcTemplate, List<Item> items, PooledIdAllocator idAllocator) {
+        if (items.isEmpty()) {
+            return items;
+        }
+        for (Item item : items) {
+            item.setId(idAllocator.next());
+        }
+        jdbcTemplate.batchUpdate(SQL_WITH_ID, items, items.size(), (pstmt, item) -> {
+            pstmt.setLong(1, item.getId());
+            pstmt.setString(2, item.getItemName());
+            pstmt.setObject(3, item.getPrice(), Types.INTEGER);
+            pstmt.setObject(4, item.getQuantity(), Types.INTEGER);
+        });
+        return items;
+    }
+
+}
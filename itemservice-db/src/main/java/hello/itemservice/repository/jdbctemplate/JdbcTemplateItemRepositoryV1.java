@@ -1,36 +1,52 @@
 package hello.itemservice.repository.jdbctemplate;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemIdChunks;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
 import java.sql.PreparedStatement;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Slf4j
 @Repository
 public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
 
     private final JdbcTemplate jdbcTemplate;
+    private final PooledIdAllocator idAllocator; //null 이면 DB 가 생성한 키를 사용한다
 
     public JdbcTemplateItemRepositoryV1(DataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    public JdbcTemplateItemRepositoryV1(DataSource dataSource, @Nullable PooledIdAllocator idAllocator) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.idAllocator = idAllocator;
     }
 
     @Override
     public Item save(Item item) {
+        if (idAllocator != null) {
+            //id 를 먼저 정하므로 생성된 키를 돌려받지 않는다
+            long id = idAllocator.next();
+            jdbcTemplate.update("insert into item (id, item_name, price, quantity) values (?, ?, ?, ?)",
+                    id, item.getItemName(), item.getPrice(), item.getQuantity());
+            item.setId(id);
+            return item;
+        }
 
         String sql = "insert into item (item_name, price, quantity) values (?, ?, ?)";
 
@@ -50,16 +66,31 @@ public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        return ItemBatchInsert.insert(jdbcTemplate, items, idAllocator);
+    }
+
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
         String sql = "update item set item_name=?, price=?, quantity=? where id=?";
-        jdbcTemplate.update(
+        int updated = jdbcTemplate.update(
                 sql,
                 updateParam.getItemName(),
                 updateParam.getPrice(),
                 updateParam.getQuantity(),
                 itemId)
         ;
+        if (updated == 0) {
+            throw new NoSuchElementException("No value present");
+        }
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        //재고 확인과 차감을 하나의 update 로 처리한다 - 동시에 요청이 와도 재고가 음수가 되지 않는다
+        String sql = "update item set quantity = quantity - ? where id = ? and quantity >= ?";
+        return jdbcTemplate.update(sql, amount, itemId, amount) == 1;
     }
 
     @Override
@@ -74,8 +105,28 @@ public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
         }
     }
 
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        List<Item> found = new ArrayList<>();
+        for (List<Long> chunk : ItemIdChunks.chunks(ids)) {
+            String sql = "select id, item_name, price, quantity from item where id in ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            found.addAll(jdbcTemplate.query(sql, itemRowMapper(), chunk.toArray()));
+        }
+        return ItemIdChunks.byRequestedOrder(ids, found);
+    }
+
     @Override
     public List<Item> findAll(ItemSearchCond cond) {
+        return findAll(cond, itemRowMapper());
+    }
+
+    @Override
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        return findAll(cond, itemSummaryRowMapper());
+    }
+
+    private <T> List<T> findAll(ItemSearchCond cond, RowMapper<T> rowMapper) {
         String itemName = cond.getItemName();
         Integer maxPrice = cond.getMaxPrice();
         String sql = "select id, item_name, price, quantity from item";
@@ -104,7 +155,7 @@ public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
 
         log.info("sql = {}", sql);
         //결과 row 를 리스트로 조회
-        return jdbcTemplate.query(sql, itemRowMapper(), param.toArray());
+        return jdbcTemplate.query(sql, rowMapper, param.toArray());
     }
 
     private RowMapper<Item> itemRowMapper() { //like ResultSet
@@ -112,10 +163,18 @@ public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
             Item item = new Item();
             item.setId(rs.getLong("id"));
             item.setItemName(rs.getString("item_name"));
-            item.setPrice(rs.getInt("price"));
-            item.setQuantity(rs.getInt("quantity"));
+            item.setPrice(rs.getObject("price", Integer.class));
+            item.setQuantity(rs.getObject("quantity", Integer.class));
             return item;
         };
     }
 
+    private RowMapper<ItemSummary> itemSummaryRowMapper() {
+        return (rs, rowNum) -> new ItemSummary(
+                rs.getLong("id"),
+                rs.getString("item_name"),
+                rs.getObject("price", Integer.class),
+                rs.getObject("quantity", Integer.class));
+    }
+
 }
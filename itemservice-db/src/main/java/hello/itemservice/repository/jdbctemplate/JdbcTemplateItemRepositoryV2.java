@@ -1,9 +1,12 @@
 package hello.itemservice.repository.jdbctemplate;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemIdChunks;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
@@ -14,26 +17,37 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
 @Repository
 @Slf4j
 public class JdbcTemplateItemRepositoryV2 implements ItemRepository {
 
     private final NamedParameterJdbcTemplate template;
+    private final PooledIdAllocator idAllocator; //null 이면 DB 가 생성한 키를 사용한다
 
     public JdbcTemplateItemRepositoryV2(DataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    public JdbcTemplateItemRepositoryV2(DataSource dataSource, @Nullable PooledIdAllocator idAllocator) {
         this.template = new NamedParameterJdbcTemplate(dataSource);
+        this.idAllocator = idAllocator;
     }
 
     @Override
     public Item save(Item item) {
+        if (idAllocator != null) {
+            item.setId(idAllocator.next());
+            template.update("insert into item (id, item_name, price, quantity) " +
+                    "values (:id, :itemName, :price, :quantity)", new BeanPropertySqlParameterSource(item));
+            return item;
+        }
 
         String sql = "insert into item (item_name, price, quantity) " +
                 "values (:itemName, :price, :quantity)";
@@ -49,6 +63,12 @@ public class JdbcTemplateItemRepositoryV2 implements ItemRepository {
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        //NamedParameterJdbcTemplate 의 batchUpdate 는 생성된 키를 돌려주지 않는다
+        return ItemBatchInsert.insert(template.getJdbcTemplate(), items, idAllocator);
+    }
+
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
 
@@ -62,7 +82,21 @@ public class JdbcTemplateItemRepositoryV2 implements ItemRepository {
                 .addValue("quantity", updateParam.getQuantity())
                 .addValue("id", itemId); //이 부분이 별도로 필요하다.
 
-        template.update(sql, param);
+        if (template.update(sql, param) == 0) {
+            throw new NoSuchElementException("No value present");
+        }
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        String sql = "update item set quantity = quantity - :amount " +
+                "where id = :id and quantity >= :amount";
+
+        SqlParameterSource param = new MapSqlParameterSource()
+                .addValue("amount", amount)
+                .addValue("id", itemId);
+
+        return template.update(sql, param) == 1;
     }
 
     @Override
@@ -77,8 +111,30 @@ public class JdbcTemplateItemRepositoryV2 implements ItemRepository {
         }
     }
 
+    /**
+     * NamedParameterJdbcTemplate 은 컬렉션 파라미터를 ?, ?, ... 로 펼친다
+     */
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        String sql = "select id, item_name, price, quantity from item where id in (:ids)";
+        List<Item> found = new ArrayList<>();
+        for (List<Long> chunk : ItemIdChunks.chunks(ids)) {
+            found.addAll(template.query(sql, Map.of("ids", chunk), itemRowMapper()));
+        }
+        return ItemIdChunks.byRequestedOrder(ids, found);
+    }
+
     @Override
     public List<Item> findAll(ItemSearchCond cond) {
+        return findAll(cond, itemRowMapper());
+    }
+
+    @Override
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        return findAll(cond, itemSummaryRowMapper());
+    }
+
+    private <T> List<T> findAll(ItemSearchCond cond, RowMapper<T> rowMapper) {
 
         Integer maxPrice = cond.getMaxPrice();
         String itemName = cond.getItemName();
@@ -106,7 +162,7 @@ public class JdbcTemplateItemRepositoryV2 implements ItemRepository {
         }
         log.info("sql={}", sql);
 
-        return template.query(sql, param, itemRowMapper());
+        return template.query(sql, param, rowMapper);
     }
 
     private RowMapper<Item> itemRowMapper() {
@@ -114,4 +170,13 @@ public class JdbcTemplateItemRepositoryV2 implements ItemRepository {
         return BeanPropertyRowMapper.newInstance(Item.class); //camel 변환 지원
     }
 
+    private RowMapper<ItemSummary> itemSummaryRowMapper() {
+        //불변 객체는 setter 가 없으므로 생성자로 만든다
+        return (rs, rowNum) -> new ItemSummary(
+                rs.getLong("id"),
+                rs.getString("item_name"),
+                rs.getObject("price", Integer.class),
+                rs.getObject("quantity", Integer.class));
+    }
+
 }
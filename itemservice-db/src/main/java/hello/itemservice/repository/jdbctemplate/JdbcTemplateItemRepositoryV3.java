@@ -1,9 +1,13 @@
 package hello.itemservice.repository.jdbctemplate;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemIdChunks;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
+import hello.itemservice.warmup.WarmupTask;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
@@ -15,39 +19,71 @@ import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
 @Repository
 @Slf4j
-public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
+public class JdbcTemplateItemRepositoryV3 implements ItemRepository, WarmupTask {
 
     //SimpleJdbcInsert 사용
 
     private final NamedParameterJdbcTemplate template;
     private final SimpleJdbcInsert jdbcInsert; //INSERT SQL 을 직접 작성하지 않도록 편리한 기능 제공
+    private final PooledIdAllocator idAllocator; //null 이면 DB 가 생성한 키를 사용한다
 
     public JdbcTemplateItemRepositoryV3(DataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    public JdbcTemplateItemRepositoryV3(DataSource dataSource, @Nullable PooledIdAllocator idAllocator) {
         this.template = new NamedParameterJdbcTemplate(dataSource);
-        this.jdbcInsert = new SimpleJdbcInsert(dataSource)
-                .withTableName("item") //테이블명 지정
-                .usingGeneratedKeyColumns("id"); //key 를 생성하는 PK 지정
-                // .usingColumns("item_name", "price", "quantity"); //컬럼 지정 - 특정 값만 저장하고 싶을 때 사용
+        this.idAllocator = idAllocator;
+        if (idAllocator != null) {
+            //id 도 값으로 넣는다 - 생성된 키를 돌려받지 않는다
+            this.jdbcInsert = new SimpleJdbcInsert(dataSource)
+                    .withTableName("item");
+        } else {
+            this.jdbcInsert = new SimpleJdbcInsert(dataSource)
+                    .withTableName("item") //테이블명 지정
+                    .usingGeneratedKeyColumns("id"); //key 를 생성하는 PK 지정
+                    // .usingColumns("item_name", "price", "quantity"); //컬럼 지정 - 특정 값만 저장하고 싶을 때 사용
+        }
+    }
+
+    /**
+     * SimpleJdbcInsert 는 첫 insert 때 테이블 메타데이터를 조회한다
+     * - 커넥션을 잡은 채로 DatabaseMetaData 를 조회하므로 배포 직후 첫 insert 가 느려진다
+     * - 시작 시 미리 컴파일해둔다
+     */
+    @Override
+    public void warmup() {
+        jdbcInsert.compile();
     }
 
     @Override
     public Item save(Item item) {
+        if (idAllocator != null) {
+            item.setId(idAllocator.next());
+            jdbcInsert.execute(new BeanPropertySqlParameterSource(item));
+            return item;
+        }
         SqlParameterSource param = new BeanPropertySqlParameterSource(item);
         Number key = jdbcInsert.executeAndReturnKey(param);
         item.setId(key.longValue());
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        //SimpleJdbcInsert 의 executeBatch 는 생성된 키를 돌려주지 않는다
+        return ItemBatchInsert.insert(template.getJdbcTemplate(), items, idAllocator);
+    }
+
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
 
@@ -61,7 +97,21 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
                 .addValue("quantity", updateParam.getQuantity())
                 .addValue("id", itemId); //이 부분이 별도로 필요하다.
 
-        template.update(sql, param);
+        if (template.update(sql, param) == 0) {
+            throw new NoSuchElementException("No value present");
+        }
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        String sql = "update item set quantity = quantity - :amount " +
+                "where id = :id and quantity >= :amount";
+
+        SqlParameterSource param = new MapSqlParameterSource()
+                .addValue("amount", amount)
+                .addValue("id", itemId);
+
+        return template.update(sql, param) == 1;
     }
 
     @Override
@@ -76,8 +126,30 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
         }
     }
 
+    /**
+     * NamedParameterJdbcTemplate 은 컬렉션 파라미터를 ?, ?, ... 로 펼친다
+     */
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        String sql = "select id, item_name, price, quantity from item where id in (:ids)";
+        List<Item> found = new ArrayList<>();
+        for (List<Long> chunk : ItemIdChunks.chunks(ids)) {
+            found.addAll(template.query(sql, Map.of("ids", chunk), itemRowMapper()));
+        }
+        return ItemIdChunks.byRequestedOrder(ids, found);
+    }
+
     @Override
     public List<Item> findAll(ItemSearchCond cond) {
+        return findAll(cond, itemRowMapper());
+    }
+
+    @Override
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        return findAll(cond, itemSummaryRowMapper());
+    }
+
+    private <T> List<T> findAll(ItemSearchCond cond, RowMapper<T> rowMapper) {
 
         Integer maxPrice = cond.getMaxPrice();
         String itemName = cond.getItemName();
@@ -105,7 +177,7 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
         }
         log.info("sql={}", sql);
 
-        return template.query(sql, param, itemRowMapper());
+        return template.query(sql, param, rowMapper);
     }
 
     private RowMapper<Item> itemRowMapper() {
@@ -113,4 +185,13 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
         return BeanPropertyRowMapper.newInstance(Item.class); //camel 변환 지원
     }
 
+    private RowMapper<ItemSummary> itemSummaryRowMapper() {
+        //불변 객체는 setter 가 없으므로 생성자로 만든다
+        return (rs, rowNum) -> new ItemSummary(
+                rs.getLong("id"),
+                rs.getString("item_name"),
+                rs.getObject("price", Integer.class),
+                rs.getObject("quantity", Integer.class));
+    }
+
 }
@@ -1,18 +1,20 @@
 package hello.itemservice.repository.jpa;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemIdChunks;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Slf4j
 @Repository
@@ -43,9 +45,18 @@ public class JpaItemRepository implements ItemRepository {
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        items.forEach(entityManager::persist);
+        return items;
+    }
+
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
         Item findItem = entityManager.find(Item.class, itemId);
+        if (findItem == null) {
+            throw new NoSuchElementException("No value present");
+        }
         //JPA 는 트랜잭션이 커밋되는 시점에 변경된 엔티티 객체가 있는지 확인하고 update query 를 실행한다
         findItem.setItemName(updateParam.getItemName());
         findItem.setPrice(updateParam.getPrice());
@@ -53,12 +64,56 @@ public class JpaItemRepository implements ItemRepository {
     }
 
     @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        /**
+         * 벌크 연산
+         * - 변경 감지를 사용하면 조회 후 수정하기 때문에 동시 주문 시 재고가 맞지 않을 수 있다
+         * - JPQL update 는 영속성 컨텍스트를 거치지 않고 바로 DB 에 실행된다
+         * - 그래서 실행 전에 flush, 실행 후에 clear 로 영속성 컨텍스트와 DB 를 맞춰준다
+         */
+        entityManager.flush();
+        int count = entityManager.createQuery(
+                        "update Item i set i.quantity = i.quantity - :amount " +
+                                "where i.id = :id and i.quantity >= :amount")
+                .setParameter("amount", amount)
+                .setParameter("id", itemId)
+                .executeUpdate();
+        entityManager.clear();
+        return count == 1;
+    }
+
+    /**
+     * 읽기 전용 트랜잭션
+     * - 스프링이 하이버네이트 세션을 FlushMode.MANUAL, defaultReadOnly 로 설정한다
+     * - 플러시를 하지 않고, 조회한 엔티티의 변경 감지용 스냅샷을 만들지 않는다
+     * - 쓰기 트랜잭션에 참여하면 그 트랜잭션을 따른다. 이때 엔티티는 수정 가능해야 하므로 쿼리에 읽기 전용 힌트를 따로 주지 않는다
+     */
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Item> findById(Long id) {
         Item item =  entityManager.find(Item.class, id);
         return Optional.ofNullable(item);
     }
 
+    /**
+     * 하이버네이트 multiLoad - 영속성 컨텍스트에 이미 있는 상품은 조회하지 않고, 나머지를 IN 목록 하나로 조회한다
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        Session session = entityManager.unwrap(Session.class);
+        List<Item> found = new ArrayList<>();
+        for (List<Long> chunk : ItemIdChunks.chunks(ids)) {
+            found.addAll(session.byMultipleIds(Item.class)
+                    .enableSessionCheck(true)
+                    .withBatchSize(chunk.size())
+                    .multiLoad(chunk));
+        }
+        return ItemIdChunks.byRequestedOrder(ids, found);
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public List<Item> findAll(ItemSearchCond cond) {
 
         /**
@@ -66,41 +121,65 @@ public class JpaItemRepository implements ItemRepository {
          * - SQL 이 테이블을 대상으로 한다면 JPQL 은 엔티티 객체를 대상으로 SQL 을 실행한다
          * - 엔티티 객체를 대상으로 하기 때문에 엔티티 객체와 속성의 대소문자 구분해야 한다
          */
-        String jpql = "select i from Item i";
+        String jpql = "select i from Item i" + where(cond);
+        log.info("jpql={}", jpql);
+
+        TypedQuery<Item> query = entityManager.createQuery(jpql, Item.class);
+        bindParameters(query, cond);
 
+        return query.getResultList();
+    }
+
+    /**
+     * DTO 프로젝션
+     * - new 명령어로 엔티티 대신 DTO 를 바로 조회한다
+     * - 엔티티가 아니므로 영속성 컨텍스트에 쌓이지 않는다 - 목록 화면처럼 보여주기만 할 때 사용
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        String jpql = "select new hello.itemservice.repository.ItemSummary(i.id, i.itemName, i.price, i.quantity)" +
+                " from Item i" + where(cond);
+
+        TypedQuery<ItemSummary> query = entityManager.createQuery(jpql, ItemSummary.class);
+        bindParameters(query, cond);
+
+        return query.getResultList();
+    }
+
+    private String where(ItemSearchCond cond) {
         Integer maxPrice = cond.getMaxPrice();
         String itemName = cond.getItemName();
 
+        String where = "";
         if (StringUtils.hasText(itemName) || maxPrice != null) {
-            jpql += " where";
+            where += " where";
         }
 
         boolean andFlag = false;
 
         if (StringUtils.hasText(itemName)) {
-            jpql += " i.itemName like concat('%',:itemName,'%')";
+            where += " i.itemName like concat('%',:itemName,'%')";
             andFlag = true;
         }
 
         if (maxPrice != null) {
             if (andFlag) {
-                jpql += " and";
+                where += " and";
             }
-            jpql += " i.price <= :maxPrice";
+            where += " i.price <= :maxPrice";
         }
-        log.info("jpql={}", jpql);
-
-        TypedQuery<Item> query = entityManager.createQuery(jpql, Item.class);
+        return where;
+    }
 
-        if (StringUtils.hasText(itemName)) {
-            query.setParameter("itemName", itemName);
+    private void bindParameters(TypedQuery<?> query, ItemSearchCond cond) {
+        if (StringUtils.hasText(cond.getItemName())) {
+            query.setParameter("itemName", cond.getItemName());
         }
 
-        if (maxPrice != null) {
-            query.setParameter("maxPrice", maxPrice);
+        if (cond.getMaxPrice() != null) {
+            query.setParameter("maxPrice", cond.getMaxPrice());
         }
-
-        return query.getResultList();
     }
 
 }
@@ -1,16 +1,17 @@
 package hello.itemservice.repository.jpa;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemIdChunks;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Repository
 @Transactional
@@ -50,6 +51,11 @@ public class JpaItemRepositoryV2 implements ItemRepository {
         return repository.save(item);
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        return repository.saveAll(items);
+    }
+
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
         Item findItem = repository.findById(itemId).orElseThrow();
@@ -59,11 +65,32 @@ public class JpaItemRepositoryV2 implements ItemRepository {
     }
 
     @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        return repository.decreaseQuantity(itemId, amount) == 1;
+    }
+
+    @Override
+    @Transactional(readOnly = true) //읽기 전용 - 플러시와 변경 감지 스냅샷 생략
     public Optional<Item> findById(Long id) {
         return repository.findById(id);
     }
 
+    /**
+     * 스프링 데이터 JPA findAllById - id 목록 하나를 IN 쿼리 하나로 조회한다
+     * - 목록 크기를 제한하지 않으므로 ItemIdChunks 로 나누고 채워서 호출한다
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        List<Item> found = new ArrayList<>();
+        for (List<Long> chunk : ItemIdChunks.chunks(ids)) {
+            found.addAll(repository.findAllById(chunk));
+        }
+        return ItemIdChunks.byRequestedOrder(ids, found);
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public List<Item> findAll(ItemSearchCond cond) {
 
         String itemName = cond.getItemName();
@@ -80,4 +107,12 @@ public class JpaItemRepositoryV2 implements ItemRepository {
             return repository.findAll();
         }
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        String itemName = cond.getItemName();
+        String itemNameLike = StringUtils.hasText(itemName) ? "%" + itemName + "%" : null;
+        return repository.findSummaries(itemNameLike, cond.getMaxPrice());
+    }
 }
@@ -1,34 +1,39 @@
 package hello.itemservice.repository.jpa;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemIdChunks;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.querydsl.ItemQueryPlanRegistry;
+import hello.itemservice.warmup.WarmupTask;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 import static hello.itemservice.domain.QItem.item;
 
 @Repository
 @Transactional
 @RequiredArgsConstructor
-public class JpaItemRepositoryV3 implements ItemRepository {
+public class JpaItemRepositoryV3 implements ItemRepository, WarmupTask {
 
     private final EntityManager entityManager;
     private final JPAQueryFactory queryFactory; //Querydsl 을 사용하기 위해 필요하다. 스프링 빈으로 등록해서 사용해도 됨
+    private final ItemQueryPlanRegistry queryPlans;
 
     public JpaItemRepositoryV3(EntityManager entityManager) {
         this.entityManager = entityManager;
         this.queryFactory = new JPAQueryFactory(entityManager); //JPQL 을 만들기 때문에 EntityManager 필요
+        this.queryPlans = new ItemQueryPlanRegistry(entityManager);
     }
 
     @Override
@@ -37,6 +42,12 @@ public class JpaItemRepositoryV3 implements ItemRepository {
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        items.forEach(entityManager::persist);
+        return items;
+    }
+
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
         Item findItem = findById(itemId).orElseThrow();
@@ -46,11 +57,42 @@ public class JpaItemRepositoryV3 implements ItemRepository {
     }
 
     @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        //Querydsl 벌크 update - 영속성 컨텍스트를 거치지 않으므로 flush, clear 로 맞춰준다
+        entityManager.flush();
+        long count = queryFactory
+                .update(item)
+                .set(item.quantity, item.quantity.subtract(amount))
+                .where(item.id.eq(itemId), item.quantity.goe(amount))
+                .execute();
+        entityManager.clear();
+        return count == 1;
+    }
+
+    @Override
+    @Transactional(readOnly = true) //읽기 전용 - 플러시와 변경 감지 스냅샷 생략
     public Optional<Item> findById(Long id) {
         Item item = entityManager.find(Item.class, id);
         return Optional.ofNullable(item);
     }
 
+    /**
+     * 하이버네이트 multiLoad - 영속성 컨텍스트에 이미 있는 상품은 조회하지 않고, 나머지를 IN 목록 하나로 조회한다
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        Session session = entityManager.unwrap(Session.class);
+        List<Item> found = new ArrayList<>();
+        for (List<Long> chunk : ItemIdChunks.chunks(ids)) {
+            found.addAll(session.byMultipleIds(Item.class)
+                    .enableSessionCheck(true)
+                    .withBatchSize(chunk.size())
+                    .multiLoad(chunk));
+        }
+        return ItemIdChunks.byRequestedOrder(ids, found);
+    }
+
     public List<Item> findAllOld(ItemSearchCond cond) {
 
         String itemName = cond.getItemName();
@@ -73,32 +115,25 @@ public class JpaItemRepositoryV3 implements ItemRepository {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Item> findAll(ItemSearchCond cond) {
+        //검색 조건 모양별로 만들어둔 쿼리에 값만 바인딩해서 실행한다
+        return queryPlans.findItems(cond);
+    }
 
-        String itemName = cond.getItemName();
-        Integer maxPrice = cond.getMaxPrice();
-
-        return queryFactory
-                .select(item)
-                .from(item)
-                .where(
-                        //where 절에 다양한 조건을 넣으면 AND 조건으로 처리되고, null 일 경우 해당 조건을 무시한다
-                        likeItemName(itemName), maxPrice(maxPrice)
-                )
-                .fetch();
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        return queryPlans.findSummaries(cond);
     }
 
-    private BooleanExpression likeItemName(String itemName) {
-        if (StringUtils.hasText(itemName)) {
-            return item.itemName.like("%" + itemName + "%");
-        }
-        return null;
+    //검색 쿼리 플랜을 시작 시 미리 만든다
+    @Override
+    public void warmup() {
+        queryPlans.warmup();
     }
 
-    private BooleanExpression maxPrice(Integer maxPrice) {
-        if (maxPrice != null) {
-            return item.price.loe(maxPrice);
-        }
-        return null;
+    public ItemQueryPlanRegistry getQueryPlans() {
+        return queryPlans;
     }
 }
@@ -1,7 +1,9 @@
 package hello.itemservice.repository.jpa;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -19,4 +21,14 @@ public interface SpringDataJpaItemRepository extends JpaRepository<Item, Long> {
     //JPQL 쿼리 직접 실행
     @Query("select i from Item i where i.itemName like :itemName and i.price <= :price")
     List<Item> findItems(@Param("itemName") String itemName, @Param("price") Integer price); //@Param - 파라미터 명시적 바인딩
+
+    //DTO 프로젝션 - 조건이 null 이면 해당 조건을 무시한다
+    @Query("select new hello.itemservice.repository.ItemSummary(i.id, i.itemName, i.price, i.quantity) from Item i" +
+            " where (:itemName is null or i.itemName like :itemName) and (:price is null or i.price <= :price)")
+    List<ItemSummary> findSummaries(@Param("itemName") String itemName, @Param("price") Integer price);
+
+    //벌크 update - 실행 전 flush, 실행 후 영속성 컨텍스트 clear
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Item i set i.quantity = i.quantity - :amount where i.id = :id and i.quantity >= :amount")
+    int decreaseQuantity(@Param("id") Long id, @Param("amount") int amount);
 }
@@ -0,0 +1,60 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+
+/**
+ * 상품 하나의 버전 - 만든 뒤에는 바뀌지 않는다
+ * - version 은 이 버전을 만든 쓰기의 커밋 번호다
+ * - previous 로 이전 버전을 가리킨다. 읽고 있는 스냅샷이 더 이상 필요로 하지 않는 버전은 끊어낸다
+ */
+final class ItemVersion {
+
+    final long id;
+    final String itemName;
+    final Integer price;
+    final Integer quantity;
+    final long version;
+    private volatile ItemVersion previous;
+
+    ItemVersion(long id, String itemName, Integer price, Integer quantity, long version, ItemVersion previous) {
+        this.id = id;
+        this.itemName = itemName;
+        this.price = price;
+        this.quantity = quantity;
+        this.version = version;
+        this.previous = previous;
+    }
+
+    /**
+     * snapshot 시점에 보이는 버전. 그 시점에 없던 상품이면 null
+     */
+    ItemVersion visibleAt(long snapshot) {
+        for (ItemVersion v = this; v != null; v = v.previous) {
+            if (v.version <= snapshot) {
+                return v;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * oldest 이전 스냅샷만 보는 버전을 끊는다 - oldest 에 보이는 버전까지만 남긴다
+     */
+    void prune(long oldest) {
+        ItemVersion visible = visibleAt(oldest);
+        if (visible != null) {
+            visible.previous = null;
+        }
+    }
+
+    ItemVersion previous() {
+        return previous;
+    }
+
+    Item toItem() {
+        Item item = new Item(itemName, price, quantity);
+        item.setId(id);
+        return item;
+    }
+
+}
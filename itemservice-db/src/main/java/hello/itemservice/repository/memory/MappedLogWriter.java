@@ -0,0 +1,61 @@
+package hello.itemservice.repository.memory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * 메모리 맵 파일에 레코드를 이어서 쓴다
+ * - regionSize 만큼 매핑하고, 남은 공간이 부족하면 마지막 레코드 바로 뒤부터 다시 매핑한다 (레코드 사이에 빈 공간이 없다)
+ * - 쓰기는 페이지 캐시에 복사만 하므로 프로세스가 죽어도 남는다. 전원 장애까지 견디려면 force 한다
+ */
+class MappedLogWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final long regionSize;
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    MappedLogWriter(Path file, long regionSize) throws IOException {
+        this.channel = FileChannel.open(file, CREATE_NEW, READ, WRITE);
+        this.regionSize = regionSize;
+        this.region = channel.map(FileChannel.MapMode.READ_WRITE, 0, regionSize);
+    }
+
+    void write(ByteBuffer record) throws IOException {
+        if (region.remaining() < record.remaining()) {
+            regionStart += region.position();
+            region.force();
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(regionSize, record.remaining()));
+        }
+        region.put(record);
+    }
+
+    long position() {
+        return regionStart + region.position();
+    }
+
+    void force() {
+        region.force();
+    }
+
+    /**
+     * 쓴 곳까지만 남기고 닫는다
+     */
+    @Override
+    public void close() throws IOException {
+        region.force();
+        try {
+            channel.truncate(position());
+        } catch (IOException e) {
+            //매핑이 남아 있으면 잘라내지 못하는 OS 가 있다. 뒷부분은 0 으로 채워져 있어서 읽을 때 끝으로 인식한다
+        }
+        channel.close();
+    }
+
+}
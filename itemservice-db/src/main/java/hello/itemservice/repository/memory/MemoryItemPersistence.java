@@ -0,0 +1,270 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * MemoryItemRepository 스냅샷 + 로그(WAL)
+ * - 변경할 때 마다 상품의 최신 상태를 로그에 이어서 쓴다 (메모리 맵 파일)
+ * - 주기적으로 전체 상품을 스냅샷으로 쓰고, 스냅샷 이전 로그는 지운다
+ * - 시작할 때 마지막 스냅샷을 읽고 그 이후 로그를 순서대로 다시 적용한다
+ *
+ * 세대(generation)
+ * - items-N.snapshot 은 items-N.wal 을 시작하기 직전까지의 상태다
+ * - 스냅샷을 시작할 때 로그를 N 으로 바꾸고, 스냅샷을 다 쓰면 이름을 바꿔서 한 번에 공개한다
+ * - 스냅샷을 쓰는 동안 바뀐 상품은 스냅샷과 새 로그 양쪽에 있을 수 있다. 로그를 나중에 적용하므로 결과는 같다
+ *
+ * 순서
+ * - 로그에는 변경 내용이 아니라 락 안에서 다시 읽은 최신 상태를 쓴다
+ *   같은 상품을 동시에 바꿔도 마지막으로 쓴 레코드가 저장소의 마지막 상태와 같다
+ */
+@Slf4j
+public class MemoryItemPersistence implements Closeable {
+
+    private static final Pattern FILE_NAME = Pattern.compile("items-(\\d+)\\.(wal|snapshot)");
+
+    private final Path directory;
+    private final long regionSize;
+    private final boolean forceEveryWrite;
+    private final Duration snapshotInterval;
+    private final ByteBuffer buffer = MemoryItemRecords.newBuffer();
+    private final Object snapshotLock = new Object();
+
+    private MemoryItemRepository repository;
+    private ScheduledExecutorService scheduler;
+    private MappedLogWriter wal;
+    private long generation;
+    private boolean dirty;
+    private boolean closed;
+
+    public MemoryItemPersistence(Path directory, long regionSize, boolean forceEveryWrite, Duration snapshotInterval) {
+        this.directory = directory;
+        this.regionSize = regionSize;
+        this.forceEveryWrite = forceEveryWrite;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * 스냅샷과 로그로 repository 를 복구하고, 새 로그를 연다
+     */
+    public void recover(MemoryItemRepository repository) {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            List<Long> snapshots = generations("snapshot");
+            List<Long> wals = generations("wal");
+
+            long snapshotGeneration = 0;
+            long snapshotItems = 0;
+            for (int i = snapshots.size() - 1; i >= 0 && snapshotGeneration == 0; i--) {
+                long[] items = new long[1];
+                boolean[] complete = new boolean[1];
+                MemoryItemRecords.read(snapshotFile(snapshots.get(i)), (type, item) -> {
+                    if (type == MemoryItemRecords.PUT) {
+                        repository.restore(item);
+                        items[0]++;
+                    } else if (type == MemoryItemRecords.END) {
+                        complete[0] = item.getId() == items[0];
+                    }
+                });
+                if (complete[0]) {
+                    snapshotGeneration = snapshots.get(i);
+                    snapshotItems = items[0];
+                } else {
+                    log.warn("손상된 스냅샷을 건너뜁니다 {}", snapshotFile(snapshots.get(i)));
+                    repository.restoreClear();
+                }
+            }
+
+            long replayed = 0;
+            for (long walGeneration : wals) {
+                if (walGeneration >= snapshotGeneration) {
+                    replayed += MemoryItemRecords.read(walFile(walGeneration), (type, item) -> apply(repository, type, item));
+                }
+            }
+
+            long last = Math.max(snapshotGeneration, wals.isEmpty() ? 0 : wals.get(wals.size() - 1));
+            synchronized (this) {
+                this.repository = repository;
+                this.generation = last + 1;
+                this.wal = new MappedLogWriter(walFile(generation), regionSize);
+            }
+            deleteBefore(snapshotGeneration);
+            startScheduler();
+
+            log.info("메모리 저장소 복구 snapshot={} items={} walRecords={} {}ms", snapshotGeneration, snapshotItems,
+                    replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException("메모리 저장소 복구 실패 " + directory, e);
+        }
+    }
+
+    private static void apply(MemoryItemRepository repository, byte type, Item item) {
+        if (type == MemoryItemRecords.PUT) {
+            repository.restore(item);
+        } else if (type == MemoryItemRecords.CLEAR) {
+            repository.restoreClear();
+        }
+    }
+
+    /**
+     * itemId 의 현재 상태를 로그에 쓴다
+     */
+    synchronized void logPut(Long itemId, Function<Long, Item> current) {
+        Item item = current.apply(itemId);
+        if (item != null) {
+            append(MemoryItemRecords.PUT, item);
+        }
+    }
+
+    synchronized void logClear() {
+        append(MemoryItemRecords.CLEAR, null);
+    }
+
+    private void append(byte type, Item item) {
+        if (wal == null) {
+            throw new IllegalStateException("복구(recover) 전이거나 이미 닫혔습니다");
+        }
+        try {
+            wal.write(MemoryItemRecords.encode(buffer, type, item));
+            if (forceEveryWrite) {
+                wal.force();
+            }
+            dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("메모리 저장소 로그 쓰기 실패", e);
+        }
+    }
+
+    /**
+     * 전체 상품을 스냅샷으로 쓰고 이전 세대 파일을 지운다
+     *
+     * @return 스냅샷을 썼으면 true, 마지막 스냅샷 이후 변경이 없으면 false
+     */
+    public boolean snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long snapshotGeneration;
+            synchronized (this) {
+                if (!dirty || closed) {
+                    return false;
+                }
+                wal.close();
+                snapshotGeneration = ++generation;
+                wal = new MappedLogWriter(walFile(snapshotGeneration), regionSize);
+                dirty = false;
+            }
+
+            long start = System.nanoTime();
+            Path target = snapshotFile(snapshotGeneration);
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.deleteIfExists(temp);
+            long count = 0;
+            ByteBuffer snapshotBuffer = MemoryItemRecords.newBuffer();
+            try (MappedLogWriter writer = new MappedLogWriter(temp, regionSize)) {
+                for (Item item : repository.items()) {
+                    writer.write(MemoryItemRecords.encode(snapshotBuffer, MemoryItemRecords.PUT, item));
+                    count++;
+                }
+                Item end = new Item();
+                end.setId(count);
+                writer.write(MemoryItemRecords.encode(snapshotBuffer, MemoryItemRecords.END, end));
+            }
+            Files.move(temp, target, ATOMIC_MOVE);
+            deleteBefore(snapshotGeneration);
+
+            log.info("메모리 저장소 스냅샷 generation={} items={} {}ms", snapshotGeneration, count,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        }
+    }
+
+    private void startScheduler() {
+        if (snapshotInterval == null || snapshotInterval.isZero() || snapshotInterval.isNegative()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "memory-item-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = snapshotInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                log.warn("메모리 저장소 스냅샷 실패", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 종료할 때 스냅샷을 남겨서 다음 시작 시 로그 적용을 줄인다
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        synchronized (snapshotLock) {
+            if (repository != null) {
+                snapshot();
+            }
+            synchronized (this) {
+                closed = true;
+                if (wal != null) {
+                    wal.close();
+                    wal = null;
+                }
+            }
+        }
+    }
+
+    private void deleteBefore(long snapshotGeneration) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(1)) < snapshotGeneration) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private List<Long> generations(String extension) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> FILE_NAME.matcher(file.getFileName().toString()))
+                    .filter(matcher -> matcher.matches() && matcher.group(2).equals(extension))
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path walFile(long generation) {
+        return directory.resolve(String.format("items-%019d.wal", generation));
+    }
+
+    private Path snapshotFile(long generation) {
+        return directory.resolve(String.format("items-%019d.snapshot", generation));
+    }
+
+}
@@ -0,0 +1,148 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * 스냅샷, 로그 레코드 형식
+ *
+ * <pre>
+ * 레코드 : 길이(int, 본문 길이) | CRC32(int, 본문) | 본문
+ * 본문   : 종류(byte) | null 플래그(byte) | id(long) | price(int) | quantity(int) | 이름 길이(unsigned short) | 이름(UTF-8)
+ * </pre>
+ *
+ * - 길이가 0 이면 아직 쓰지 않은 곳(0 으로 채워진 매핑 영역)이다
+ * - CRC 가 맞지 않으면 쓰다가 죽은 레코드로 보고 거기서 멈춘다
+ * - 스냅샷은 END 레코드(id 자리에 전체 상품 수)로 끝난다
+ */
+final class MemoryItemRecords {
+
+    static final byte PUT = 1;
+    static final byte CLEAR = 2;
+    static final byte END = 3;
+
+    static final int HEADER = 8;
+    static final int FIXED_BODY = 1 + 1 + 8 + 4 + 4 + 2;
+    static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private static final int NULL_NAME = 1;
+    private static final int NULL_PRICE = 1 << 1;
+    private static final int NULL_QUANTITY = 1 << 2;
+
+    private static final long READ_WINDOW = 64L * 1024 * 1024;
+
+    private MemoryItemRecords() {
+    }
+
+    /**
+     * buffer 를 비우고 레코드 하나를 쓴 뒤 읽을 수 있게 flip 한다
+     */
+    static ByteBuffer encode(ByteBuffer buffer, byte type, Item item) {
+        byte[] name = item == null || item.getItemName() == null
+                ? new byte[0] : item.getItemName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("상품명이 너무 깁니다. bytes=" + name.length);
+        }
+        int flags = 0;
+        if (item == null || item.getItemName() == null) {
+            flags |= NULL_NAME;
+        }
+        if (item == null || item.getPrice() == null) {
+            flags |= NULL_PRICE;
+        }
+        if (item == null || item.getQuantity() == null) {
+            flags |= NULL_QUANTITY;
+        }
+
+        buffer.clear();
+        buffer.position(HEADER);
+        buffer.put(type);
+        buffer.put((byte) flags);
+        buffer.putLong(item == null || item.getId() == null ? 0 : item.getId());
+        buffer.putInt(item == null || item.getPrice() == null ? 0 : item.getPrice());
+        buffer.putInt(item == null || item.getQuantity() == null ? 0 : item.getQuantity());
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+        int bodyLength = buffer.position() - HEADER;
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER, bodyLength);
+        buffer.putInt(0, bodyLength);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    static ByteBuffer newBuffer() {
+        return ByteBuffer.allocate(HEADER + FIXED_BODY + MAX_NAME_BYTES);
+    }
+
+    interface Visitor {
+        void record(byte type, Item item);
+    }
+
+    /**
+     * 유효한 레코드를 순서대로 읽는다
+     *
+     * @return 읽은 레코드 수. 파일 끝, 쓰지 않은 영역, 깨진 레코드 중 먼저 만나는 곳에서 멈춘다
+     */
+    static long read(Path file, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            long size = channel.size();
+            long position = 0;
+            long records = 0;
+            CRC32 crc = new CRC32();
+            byte[] name = new byte[MAX_NAME_BYTES];
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+
+            while (position + HEADER <= size) {
+                //레코드가 창 밖으로 넘어가면 레코드 시작부터 다시 매핑한다
+                if (window == null || position + HEADER + FIXED_BODY + MAX_NAME_BYTES > windowStart + window.capacity()
+                        && windowStart + window.capacity() < size) {
+                    windowStart = position;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(READ_WINDOW, size - windowStart));
+                }
+                int offset = (int) (position - windowStart);
+                int length = window.getInt(offset);
+                if (length < FIXED_BODY || length > FIXED_BODY + MAX_NAME_BYTES || position + HEADER + length > size) {
+                    return records;
+                }
+                int checksum = window.getInt(offset + 4);
+                ByteBuffer body = window.duplicate();
+                body.position(offset + HEADER).limit(offset + HEADER + length);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    return records;
+                }
+
+                byte type = body.get();
+                int flags = body.get();
+                long id = body.getLong();
+                int price = body.getInt();
+                int quantity = body.getInt();
+                int nameLength = body.getShort() & 0xFFFF;
+                body.get(name, 0, nameLength);
+
+                Item item = new Item((flags & NULL_NAME) != 0 ? null : new String(name, 0, nameLength, StandardCharsets.UTF_8),
+                        (flags & NULL_PRICE) != 0 ? null : price,
+                        (flags & NULL_QUANTITY) != 0 ? null : quantity);
+                item.setId(id);
+                visitor.record(type, item);
+
+                records++;
+                position += HEADER + length;
+            }
+            return records;
+        }
+    }
+
+}
@@ -3,60 +3,291 @@ package hello.itemservice.repository.memory;
 import hello.itemservice.domain.Item;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.ObjectUtils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * 메모리 저장소 - 다중 버전(MVCC)
+ * - 저장소에는 Item 대신 바뀌지 않는 ItemVersion 을 둔다. 수정하면 새 버전을 만들어 교체한다
+ *   조회 결과는 매번 새 Item 이므로, 호출한 쪽이 들고 있는 Item 은 저장소 변경의 영향을 받지 않고 저장소를 바꾸지도 않는다
+ * - 쓰기는 writeLock 하나로 직렬화하고, 커밋 번호(visibleVersion)를 올려서 공개한다
+ * - findAll 은 시작할 때의 커밋 번호로 스냅샷을 잡고, 그 이후에 바뀐 상품은 이전 버전을 읽는다
+ *   스캔 중에 쓰기가 계속돼도 한 시점의 일관된 결과를 돌려준다. 읽기는 writeLock 을 잡지 않는다
+ * - 진행 중인 스냅샷이 없으면 이전 버전은 다음 쓰기 때 끊어낸다
+ */
 @Repository
 public class MemoryItemRepository implements ItemRepository {
 
-    private static final Map<Long, Item> store = new HashMap<>(); //static
-    private static long sequence = 0L; //static
+    private static final Map<Long, ItemVersion> store = new ConcurrentHashMap<>(); //static
+    private static final AtomicLong sequence = new AtomicLong(); //static
+    private static final Object writeLock = new Object(); //static
+    private static final ReadSnapshots snapshots = new ReadSnapshots(); //static
+    private static volatile long visibleVersion; //static - 마지막으로 커밋된 쓰기 번호
+
+    //이 개수 이상이면 findAll 을 병렬로 스캔한다
+    static final int PARALLEL_THRESHOLD = 10_000;
+    private static final Comparator<ItemVersion> ID_ORDER = Comparator.comparingLong(v -> v.id);
+
+    private final MemoryItemPersistence persistence; //null 이면 재시작할 때 모두 사라진다
+
+    public MemoryItemRepository() {
+        this(null);
+    }
+
+    /**
+     * 변경을 로그에 남긴다. 사용하기 전에 persistence.recover(this) 로 복구해야 한다
+     */
+    public MemoryItemRepository(MemoryItemPersistence persistence) {
+        this.persistence = persistence;
+    }
 
     @Override
     public Item save(Item item) {
-        item.setId(++sequence);
-        store.put(item.getId(), item);
-        return item;
+        return saveAll(List.of(item)).get(0);
+    }
+
+    /**
+     * 한 번의 커밋으로 모두 공개한다 - 스캔은 전부 보거나 전부 보지 않는다
+     */
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        synchronized (writeLock) {
+            long version = visibleVersion + 1;
+            for (Item item : items) {
+                item.setId(sequence.incrementAndGet());
+                store.put(item.getId(), new ItemVersion(item.getId(), item.getItemName(), item.getPrice(), item.getQuantity(), version, null));
+                log(item.getId());
+            }
+            visibleVersion = version;
+        }
+        return items;
     }
 
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
-        Item findItem = findById(itemId).orElseThrow();
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
+        boolean updated = write(itemId, (current, version) -> new ItemVersion(current.id,
+                updateParam.getItemName(), updateParam.getPrice(), updateParam.getQuantity(), version, current));
+        if (!updated) {
+            throw new NoSuchElementException("No value present");
+        }
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        return write(itemId, (current, version) -> {
+            if (current.quantity == null || current.quantity < amount) {
+                return null;
+            }
+            return new ItemVersion(current.id, current.itemName, current.price, current.quantity - amount, version, current);
+        });
+    }
+
+    private interface VersionWriter {
+        //null 을 돌려주면 쓰지 않는다
+        ItemVersion next(ItemVersion current, long version);
     }
 
+    private boolean write(Long itemId, VersionWriter writer) {
+        synchronized (writeLock) {
+            ItemVersion current = store.get(itemId);
+            if (current == null) {
+                return false;
+            }
+            long visible = visibleVersion;
+            ItemVersion next = writer.next(current, visible + 1);
+            if (next == null) {
+                return false;
+            }
+            current.prune(snapshots.oldest(visible));
+            store.put(itemId, next);
+            log(itemId);
+            visibleVersion = visible + 1;
+            return true;
+        }
+    }
+
+    /**
+     * 트랜잭션의 쓰기를 한 번의 커밋으로 적용한다 (TransactionalMemoryItemRepository)
+     * - 모두 검증한 뒤에 적용하므로, 하나라도 실패하면 아무것도 바뀌지 않는다
+     * - 재고 차감은 커밋 시점의 재고로 다시 확인하고, 부족하면 OptimisticLockingFailureException
+     */
+    void commit(List<MemoryWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            long visible = visibleVersion;
+            long version = visible + 1;
+            Map<Long, ItemVersion> next = new LinkedHashMap<>();
+            for (MemoryWrite write : writes) {
+                ItemVersion current = next.containsKey(write.itemId) ? next.get(write.itemId) : store.get(write.itemId);
+                //이번 커밋에서 이미 쓴 상품이면 그 버전을 대신한다
+                ItemVersion previous = current != null && current.version == version ? current.previous() : current;
+                switch (write.type) {
+                    case INSERT:
+                        next.put(write.itemId, new ItemVersion(write.itemId, write.itemName, write.price, write.quantity, version, null));
+                        break;
+                    case UPDATE:
+                        if (current == null) {
+                            throw new NoSuchElementException("No value present");
+                        }
+                        next.put(write.itemId, new ItemVersion(write.itemId, write.itemName, write.price, write.quantity, version, previous));
+                        break;
+                    case DECREASE:
+                        if (current == null || current.quantity == null || current.quantity < write.amount) {
+                            throw new OptimisticLockingFailureException("재고가 부족해서 커밋할 수 없습니다. itemId=" + write.itemId);
+                        }
+                        next.put(write.itemId, new ItemVersion(write.itemId, current.itemName, current.price,
+                                current.quantity - write.amount, version, previous));
+                        break;
+                }
+            }
+
+            long oldest = snapshots.oldest(visible);
+            next.forEach((itemId, itemVersion) -> {
+                ItemVersion replaced = store.put(itemId, itemVersion);
+                if (replaced != null) {
+                    replaced.prune(oldest);
+                }
+                log(itemId);
+            });
+            visibleVersion = version;
+        }
+    }
+
+    long nextId() {
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * 가장 최근에 커밋된 버전 - 상품 하나는 스냅샷 없이 최신 버전을 읽는다
+     */
     @Override
     public Optional<Item> findById(Long id) {
-        return Optional.ofNullable(store.get(id));
+        return Optional.ofNullable(latest(id));
+    }
+
+    /**
+     * 상품마다 최신 버전을 바로 찾는다. findById 처럼 스냅샷을 잡지 않는다
+     */
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        Map<Long, Item> items = new LinkedHashMap<>(ids.size() * 2);
+        for (Long id : ids) {
+            Item item = id == null ? null : latest(id);
+            if (item != null) {
+                items.put(id, item);
+            }
+        }
+        return items;
     }
 
     @Override
     public List<Item> findAll(ItemSearchCond cond) {
+        return inSnapshot(cond, ItemVersion::toItem);
+    }
+
+    @Override
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        return inSnapshot(cond, v -> new ItemSummary(v.id, v.itemName, v.price, v.quantity));
+    }
+
+    private <T> List<T> inSnapshot(ItemSearchCond cond, Function<ItemVersion, T> mapper) {
+        long snapshot = openSnapshot();
+        try {
+            return scan(cond, snapshot).map(mapper).collect(Collectors.toList());
+        } finally {
+            snapshots.release(snapshot);
+        }
+    }
+
+    /**
+     * 스냅샷 등록
+     * - 등록한 뒤에도 visibleVersion 이 그대로인지 확인한다. 그 사이에 커밋이 있었다면 그 쓰기가
+     *   등록을 보지 못하고 필요한 버전을 끊었을 수 있으므로 다시 잡는다
+     * - 확인을 통과하면 이후의 쓰기는 visibleVersion 을 읽은 뒤 등록을 보게 된다 (ReadSnapshots.oldest)
+     */
+    private static long openSnapshot() {
+        while (true) {
+            long snapshot = visibleVersion;
+            snapshots.register(snapshot);
+            if (visibleVersion == snapshot) {
+                return snapshot;
+            }
+            snapshots.release(snapshot);
+        }
+    }
+
+    /**
+     * snapshot 시점에 보이는 버전 중 조건에 맞는 것을 id 순서로 돌려준다
+     * - 상품이 PARALLEL_THRESHOLD 개 이상이면 ConcurrentHashMap 을 구간으로 나눠 ForkJoinPool 에서 나눠 거르고, 정렬하며 합친다
+     * - 적으면 작업을 나누는 비용이 더 크므로 호출한 스레드에서 순차로 거른다
+     * - 병렬 스캔은 호출한 스레드가 속한 ForkJoinPool(보통 공용 풀)을 사용한다
+     */
+    private Stream<ItemVersion> scan(ItemSearchCond cond, long snapshot) {
         String itemName = cond.getItemName();
         Integer maxPrice = cond.getMaxPrice();
-        return store.values().stream()
-                .filter(item -> {
+        Stream<ItemVersion> versions = store.size() >= PARALLEL_THRESHOLD ? store.values().parallelStream() : store.values().stream();
+        return versions
+                .map(v -> v.visibleAt(snapshot))
+                .filter(Objects::nonNull)
+                .filter(v -> {
                     if (ObjectUtils.isEmpty(itemName)) {
                         return true;
                     }
-                    return item.getItemName().contains(itemName);
-                }).filter(item -> {
+                    return v.itemName.contains(itemName);
+                }).filter(v -> {
                     if (maxPrice == null) {
                         return true;
                     }
-                    return item.getPrice() <= maxPrice;
+                    return v.price <= maxPrice;
                 })
-                .collect(Collectors.toList());
+                .sorted(ID_ORDER);
     }
 
     public void clearStore() {
+        synchronized (writeLock) {
+            store.clear();
+            if (persistence != null) {
+                persistence.logClear();
+            }
+        }
+    }
+
+    private Item latest(Long id) {
+        ItemVersion current = store.get(id);
+        return current == null ? null : current.toItem();
+    }
+
+    //쓰기 락 안에서 호출하므로 로그 순서가 커밋 순서와 같다
+    private void log(Long itemId) {
+        if (persistence != null) {
+            persistence.logPut(itemId, this::latest);
+        }
+    }
+
+    //MemoryItemPersistence 복구, 스냅샷용
+    void restore(Item item) {
+        store.put(item.getId(), new ItemVersion(item.getId(), item.getItemName(), item.getPrice(), item.getQuantity(), 0, null));
+        sequence.accumulateAndGet(item.getId(), Math::max);
+    }
+
+    void restoreClear() {
         store.clear();
     }
 
+    Iterable<Item> items() {
+        return () -> store.values().stream().map(ItemVersion::toItem).iterator();
+    }
+
 }
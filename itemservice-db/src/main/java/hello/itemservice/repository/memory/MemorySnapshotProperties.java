@@ -0,0 +1,27 @@
+package hello.itemservice.repository.memory;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.memory.snapshot")
+public class MemorySnapshotProperties {
+
+    private boolean enabled = false;
+
+    //스냅샷, 로그 파일 위치
+    private String directory = "./data/items";
+
+    //한 번에 매핑하는 파일 크기
+    private DataSize regionSize = DataSize.ofMegabytes(64);
+
+    //true 면 쓸 때 마다 디스크에 내린다 (전원 장애 대비, 느림). false 면 프로세스 장애까지만 견딘다
+    private boolean forceEveryWrite = false;
+
+    //변경이 있으면 이 간격으로 스냅샷을 쓴다. 0 이면 종료할 때만 쓴다
+    private Duration interval = Duration.ofMinutes(5);
+
+}
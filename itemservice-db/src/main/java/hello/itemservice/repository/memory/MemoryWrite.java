@@ -0,0 +1,42 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemUpdateDto;
+
+/**
+ * 트랜잭션이 커밋할 때 적용할 쓰기 하나
+ * - 적용 시점의 최신 버전에 다시 적용한다. 재고 차감은 커밋할 때 재고를 다시 확인한다
+ */
+final class MemoryWrite {
+
+    enum Type {INSERT, UPDATE, DECREASE}
+
+    final Type type;
+    final long itemId;
+    final String itemName;
+    final Integer price;
+    final Integer quantity;
+    final int amount;
+
+    private MemoryWrite(Type type, long itemId, String itemName, Integer price, Integer quantity, int amount) {
+        this.type = type;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.price = price;
+        this.quantity = quantity;
+        this.amount = amount;
+    }
+
+    static MemoryWrite insert(Item item) {
+        return new MemoryWrite(Type.INSERT, item.getId(), item.getItemName(), item.getPrice(), item.getQuantity(), 0);
+    }
+
+    static MemoryWrite update(Long itemId, ItemUpdateDto updateParam) {
+        return new MemoryWrite(Type.UPDATE, itemId, updateParam.getItemName(), updateParam.getPrice(), updateParam.getQuantity(), 0);
+    }
+
+    static MemoryWrite decrease(Long itemId, int amount) {
+        return new MemoryWrite(Type.DECREASE, itemId, null, null, null, amount);
+    }
+
+}
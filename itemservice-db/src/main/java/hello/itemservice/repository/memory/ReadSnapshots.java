@@ -0,0 +1,34 @@
+package hello.itemservice.repository.memory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 진행 중인 읽기 스냅샷 - 쓰기가 오래된 버전을 언제 끊어도 되는지 판단한다
+ * - 스냅샷 번호별로 읽는 중인 수를 센다
+ */
+final class ReadSnapshots {
+
+    private final Map<Long, Integer> active = new ConcurrentHashMap<>();
+
+    void register(long snapshot) {
+        active.merge(snapshot, 1, Integer::sum);
+    }
+
+    void release(long snapshot) {
+        active.computeIfPresent(snapshot, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * 남겨야 하는 가장 오래된 스냅샷 - 읽는 중인 스냅샷이 없으면 visible
+     * visible 을 먼저 읽고 호출해야 한다 (MemoryItemRepository.openSnapshot 참고)
+     */
+    long oldest(long visible) {
+        long oldest = visible;
+        for (Long snapshot : active.keySet()) {
+            oldest = Math.min(oldest, snapshot);
+        }
+        return oldest;
+    }
+
+}
@@ -0,0 +1,225 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ObjectUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 스프링 트랜잭션에 참여하는 메모리 저장소
+ * - 트랜잭션 안의 쓰기는 바로 적용하지 않고 트랜잭션별로 모아 둔다
+ * - 커밋 직전(beforeCommit)에 모은 쓰기를 MemoryItemRepository 에 한 번의 커밋으로 적용하고, 롤백하면 버린다
+ *   적용이 실패하면(커밋 시점에 재고 부족) 예외가 나서 트랜잭션 전체가 롤백된다
+ * - 트랜잭션 안에서는 자신이 쓴 내용을 먼저 읽는다. 다른 트랜잭션의 쓰기는 커밋된 뒤에 보인다
+ * - 트랜잭션 밖에서는 MemoryItemRepository 에 바로 적용한다
+ *
+ * - id 는 save 할 때 발급한다. 롤백된 id 는 다시 쓰지 않는다 (DB 시퀀스와 같음)
+ * - 커밋은 쓰기 락을 한 번만 잡고, 읽기는 락을 잡지 않는다
+ */
+public class TransactionalMemoryItemRepository implements ItemRepository {
+
+    private final MemoryItemRepository committed;
+
+    public TransactionalMemoryItemRepository(MemoryItemRepository committed) {
+        this.committed = committed;
+    }
+
+    @Override
+    public Item save(Item item) {
+        MemoryTransaction tx = transaction(true);
+        if (tx == null) {
+            return committed.save(item);
+        }
+        item.setId(committed.nextId());
+        tx.write(MemoryWrite.insert(item), copy(item));
+        return item;
+    }
+
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        MemoryTransaction tx = transaction(true);
+        if (tx == null) {
+            return committed.saveAll(items);
+        }
+        for (Item item : items) {
+            item.setId(committed.nextId());
+            tx.write(MemoryWrite.insert(item), copy(item));
+        }
+        return items;
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        MemoryTransaction tx = transaction(true);
+        if (tx == null) {
+            committed.update(itemId, updateParam);
+            return;
+        }
+        if (find(tx, itemId) == null) {
+            throw new NoSuchElementException("No value present");
+        }
+        Item updated = new Item(updateParam.getItemName(), updateParam.getPrice(), updateParam.getQuantity());
+        updated.setId(itemId);
+        tx.write(MemoryWrite.update(itemId, updateParam), updated);
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        MemoryTransaction tx = transaction(true);
+        if (tx == null) {
+            return committed.decreaseQuantity(itemId, amount);
+        }
+        Item current = find(tx, itemId);
+        if (current == null || current.getQuantity() == null || current.getQuantity() < amount) {
+            return false;
+        }
+        Item decreased = copy(current);
+        decreased.setQuantity(current.getQuantity() - amount);
+        tx.write(MemoryWrite.decrease(itemId, amount), decreased);
+        return true;
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        return Optional.ofNullable(find(transaction(false), id)).map(this::copy);
+    }
+
+    /**
+     * 이번 트랜잭션이 쓴 상품은 쓴 값으로, 나머지는 커밋된 값으로
+     */
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        MemoryTransaction tx = transaction(false);
+        if (tx == null) {
+            return committed.findAllByIds(ids);
+        }
+        Map<Long, Item> committedItems = committed.findAllByIds(ids.stream()
+                .filter(id -> !tx.pending.containsKey(id))
+                .collect(Collectors.toList()));
+        Map<Long, Item> items = new LinkedHashMap<>(ids.size() * 2);
+        for (Long id : ids) {
+            Item item = tx.pending.containsKey(id) ? tx.pending.get(id) : committedItems.get(id);
+            if (item != null) {
+                items.put(id, tx.pending.containsKey(id) ? copy(item) : item);
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public List<Item> findAll(ItemSearchCond cond) {
+        MemoryTransaction tx = transaction(false);
+        if (tx == null) {
+            return committed.findAll(cond);
+        }
+        //커밋된 결과에서 이번 트랜잭션이 쓴 상품을 빼고, 쓴 상품 중 조건에 맞는 것을 더한다
+        List<Item> items = committed.findAll(cond).stream()
+                .filter(item -> !tx.pending.containsKey(item.getId()))
+                .collect(Collectors.toCollection(ArrayList::new));
+        tx.pending.values().stream()
+                .filter(item -> matches(cond, item))
+                .map(this::copy)
+                .forEach(items::add);
+        items.sort(Comparator.comparing(Item::getId));
+        return items;
+    }
+
+    @Override
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        if (transaction(false) == null) {
+            return committed.findSummaries(cond);
+        }
+        return findAll(cond).stream()
+                .map(item -> new ItemSummary(item.getId(), item.getItemName(), item.getPrice(), item.getQuantity()))
+                .collect(Collectors.toList());
+    }
+
+    private Item find(MemoryTransaction tx, Long itemId) {
+        if (tx != null && tx.pending.containsKey(itemId)) {
+            return tx.pending.get(itemId);
+        }
+        return committed.findById(itemId).orElse(null);
+    }
+
+    private static boolean matches(ItemSearchCond cond, Item item) {
+        if (!ObjectUtils.isEmpty(cond.getItemName()) && !item.getItemName().contains(cond.getItemName())) {
+            return false;
+        }
+        return cond.getMaxPrice() == null || item.getPrice() <= cond.getMaxPrice();
+    }
+
+    private Item copy(Item item) {
+        Item copy = new Item(item.getItemName(), item.getPrice(), item.getQuantity());
+        copy.setId(item.getId());
+        return copy;
+    }
+
+    /**
+     * 현재 트랜잭션의 쓰기 모음. 트랜잭션 동기화가 없으면 null
+     * create 가 true 면 처음 쓸 때 만들고 트랜잭션에 등록한다
+     */
+    private MemoryTransaction transaction(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        MemoryTransaction tx = (MemoryTransaction) TransactionSynchronizationManager.getResource(this);
+        if (tx == null && create) {
+            tx = new MemoryTransaction();
+            TransactionSynchronizationManager.bindResource(this, tx);
+            TransactionSynchronizationManager.registerSynchronization(new MemoryTransactionSynchronization(tx));
+        }
+        return tx;
+    }
+
+    private static class MemoryTransaction {
+
+        private final List<MemoryWrite> writes = new ArrayList<>();
+        //이번 트랜잭션에서 쓴 상품의 현재 모습 (자기 쓰기 읽기용)
+        private final Map<Long, Item> pending = new HashMap<>();
+
+        void write(MemoryWrite write, Item item) {
+            writes.add(write);
+            pending.put(item.getId(), item);
+        }
+
+    }
+
+    private class MemoryTransactionSynchronization implements TransactionSynchronization {
+
+        private final MemoryTransaction tx;
+
+        MemoryTransactionSynchronization(MemoryTransaction tx) {
+            this.tx = tx;
+        }
+
+        //REQUIRES_NEW 등으로 트랜잭션이 보류되면 안쪽 트랜잭션이 이 쓰기 모음을 보지 않게 한다
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(TransactionalMemoryItemRepository.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TransactionalMemoryItemRepository.this, tx);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            committed.commit(tx.writes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalMemoryItemRepository.this);
+        }
+
+    }
+
+}
@@ -2,6 +2,7 @@ package hello.itemservice.repository.mybatis;
 
 import hello.itemservice.domain.Item;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -19,10 +20,21 @@ public interface ItemMapper {
      */
     void save(Item item);
 
-    void update(@Param("id") Long id, @Param("updateParam") ItemUpdateDto updateParam);
+    //id 를 미리 정한 insert - 생성된 키를 돌려받지 않는다 (PooledIdAllocator)
+    void saveWithId(Item item);
+
+    //변경된 row 수 - BATCH 실행기에서는 실행 전이라 의미 없는 값을 돌려준다
+    int update(@Param("id") Long id, @Param("updateParam") ItemUpdateDto updateParam);
+
+    int decreaseQuantity(@Param("id") Long id, @Param("amount") int amount);
 
     Optional<Item> findById(Long id);
 
+    //ids 는 ItemIdChunks 로 나누고 채운 목록
+    List<Item> findAllByIds(@Param("ids") List<Long> ids);
+
     List<Item> findAll(ItemSearchCond itemSearch);
 
+    List<ItemSummary> findSummaries(ItemSearchCond itemSearch);
+
 }
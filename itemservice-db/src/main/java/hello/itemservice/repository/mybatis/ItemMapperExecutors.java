@@ -0,0 +1,163 @@
+package hello.itemservice.repository.mybatis;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 실행기(Executor)별 ItemMapper
+ * - 기본 ItemMapper 는 SIMPLE 실행기로 호출마다 PreparedStatement 를 새로 만든다
+ * - read : REUSE 실행기. 같은 세션(트랜잭션) 안에서는 같은 SQL 의 PreparedStatement 를 재사용한다
+ * - batch : BATCH 실행기. insert, update 를 addBatch 로 모았다가 커밋이나 flushBatch 때 executeBatch 한다
+ *
+ * 세션
+ * - 마이바티스-스프링은 트랜잭션마다 SqlSessionFactory 당 세션 하나를 묶고, 같은 트랜잭션에서 실행기 종류를 바꾸면 예외를 던진다
+ * - 그래서 실행기마다 같은 Configuration 으로 SqlSessionFactory 를 따로 만든다. 세션은 달라도 트랜잭션 커넥션은 같다
+ * - 세션이 다르므로 BATCH 에 쌓인 쓰기는 다른 세션에서 보이지 않는다. 다른 실행기로 SQL 을 실행하기 전에 flushBatch 한다
+ * - 세션마다 1차 캐시(localCacheScope=SESSION)가 있고, 한 세션의 쓰기는 다른 세션의 캐시를 비우지 않는다
+ *   쓰기 후에는 clearReadCaches 로 조회에 쓰는 세션(기본, REUSE)의 캐시를 비운다
+ *
+ * 미룬 update
+ * - BATCH 실행기의 update 는 변경된 row 수를 바로 알 수 없다. flushBatch 가 실행 결과에서 0 건인 update 를 찾아
+ *   NoSuchElementException 을 던진다
+ * - 마이바티스-스프링은 커밋 직전에 결과를 보지 않고 실행하므로, 그보다 먼저 flushBatch 하는 동기화를 등록한다
+ */
+public class ItemMapperExecutors {
+
+    private final SqlSessionFactory defaultSessionFactory;
+    private final SqlSessionTemplate defaultSession;
+    private final SqlSessionFactory readSessionFactory;
+    private final SqlSessionTemplate readSession;
+    private final ItemMapper readMapper;
+    private final SqlSessionFactory batchSessionFactory;
+    private final SqlSessionTemplate batchSession;
+    private final ItemMapper batchMapper;
+
+    public ItemMapperExecutors(SqlSessionFactory sqlSessionFactory, ExecutorType readExecutor, boolean batchWrites) {
+        //기본 ItemMapper 와 같은 팩토리 - 트랜잭션에 묶인 같은 세션을 가리킨다
+        this.defaultSessionFactory = sqlSessionFactory;
+        this.defaultSession = new SqlSessionTemplate(sqlSessionFactory);
+        if (readExecutor == ExecutorType.SIMPLE) {
+            this.readSessionFactory = null;
+            this.readSession = null;
+            this.readMapper = null;
+        } else {
+            this.readSessionFactory = new DefaultSqlSessionFactory(sqlSessionFactory.getConfiguration());
+            this.readSession = new SqlSessionTemplate(readSessionFactory, readExecutor);
+            this.readMapper = readSession.getMapper(ItemMapper.class);
+        }
+        if (batchWrites) {
+            this.batchSessionFactory = new DefaultSqlSessionFactory(sqlSessionFactory.getConfiguration());
+            this.batchSession = new SqlSessionTemplate(batchSessionFactory, ExecutorType.BATCH);
+            this.batchMapper = batchSession.getMapper(ItemMapper.class);
+        } else {
+            this.batchSessionFactory = null;
+            this.batchSession = null;
+            this.batchMapper = null;
+        }
+    }
+
+    //null 이면 기본 ItemMapper 를 사용한다
+    ItemMapper readMapper() {
+        return readMapper;
+    }
+
+    ItemMapper batchMapper() {
+        return batchMapper;
+    }
+
+    /**
+     * 현재 트랜잭션의 BATCH 세션에 쌓인 쓰기를 실행한다
+     * - 트랜잭션 밖에서는 호출마다 세션을 닫으면서 실행하므로 쌓인 쓰기가 없다
+     * - useGeneratedKeys 가 있는 insert 는 이때 생성된 키가 Item 에 채워진다
+     */
+    void flushBatch() {
+        if (batchSession != null && TransactionSynchronizationManager.getResource(batchSessionFactory) != null) {
+            checkUpdated(batchSession.flushStatements());
+        }
+    }
+
+    /**
+     * 트랜잭션 안이면 update 를 BATCH 로 미루고, 커밋 직전에 flushBatch 해서 결과를 확인한다
+     * - 트랜잭션 밖에서는 호출마다 세션을 닫으므로 미룰 수 없다. false 면 바로 실행한다
+     */
+    boolean deferUpdates() {
+        if (batchSession == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        if (!TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new FlushBeforeCommit());
+        }
+        return true;
+    }
+
+    private static void checkUpdated(List<BatchResult> results) {
+        for (BatchResult result : results) {
+            if (!result.getMappedStatement().getId().endsWith(".update")) {
+                continue;
+            }
+            for (int count : result.getUpdateCounts()) {
+                if (count == 0) {
+                    throw new NoSuchElementException("No value present");
+                }
+            }
+        }
+    }
+
+    //마이바티스-스프링의 SqlSessionSynchronization 보다 먼저 실행한다
+    private class FlushBeforeCommit implements TransactionSynchronization {
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(ItemMapperExecutors.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ItemMapperExecutors.this, Boolean.TRUE);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flushBatch();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ItemMapperExecutors.this);
+        }
+    }
+
+    /**
+     * 쓰기 후 현재 트랜잭션의 기본, REUSE 세션의 1차 캐시를 비운다
+     * - 쓰기를 실행한 세션은 스스로 비우지만 다른 세션은 이전 조회 결과를 그대로 돌려준다
+     * - 트랜잭션 밖에서는 호출마다 세션을 닫으므로 남은 캐시가 없다
+     */
+    void clearReadCaches() {
+        clearCache(defaultSessionFactory, defaultSession);
+        if (readSession != null) {
+            clearCache(readSessionFactory, readSession);
+        }
+    }
+
+    private static void clearCache(SqlSessionFactory sessionFactory, SqlSessionTemplate session) {
+        if (TransactionSynchronizationManager.getResource(sessionFactory) != null) {
+            session.clearCache();
+        }
+    }
+
+}
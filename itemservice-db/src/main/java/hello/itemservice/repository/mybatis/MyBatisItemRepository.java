@@ -1,44 +1,161 @@
 package hello.itemservice.repository.mybatis;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemIdChunks;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
-import lombok.RequiredArgsConstructor;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Repository
-@RequiredArgsConstructor
 @Slf4j
 public class MyBatisItemRepository implements ItemRepository {
 
     //MyBatisItemRepository 는 단순히 ItemMapper 에 기능을 위임한다
     private final ItemMapper itemMapper;
+    private final PooledIdAllocator idAllocator; //null 이면 DB 가 생성한 키를 사용한다 (useGeneratedKeys)
+    private final ItemMapper readMapper; //조회용 - REUSE 실행기를 고르지 않았으면 itemMapper
+    private final ItemMapper batchMapper; //쓰기용 BATCH 실행기 - 고르지 않았으면 null
+    private final ItemMapperExecutors executors;
 
+    public MyBatisItemRepository(ItemMapper itemMapper) {
+        this(itemMapper, null);
+    }
+
+    public MyBatisItemRepository(ItemMapper itemMapper, @Nullable PooledIdAllocator idAllocator) {
+        this(itemMapper, idAllocator, null);
+    }
+
+    public MyBatisItemRepository(ItemMapper itemMapper, @Nullable PooledIdAllocator idAllocator,
+                                 @Nullable ItemMapperExecutors executors) {
+        this.itemMapper = itemMapper;
+        this.idAllocator = idAllocator;
+        this.executors = executors;
+        this.readMapper = executors != null && executors.readMapper() != null ? executors.readMapper() : itemMapper;
+        this.batchMapper = executors != null ? executors.batchMapper() : null;
+    }
+
+    /**
+     * BATCH 실행기를 사용해도 save 는 id 를 채워서 돌려줘야 한다
+     * - id 발급기가 있으면 id 를 먼저 정하고 insert 는 커밋할 때 실행한다
+     * - 없으면 생성된 키가 필요하므로 기본 ItemMapper 로 바로 실행한다
+     */
     @Override
     public Item save(Item item) {
         log.info("itemMapper class = {}", itemMapper.getClass());
+        if (idAllocator != null) {
+            item.setId(idAllocator.next());
+            writeMapper().saveWithId(item);
+            written();
+            return item;
+        }
+        flushBatch();
         itemMapper.save(item);
+        written();
         return item;
     }
 
+    /**
+     * BATCH 실행기는 한 트랜잭션 안의 insert 를 executeBatch 로 묶는다
+     * - 생성된 키를 쓰면 마지막에 실행해서 키를 채운다. 드라이버는 배치의 생성된 키를 순서대로 돌려준다
+     */
+    @Override
+    @Transactional
+    public List<Item> saveAll(List<Item> items) {
+        if (batchMapper == null) {
+            items.forEach(this::save);
+            return items;
+        }
+        for (Item item : items) {
+            if (idAllocator != null) {
+                item.setId(idAllocator.next());
+                batchMapper.saveWithId(item);
+            } else {
+                batchMapper.save(item);
+            }
+        }
+        if (idAllocator == null) {
+            flushBatch();
+        }
+        written();
+        return items;
+    }
+
+    /**
+     * 트랜잭션 안에서 BATCH 실행기를 쓰면 update 를 미루고, 없는 상품인지는 실행할 때(조회 전, 커밋 직전) 확인한다
+     */
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
-        itemMapper.update(itemId, updateParam);
+        if (batchMapper != null && executors.deferUpdates()) {
+            batchMapper.update(itemId, updateParam);
+        } else {
+            flushBatch();
+            if (itemMapper.update(itemId, updateParam) == 0) {
+                throw new NoSuchElementException("No value present");
+            }
+        }
+        written();
+    }
+
+    //변경된 row 수가 필요하므로 BATCH 로 미루지 않는다
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        flushBatch();
+        boolean decreased = itemMapper.decreaseQuantity(itemId, amount) == 1;
+        written();
+        return decreased;
     }
 
     @Override
     public Optional<Item> findById(Long id) {
-        return itemMapper.findById(id);
+        flushBatch();
+        return readMapper.findById(id);
+    }
+
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        flushBatch();
+        List<Item> found = new ArrayList<>();
+        for (List<Long> chunk : ItemIdChunks.chunks(ids)) {
+            found.addAll(readMapper.findAllByIds(chunk));
+        }
+        return ItemIdChunks.byRequestedOrder(ids, found);
     }
 
     @Override
     public List<Item> findAll(ItemSearchCond cond) {
-        return itemMapper.findAll(cond);
+        flushBatch();
+        return readMapper.findAll(cond);
+    }
+
+    @Override
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        flushBatch();
+        return readMapper.findSummaries(cond);
+    }
+
+    private ItemMapper writeMapper() {
+        return batchMapper != null ? batchMapper : itemMapper;
+    }
+
+    private void flushBatch() {
+        if (executors != null) {
+            executors.flushBatch();
+        }
+    }
+
+    //실행기마다 세션이 달라 쓰기가 다른 세션의 1차 캐시를 비우지 않는다
+    private void written() {
+        if (executors != null) {
+            executors.clearReadCaches();
+        }
     }
 
 }
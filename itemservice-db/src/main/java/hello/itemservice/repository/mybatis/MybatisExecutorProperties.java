@@ -0,0 +1,17 @@
+package hello.itemservice.repository.mybatis;
+
+import lombok.Data;
+import org.apache.ibatis.session.ExecutorType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.mybatis")
+public class MybatisExecutorProperties {
+
+    //조회 실행기 - REUSE 는 한 트랜잭션 안에서 같은 SQL 의 PreparedStatement 를 재사용한다
+    private ExecutorType readExecutor = ExecutorType.SIMPLE;
+
+    //insert, update 를 BATCH 실행기에 모았다가 커밋할 때(또는 다음 조회 전에) 한 번에 실행한다
+    private boolean batchWrites = false;
+
+}
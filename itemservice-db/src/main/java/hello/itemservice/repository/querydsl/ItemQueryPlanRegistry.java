@@ -0,0 +1,183 @@
+package hello.itemservice.repository.querydsl;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static hello.itemservice.domain.QItem.item;
+
+/**
+ * 검색 조건 모양별 쿼리 등록소
+ * - ItemSearchCond 는 (상품명 유무) x (최대 가격 유무) 4가지 모양의 쿼리만 만든다
+ * - 모양별로 값 대신 Param 을 사용한 쿼리를 한 번만 만들어두고, 호출할 때는 복사해서 값만 바인딩한다
+ * - 같은 모양은 항상 같은 JPQL 이 되므로 하이버네이트 쿼리 플랜 캐시를 재사용한다
+ *
+ * 모니터링
+ * - 등록소 자체의 적중/생성 횟수를 센다
+ * - hibernate.generate_statistics=true 일 때는 하이버네이트 쿼리 플랜 캐시 적중률도 확인할 수 있다
+ * - 워밍업은 요청이 아니므로 적중/생성 횟수와 적중률에 넣지 않는다
+ */
+@Slf4j
+public class ItemQueryPlanRegistry {
+
+    static final Param<String> ITEM_NAME = new Param<>(String.class, "itemName");
+    static final Param<Integer> MAX_PRICE = new Param<>(Integer.class, "maxPrice");
+
+    private static final Expression<ItemSummary> ITEM_SUMMARY = Projections.constructor(ItemSummary.class,
+            item.id, item.itemName, item.price, item.quantity);
+
+    private final EntityManager entityManager;
+    private final Map<PlanKey, JPAQuery<?>> plans = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    //워밍업이 끝난 시점의 하이버네이트 쿼리 플랜 캐시 적중/실패 수 - 적중률에서 뺀다
+    private volatile long hibernateHitBaseline;
+    private volatile long hibernateMissBaseline;
+
+    public ItemQueryPlanRegistry(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public List<Item> findItems(ItemSearchCond cond) {
+        return query(item, cond).fetch();
+    }
+
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        return query(ITEM_SUMMARY, cond).fetch();
+    }
+
+    /**
+     * 값이 바인딩된 실행 가능한 쿼리
+     */
+    <T> JPAQuery<T> query(Expression<T> projection, ItemSearchCond cond) {
+        boolean hasItemName = StringUtils.hasText(cond.getItemName());
+        boolean hasMaxPrice = cond.getMaxPrice() != null;
+
+        JPAQuery<T> query = plan(projection, hasItemName, hasMaxPrice).clone(entityManager);
+        if (hasItemName) {
+            query.set(ITEM_NAME, cond.getItemName());
+        }
+        if (hasMaxPrice) {
+            query.set(MAX_PRICE, cond.getMaxPrice());
+        }
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> JPAQuery<T> plan(Expression<T> projection, boolean hasItemName, boolean hasMaxPrice) {
+        PlanKey key = new PlanKey(projection, hasItemName, hasMaxPrice);
+        JPAQuery<?> plan = plans.get(key);
+        if (plan != null) {
+            hits.increment();
+            return (JPAQuery<T>) plan;
+        }
+        misses.increment();
+        return (JPAQuery<T>) plans.computeIfAbsent(key, k -> createPlan(projection, hasItemName, hasMaxPrice));
+    }
+
+    //워밍업용 - 적중/생성 횟수를 세지 않는다
+    @SuppressWarnings("unchecked")
+    private <T> JPAQuery<T> warmupPlan(Expression<T> projection, boolean hasItemName, boolean hasMaxPrice) {
+        return (JPAQuery<T>) plans.computeIfAbsent(new PlanKey(projection, hasItemName, hasMaxPrice),
+                k -> createPlan(projection, hasItemName, hasMaxPrice));
+    }
+
+    private <T> JPAQuery<T> createPlan(Expression<T> projection, boolean hasItemName, boolean hasMaxPrice) {
+        //EntityManager 없이 만든 쿼리 - 실행할 때 clone(entityManager) 로 복사해서 사용한다
+        JPAQuery<T> plan = new JPAQuery<Void>().select(projection).from(item);
+        if (hasItemName) {
+            plan.where(item.itemName.like(Expressions.asString("%").concat(ITEM_NAME).concat("%")));
+        }
+        if (hasMaxPrice) {
+            plan.where(item.price.loe(MAX_PRICE));
+        }
+        log.debug("query plan 생성 itemName={}, maxPrice={}, jpql={}", hasItemName, hasMaxPrice, plan);
+        return plan;
+    }
+
+    /**
+     * 모든 모양의 쿼리를 미리 만들고 하이버네이트 쿼리 플랜 캐시에 올려둔다
+     * - 트랜잭션 밖에서도 호출할 수 있도록 별도의 EntityManager 를 사용한다
+     * - 쿼리 플랜 캐시는 EntityManagerFactory 단위이므로 이후 요청에서 재사용된다
+     * - 워밍업에서 생긴 쿼리 플랜 캐시 적중/실패는 적중률에서 뺀다
+     */
+    public void warmup() {
+        List<Expression<?>> projections = List.of(item, ITEM_SUMMARY);
+        EntityManager em = entityManager.getEntityManagerFactory().createEntityManager();
+        try {
+            for (Expression<?> projection : projections) {
+                for (boolean hasItemName : new boolean[]{false, true}) {
+                    for (boolean hasMaxPrice : new boolean[]{false, true}) {
+                        JPAQuery<?> query = warmupPlan(projection, hasItemName, hasMaxPrice).clone(em);
+                        if (hasItemName) {
+                            query.set(ITEM_NAME, "");
+                        }
+                        if (hasMaxPrice) {
+                            query.set(MAX_PRICE, 0);
+                        }
+                        query.createQuery(); //실행하지 않고 JPQL 파싱만 한다
+                    }
+                }
+            }
+        } finally {
+            em.close();
+        }
+        Statistics statistics = statistics();
+        hibernateHitBaseline = statistics.getQueryPlanCacheHitCount();
+        hibernateMissBaseline = statistics.getQueryPlanCacheMissCount();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    //워밍업으로 만든 쿼리를 포함한 등록된 쿼리 수
+    public int getPlanCount() {
+        return plans.size();
+    }
+
+    /**
+     * 워밍업 이후 하이버네이트 쿼리 플랜 캐시 적중률, 통계가 꺼져 있으면 -1
+     */
+    public double getHibernatePlanCacheHitRatio() {
+        Statistics statistics = statistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return -1;
+        }
+        long hit = statistics.getQueryPlanCacheHitCount() - hibernateHitBaseline;
+        long total = hit + statistics.getQueryPlanCacheMissCount() - hibernateMissBaseline;
+        return total <= 0 ? 0 : (double) hit / total;
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Value
+    private static class PlanKey {
+        Expression<?> projection;
+        boolean hasItemName;
+        boolean hasMaxPrice;
+    }
+
+}
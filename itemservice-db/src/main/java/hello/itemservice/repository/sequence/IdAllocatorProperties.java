@@ -0,0 +1,18 @@
+package hello.itemservice.repository.sequence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.id-allocator")
+public class IdAllocatorProperties {
+
+    //JdbcTemplate, MyBatis 저장소가 DB 가 생성한 키 대신 시퀀스로 id 를 발급한다
+    private boolean enabled = false;
+
+    private String sequence = "item_seq";
+
+    //시퀀스 증가값과 같아야 한다
+    private int blockSize = 50;
+
+}
@@ -0,0 +1,166 @@
+package hello.itemservice.repository.tiered;
+
+import hello.itemservice.domain.Item;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 크기가 제한된 메모리 계층
+ * - 최대 capacity 개를 보관하고, 넘치면 CLOCK(second chance)으로 최근에 읽지 않은 상품부터 내보낸다
+ * - 보관하는 Item 은 복사본이고, 꺼낼 때도 복사본을 돌려준다
+ *
+ * 세대(generation)
+ * - DB 에서 읽어 채우는 것(load)과 쓰기 후 지우기(invalidate)가 겹치면, 쓰기 전에 읽은 값이 나중에 들어올 수 있다
+ * - 쓰기는 상품 id 구간(stripe)의 세대를 올린 뒤 지우고, load 는 DB 를 읽기 전 세대가 그대로일 때만 채운다
+ * - 세대 비교와 채우기는 같은 키의 compute 안에서 하므로, 지우기 전에 채운 값은 지워지고 지운 뒤에는 채우지 않는다
+ */
+class HotItemTier {
+
+    private static final int STRIPES = 1024;
+
+    private final int capacity;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final AtomicInteger staleInClock = new AtomicInteger();
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    HotItemTier(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity 는 0 보다 커야 합니다. capacity=" + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    private static class Entry {
+
+        final Long itemId;
+        volatile Item item;
+        volatile boolean referenced;
+
+        Entry(Long itemId, Item item) {
+            this.itemId = itemId;
+            this.item = item;
+        }
+
+    }
+
+    Item get(Long itemId) {
+        Entry entry = entries.get(itemId);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.referenced = true;
+        hits.increment();
+        return copy(entry.item);
+    }
+
+    /**
+     * DB 를 읽기 전에 기억해 두는 세대
+     */
+    long generation(Long itemId) {
+        return generations.get(stripe(itemId));
+    }
+
+    /**
+     * DB 에서 읽은 값 채우기 - 이미 있거나, 읽는 동안 쓰기가 있었으면 채우지 않는다
+     */
+    void load(Long itemId, Item item, long generation) {
+        Entry[] added = new Entry[1];
+        entries.compute(itemId, (key, existing) -> {
+            if (existing != null || generations.get(stripe(key)) != generation) {
+                return existing;
+            }
+            added[0] = new Entry(key, copy(item));
+            return added[0];
+        });
+        if (added[0] != null) {
+            clock.offer(added[0]);
+            evictIfNeeded();
+        }
+    }
+
+    /**
+     * 쓰기 반영 - 지우고 다음 조회 때 DB 에서 읽는다
+     */
+    void invalidate(Long itemId) {
+        generations.incrementAndGet(stripe(itemId));
+        if (entries.remove(itemId) != null) {
+            staleInClock.incrementAndGet();
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= capacity && staleInClock.get() <= capacity) {
+            return;
+        }
+        if (!evictLock.tryLock()) {
+            return; //다른 스레드가 내보내는 중
+        }
+        try {
+            //지워진 상품이 시계에 쌓이면 한 번에 정리한다
+            if (staleInClock.get() > capacity) {
+                clock.removeIf(this::isStale);
+                staleInClock.set(0);
+            }
+            while (entries.size() > capacity) {
+                Entry entry = clock.poll();
+                if (entry == null) {
+                    return;
+                }
+                if (isStale(entry)) {
+                    continue;
+                }
+                if (entry.referenced) {
+                    entry.referenced = false;
+                    clock.offer(entry);
+                } else if (entries.remove(entry.itemId, entry)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    private boolean isStale(Entry entry) {
+        return entries.get(entry.itemId) != entry;
+    }
+
+    private static int stripe(Long itemId) {
+        return (int) (itemId ^ (itemId >>> 32)) & (STRIPES - 1);
+    }
+
+    static Item copy(Item item) {
+        Item copy = new Item(item.getItemName(), item.getPrice(), item.getQuantity());
+        copy.setId(item.getId());
+        return copy;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+}
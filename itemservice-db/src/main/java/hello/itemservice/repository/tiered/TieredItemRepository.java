@@ -0,0 +1,195 @@
+package hello.itemservice.repository.tiered;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * 2계층 저장소 - 메모리 계층(HotItemTier) + DB 저장소
+ * - findById 는 메모리 계층에서 읽고, 없으면 DB 에서 읽어 채운다
+ * - 쓰기는 DB 에 바로 쓰고, 커밋된 뒤에 메모리 계층의 값을 지운다. 다음 조회가 커밋된 값을 다시 채운다
+ *   커밋 후 콜백은 커밋 순서대로 실행된다는 보장이 없어서, 쓴 값을 넣으면 늦게 실행된 콜백이 오래된 값을 남길 수 있다
+ * - 롤백되면 지운 상품은 다음 조회 때 DB 의 값으로 다시 채운다
+ * - 검색(findAll, findSummaries)은 조건이 다양해서 캐시하지 않고 DB 에서 읽는다
+ *
+ * 일관성
+ * - 쓰기 전에 메모리 계층에서 먼저 지운다. 커밋 전까지 다른 트랜잭션은 DB 의 커밋된 값을 읽는다
+ * - 트랜잭션 안에서 쓴 상품은 그 트랜잭션이 끝날 때 까지 DB 에서 읽는다 (자기 쓰기 읽기)
+ * - DB 에서 읽는 동안 쓰기가 있었으면 읽은 값을 채우지 않는다 (HotItemTier 세대 참고)
+ */
+public class TieredItemRepository implements ItemRepository {
+
+    private final ItemRepository backing;
+    private final HotItemTier tier;
+
+    public TieredItemRepository(ItemRepository backing, int capacity) {
+        this.backing = backing;
+        this.tier = new HotItemTier(capacity);
+    }
+
+    @Override
+    @Transactional
+    public Item save(Item item) {
+        Item savedItem = backing.save(item);
+        written(savedItem.getId());
+        return savedItem;
+    }
+
+    @Override
+    @Transactional
+    public List<Item> saveAll(List<Item> items) {
+        List<Item> savedItems = backing.saveAll(items);
+        savedItems.forEach(savedItem -> written(savedItem.getId()));
+        return savedItems;
+    }
+
+    @Override
+    @Transactional
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        written(itemId);
+        backing.update(itemId, updateParam);
+    }
+
+    @Override
+    @Transactional
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        written(itemId);
+        return backing.decreaseQuantity(itemId, amount);
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        if (writtenInCurrentTransaction(id)) {
+            return backing.findById(id);
+        }
+        Item cached = tier.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = tier.generation(id);
+        Optional<Item> loaded = backing.findById(id);
+        loaded.ifPresent(item -> tier.load(id, item, generation));
+        return loaded;
+    }
+
+    /**
+     * 메모리 계층에 있는 상품은 계층에서, 나머지는 DB 저장소의 findAllByIds 한 번으로 읽어 채운다
+     */
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        Map<Long, Item> items = new LinkedHashMap<>(ids.size() * 2);
+        Map<Long, Long> generations = new HashMap<>();
+        List<Long> dbOnly = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null || items.containsKey(id)) {
+                continue;
+            }
+            if (writtenInCurrentTransaction(id)) {
+                dbOnly.add(id);
+                items.put(id, null);
+                continue;
+            }
+            Item cached = tier.get(id);
+            if (cached == null) {
+                generations.put(id, tier.generation(id));
+            }
+            items.put(id, cached); //요청 순서를 지키기 위해 자리를 잡아 둔다
+        }
+        if (!generations.isEmpty() || !dbOnly.isEmpty()) {
+            List<Long> missing = new ArrayList<>(generations.keySet());
+            missing.addAll(dbOnly);
+            Map<Long, Item> loaded = backing.findAllByIds(missing);
+            loaded.forEach((id, item) -> {
+                Long generation = generations.get(id);
+                if (generation != null) {
+                    tier.load(id, item, generation);
+                }
+                items.put(id, item);
+            });
+        }
+        items.values().removeIf(Objects::isNull);
+        return items;
+    }
+
+    @Override
+    public List<Item> findAll(ItemSearchCond cond) {
+        return backing.findAll(cond);
+    }
+
+    @Override
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        return backing.findSummaries(cond);
+    }
+
+    HotItemTier getTier() {
+        return tier;
+    }
+
+    /**
+     * 쓸 때 - 메모리 계층에서 지우고, 커밋된 뒤에 한 번 더 지운다
+     * 트랜잭션 안이면 이 트랜잭션에서 쓴 상품으로 기록한다
+     */
+    private void written(Long itemId) {
+        tier.invalidate(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            writtenIds(true).add(itemId);
+        }
+        afterCommit(() -> tier.invalidate(itemId));
+    }
+
+    private boolean writtenInCurrentTransaction(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        Set<Long> ids = writtenIds(false);
+        return ids != null && ids.contains(itemId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> writtenIds(boolean create) {
+        Set<Long> ids = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (ids == null && create) {
+            Set<Long> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(TieredItemRepository.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(TieredItemRepository.this, created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TieredItemRepository.this);
+                }
+            });
+            ids = created;
+        }
+        return ids;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,17 @@
+package hello.itemservice.repository.tiered;
+
+import hello.itemservice.config.ItemBackend;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.tiered")
+public class TieredProperties {
+
+    //DB 계층 - jdbc-template-v3, mybatis, jpa
+    private ItemBackend backing = ItemBackend.JDBC_TEMPLATE_V3;
+
+    //메모리 계층에 보관할 최대 상품 수
+    private int capacity = 100_000;
+
+}
@@ -1,47 +1,46 @@
 package hello.itemservice.repository.v2;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQueryFactory;
 import hello.itemservice.domain.Item;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.querydsl.ItemQueryPlanRegistry;
+import hello.itemservice.warmup.WarmupTask;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import java.util.List;
 
-import static hello.itemservice.domain.QItem.item;
-
 @Repository
-public class ItemQueryRepositoryV2 {
+public class ItemQueryRepositoryV2 implements WarmupTask {
 
-    private final JPAQueryFactory queryFactory;
+    //검색 조건 모양별로 한 번만 만든 Querydsl 쿼리를 재사용한다
+    private final ItemQueryPlanRegistry queryPlans;
 
     public ItemQueryRepositoryV2(EntityManager entityManager){
-        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.queryPlans = new ItemQueryPlanRegistry(entityManager);
     }
 
     public List<Item> findAll(ItemSearchCond cond) {
-        return queryFactory.select(item)
-                .from(item)
-                .where(
-                        maxPrice(cond.getMaxPrice()),
-                        likeItemName(cond.getItemName()))
-                .fetch();
+        return queryPlans.findItems(cond);
+    }
+
+    /**
+     * 목록 화면용 DTO 조회
+     * - 엔티티를 조회하면 영속성 컨텍스트에 등록되고 스냅샷도 만들어진다
+     * - 화면에 보여주기만 한다면 DTO 로 조회하는 것이 가볍다
+     */
+    public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+        return queryPlans.findSummaries(cond);
     }
 
-    private BooleanExpression likeItemName(String itemName) {
-        if (StringUtils.hasText(itemName)) {
-            return item.itemName.like("%" + itemName + "%");
-        }
-        return null;
+    //검색 쿼리 플랜을 시작 시 미리 만든다
+    @Override
+    public void warmup() {
+        queryPlans.warmup();
     }
 
-    private BooleanExpression maxPrice(Integer maxPrice) {
-        if (maxPrice != null) {
-            return item.price.loe(maxPrice);
-        }
-        return null;
+    public ItemQueryPlanRegistry getQueryPlans() {
+        return queryPlans;
     }
 
 }
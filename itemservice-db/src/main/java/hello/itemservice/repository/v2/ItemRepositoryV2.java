@@ -2,6 +2,13 @@ package hello.itemservice.repository.v2;
 
 import hello.itemservice.domain.Item;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ItemRepositoryV2 extends JpaRepository<Item, Long> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Item i set i.quantity = i.quantity - :amount where i.id = :id and i.quantity >= :amount")
+    int decreaseQuantity(@Param("id") Long id, @Param("amount") int amount);
 }
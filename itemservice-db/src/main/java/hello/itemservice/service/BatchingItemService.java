@@ -0,0 +1,118 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 요청 단위 식별자 캐시
+ * - HTTP 요청마다 ItemLoader 를 하나 만들어 요청 속성에 둔다. 요청 밖(배치, 스케줄러)에서는 그대로 위임한다
+ * - 같은 요청에서 이미 읽은 상품은 다시 조회하지 않는다. 검색(findItems)으로 읽은 상품도 재사용한다
+ * - findById 는 값이 바로 필요하므로 바로 조회한다. 호출하는 쪽을 고치지 않으면 조회를 묶지는 않는다
+ * - findAllByIds 는 캐시에 없는 id 만 IN 쿼리로 조회한다
+ * - 조회를 묶으려면 호출하는 쪽이 load 로 미리 요청한다. 대기 중인 id 는 값이 처음 필요한 시점(findById, findAllByIds)이나
+ *   핸들러가 끝난 뒤 뷰를 그리기 전(ItemLoaderInterceptor)에 IN 쿼리 하나로 조회한다
+ * - 쓰기는 위임하고 해당 상품을 식별자 캐시에서 지운다
+ */
+public class BatchingItemService implements ItemService {
+
+    static final String LOADER = BatchingItemService.class.getName() + ".LOADER";
+
+    private final ItemService delegate;
+    private final ItemLoaderStats stats;
+
+    public BatchingItemService(ItemService delegate, ItemLoaderStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    public Item save(Item item) {
+        return delegate.save(item);
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        delegate.update(itemId, updateParam);
+        evict(itemId);
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        boolean decreased = delegate.decreaseQuantity(itemId, amount);
+        evict(itemId);
+        return decreased;
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        ItemLoader loader = loader();
+        return loader == null ? delegate.findById(id) : loader.get(id);
+    }
+
+    /**
+     * 조회를 미루고 대기열에 넣는다 - 여러 컴포넌트가 load 한 id 는 다음 dispatch 때 한 번에 조회된다
+     */
+    public CompletableFuture<Optional<Item>> load(Long id) {
+        ItemLoader loader = loader();
+        return loader == null ? CompletableFuture.completedFuture(delegate.findById(id)) : loader.load(id);
+    }
+
+    public void dispatch() {
+        ItemLoader loader = loader();
+        if (loader != null) {
+            loader.dispatch();
+        }
+    }
+
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        ItemLoader loader = loader();
+        return loader == null ? delegate.findAllByIds(ids) : loader.getAll(ids);
+    }
+
+    @Override
+    public List<Item> findItems(ItemSearchCond itemSearch) {
+        List<Item> items = delegate.findItems(itemSearch);
+        ItemLoader loader = loader();
+        if (loader != null) {
+            items.forEach(loader::prime);
+        }
+        return items;
+    }
+
+    @Override
+    public List<ItemSummary> findItemSummaries(ItemSearchCond itemSearch) {
+        return delegate.findItemSummaries(itemSearch);
+    }
+
+    private void evict(Long itemId) {
+        ItemLoader loader = loader();
+        if (loader != null) {
+            loader.evict(itemId);
+        }
+    }
+
+    private ItemLoader loader() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        ItemLoader loader = (ItemLoader) attributes.getAttribute(LOADER, RequestAttributes.SCOPE_REQUEST);
+        if (loader == null) {
+            loader = new ItemLoader(delegate, stats);
+            attributes.setAttribute(LOADER, loader, RequestAttributes.SCOPE_REQUEST);
+        }
+        return loader;
+    }
+
+}
@@ -0,0 +1,13 @@
+package hello.itemservice.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.batching")
+public class BatchingProperties {
+
+    //요청 단위 식별자 캐시 - 같은 요청에서 읽은 상품은 다시 조회하지 않는다
+    private boolean enabled = false;
+
+}
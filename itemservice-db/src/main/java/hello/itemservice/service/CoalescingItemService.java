@@ -0,0 +1,164 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * 조회 요청 합치기 - 캐시 만료나 인기 상품 조회가 몰릴 때 DB 로 같은 쿼리가 한꺼번에 나가지 않게 한다
+ * - 같은 상품 id, 같은 검색 조건을 동시에 조회하면 한 번만 DB 를 읽고 결과를 나눠 가진다 (SingleFlightCache)
+ * - 결과는 ttl 동안 재사용하고, 만료 직전에는 확률적으로 한 요청이 미리 갱신한다
+ * - 돌려주는 Item 은 매번 복사본이다. 호출한 쪽이 바꿔도 다른 요청에 보이지 않는다
+ *
+ * 쓰기
+ * - 위임한 뒤 해당 상품과 검색 결과를 모두 지운다. 트랜잭션 안이면 커밋 후에 한 번 더 지운다
+ *   (커밋 전에 다른 요청이 이전 값을 읽어 채울 수 있다)
+ * - 쓰기 트랜잭션 안의 조회는 자기가 쓴 값을 봐야 하므로 캐시를 거치지 않는다
+ * - findAllByIds 는 id 조합이 요청마다 달라서 합치지 않고 위임한다
+ */
+public class CoalescingItemService implements ItemService {
+
+    private final ItemService delegate;
+    private final SingleFlightCache<Long, Optional<Item>> byId;
+    private final SingleFlightCache<ItemSearchCond, List<Item>> items;
+    private final SingleFlightCache<ItemSearchCond, List<ItemSummary>> summaries;
+
+    public CoalescingItemService(ItemService delegate, CoalescingProperties properties) {
+        this(delegate, properties, System::nanoTime);
+    }
+
+    CoalescingItemService(ItemService delegate, CoalescingProperties properties, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        long ttlNanos = properties.getTtl().toNanos();
+        double beta = properties.getBeta();
+        int maxSize = properties.getMaxSize();
+        this.byId = new SingleFlightCache<>(ttlNanos, beta, maxSize, nanoClock);
+        this.items = new SingleFlightCache<>(ttlNanos, beta, maxSize, nanoClock);
+        this.summaries = new SingleFlightCache<>(ttlNanos, beta, maxSize, nanoClock);
+    }
+
+    @Override
+    public Item save(Item item) {
+        Item savedItem = delegate.save(item);
+        written(null);
+        return savedItem;
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        delegate.update(itemId, updateParam);
+        written(itemId);
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        boolean decreased = delegate.decreaseQuantity(itemId, amount);
+        if (decreased) {
+            written(itemId);
+        }
+        return decreased;
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        if (inWriteTransaction()) {
+            return delegate.findById(id);
+        }
+        return byId.get(id, () -> delegate.findById(id)).map(CoalescingItemService::copy);
+    }
+
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public List<Item> findItems(ItemSearchCond itemSearch) {
+        if (inWriteTransaction()) {
+            return delegate.findItems(itemSearch);
+        }
+        ItemSearchCond key = key(itemSearch);
+        return items.get(key, () -> delegate.findItems(key)).stream()
+                .map(CoalescingItemService::copy)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * ItemSummary 는 불변이므로 목록을 복사해서 그대로 돌려준다
+     */
+    @Override
+    public List<ItemSummary> findItemSummaries(ItemSearchCond itemSearch) {
+        if (inWriteTransaction()) {
+            return delegate.findItemSummaries(itemSearch);
+        }
+        ItemSearchCond key = key(itemSearch);
+        return List.copyOf(summaries.get(key, () -> delegate.findItemSummaries(key)));
+    }
+
+    /**
+     * 상품 하나가 바뀌어도 어떤 검색 결과에 들어가는지 알 수 없으므로 검색 결과는 모두 지운다
+     */
+    private void written(Long itemId) {
+        invalidate(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(itemId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long itemId) {
+        if (itemId != null) {
+            byId.invalidate(itemId);
+        }
+        items.invalidateAll();
+        summaries.invalidateAll();
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    //검색 조건은 변경 가능한 객체이므로 복사해서 키로 쓴다
+    private static ItemSearchCond key(ItemSearchCond cond) {
+        return new ItemSearchCond(cond.getItemName(), cond.getMaxPrice());
+    }
+
+    private static Item copy(Item item) {
+        Item copy = new Item(item.getItemName(), item.getPrice(), item.getQuantity());
+        copy.setId(item.getId());
+        return copy;
+    }
+
+    public long getLoads() {
+        return byId.getLoads() + items.getLoads() + summaries.getLoads();
+    }
+
+    public long getHits() {
+        return byId.getHits() + items.getHits() + summaries.getHits();
+    }
+
+    public long getCoalesced() {
+        return byId.getCoalesced() + items.getCoalesced() + summaries.getCoalesced();
+    }
+
+    public long getEarlyRefreshes() {
+        return byId.getEarlyRefreshes() + items.getEarlyRefreshes() + summaries.getEarlyRefreshes();
+    }
+
+    public long getEvictions() {
+        return byId.getEvictions() + items.getEvictions() + summaries.getEvictions();
+    }
+
+}
@@ -0,0 +1,23 @@
+package hello.itemservice.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = false;
+
+    //조회 결과를 재사용하는 시간 - 짧게 잡아서 몰린 요청만 합친다
+    private Duration ttl = Duration.ofSeconds(1);
+
+    //조기 갱신 강도 - 클수록 만료보다 일찍 갱신한다. 0 이면 만료될 때만 갱신한다
+    private double beta = 1.0;
+
+    //키 종류별(상품 id, 검색 조건) 최대 보관 수 - 넘치면 만료된 값, 오래 읽지 않은 값부터 내보낸다
+    private int maxSize = 10_000;
+
+}
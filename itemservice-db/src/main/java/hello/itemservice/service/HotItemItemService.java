@@ -0,0 +1,63 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.ItemUpdateDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 인기 상품 재고 차감 - 지정한 상품의 decreaseQuantity 는 HotItemStockUpdater 로 모아서 한 번에 차감한다
+ * - 모은 차감은 delegate.decreaseQuantity 를 합친 수량으로 한 번 호출한다. 트랜잭션은 delegate 가 정한다
+ * - 나머지는 그대로 위임한다
+ */
+public class HotItemItemService implements ItemService {
+
+    private final ItemService delegate;
+    private final HotItemStockUpdater stockUpdater;
+
+    public HotItemItemService(ItemService delegate, HotItemProperties properties) {
+        this.delegate = delegate;
+        this.stockUpdater = new HotItemStockUpdater(delegate::decreaseQuantity, properties.getItemIds(), properties.getMaxBatchSize());
+    }
+
+    @Override
+    public Item save(Item item) {
+        return delegate.save(item);
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        delegate.update(itemId, updateParam);
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        return stockUpdater.decreaseQuantity(itemId, amount);
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public List<Item> findItems(ItemSearchCond itemSearch) {
+        return delegate.findItems(itemSearch);
+    }
+
+    @Override
+    public List<ItemSummary> findItemSummaries(ItemSearchCond itemSearch) {
+        return delegate.findItemSummaries(itemSearch);
+    }
+
+}
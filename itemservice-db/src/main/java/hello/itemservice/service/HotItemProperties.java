@@ -0,0 +1,22 @@
+package hello.itemservice.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.hot-items")
+public class HotItemProperties {
+
+    //인기 상품 재고 차감 모으기 (HotItemStockUpdater)
+    private boolean enabled = false;
+
+    //차감 요청을 모을 상품 id
+    private Set<Long> itemIds = new LinkedHashSet<>();
+
+    //한 번의 update 로 모으는 최대 요청 수
+    private int maxBatchSize = 50;
+
+}
@@ -0,0 +1,146 @@
+package hello.itemservice.service;
+
+import hello.itemservice.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 인기 상품 재고 차감
+ * - 주문이 몰리는 상품은 같은 row 에 update 가 몰려서 row 락 대기가 길어진다
+ * - 인기 상품으로 지정된 상품은 동시에 들어온 차감 요청을 모아서 한 번의 update 로 처리한다
+ * - 모은 요청을 한 번에 차감할 재고가 부족하면 요청 하나씩 차감해서 가능한 요청만 성공시킨다
+ * - 차감 수량은 1 이상이어야 한다. 음수가 합쳐지면 다른 요청의 부족한 재고를 가린다
+ * - 애플리케이션에서는 HotItemItemService 가 ItemService.decreaseQuantity 앞에서 사용한다 (itemservice.hot-items)
+ *
+ * 주의
+ * - 모아진 요청은 요청을 모은 스레드에서 실행되므로 트랜잭션 밖에서 호출해야 한다
+ */
+@Slf4j
+public class HotItemStockUpdater {
+
+    private static final long WAIT_MILLIS = 1;
+
+    private final StockDecreaser stockDecreaser;
+    private final Set<Long> hotItemIds;
+    private final int maxBatchSize;
+    private final ConcurrentMap<Long, HotItem> hotItems = new ConcurrentHashMap<>();
+
+    /**
+     * 실제 차감 - 재고가 충분할 때만 차감하고 true
+     */
+    public interface StockDecreaser {
+        boolean decreaseQuantity(Long itemId, int amount);
+    }
+
+    public HotItemStockUpdater(ItemRepository itemRepository, Set<Long> hotItemIds, int maxBatchSize) {
+        this(itemRepository::decreaseQuantity, hotItemIds, maxBatchSize);
+    }
+
+    public HotItemStockUpdater(StockDecreaser stockDecreaser, Set<Long> hotItemIds, int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize 는 0 보다 커야 합니다. maxBatchSize=" + maxBatchSize);
+        }
+        this.stockDecreaser = stockDecreaser;
+        this.hotItemIds = Set.copyOf(hotItemIds);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("차감 수량은 0 보다 커야 합니다. amount=" + amount);
+        }
+        if (!hotItemIds.contains(itemId)) {
+            return stockDecreaser.decreaseQuantity(itemId, amount);
+        }
+
+        HotItem hotItem = hotItems.computeIfAbsent(itemId, HotItem::new);
+        DecreaseRequest request = new DecreaseRequest(amount);
+        hotItem.requests.add(request);
+
+        //락을 얻은 스레드가 쌓인 요청을 모아서 처리하고, 나머지는 결과를 기다린다
+        while (!request.result.isDone()) {
+            if (hotItem.lock.tryLock()) {
+                try {
+                    combine(hotItem);
+                } finally {
+                    hotItem.lock.unlock();
+                }
+            } else {
+                awaitResult(request);
+            }
+        }
+        return request.result.join();
+    }
+
+    private void combine(HotItem hotItem) {
+        List<DecreaseRequest> batch = new ArrayList<>();
+        DecreaseRequest request;
+        while (batch.size() < maxBatchSize && (request = hotItem.requests.poll()) != null) {
+            batch.add(request);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            long total = batch.stream().mapToLong(r -> r.amount).sum();
+            if (total <= Integer.MAX_VALUE && stockDecreaser.decreaseQuantity(hotItem.itemId, (int) total)) {
+                log.debug("hot item stock decreased itemId={}, requests={}, total={}", hotItem.itemId, batch.size(), total);
+                batch.forEach(r -> r.result.complete(true));
+                return;
+            }
+
+            //재고가 부족하면 하나씩 차감
+            for (DecreaseRequest r : batch) {
+                r.result.complete(stockDecreaser.decreaseQuantity(hotItem.itemId, r.amount));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(r -> r.result.completeExceptionally(e));
+        }
+    }
+
+    private void awaitResult(DecreaseRequest request) {
+        try {
+            request.result.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            //결과는 join 에서 확인한다
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재고 차감 대기 중 인터럽트", e);
+        }
+    }
+
+    private static class HotItem {
+
+        private final Long itemId;
+        private final Queue<DecreaseRequest> requests = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private HotItem(Long itemId) {
+            this.itemId = itemId;
+        }
+    }
+
+    private static class DecreaseRequest {
+
+        private final int amount;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private DecreaseRequest(int amount) {
+            this.amount = amount;
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 요청 하나 동안 쓰는 상품 로더 (DataLoader 방식)
+ * - load 는 id 를 대기열에 넣고 바로 돌아온다. 대기열은 dispatch 할 때 findAllByIds 한 번으로 조회한다
+ * - get 은 값이 필요한 시점이므로, 대기열에 쌓인 id 와 함께 바로 dispatch 한다
+ * - 한 번 조회한 상품(없는 상품 포함)은 요청이 끝날 때 까지 다시 조회하지 않는다 (식별자 캐시)
+ * - 보관하는 Item 과 돌려주는 Item 은 모두 복사본이다
+ */
+class ItemLoader {
+
+    private final ItemService delegate;
+    private final ItemLoaderStats stats;
+    private final Map<Long, Optional<Item>> cache = new HashMap<>();
+    private final Map<Long, CompletableFuture<Optional<Item>>> pending = new LinkedHashMap<>();
+
+    ItemLoader(ItemService delegate, ItemLoaderStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    synchronized CompletableFuture<Optional<Item>> load(Long id) {
+        Optional<Item> cached = cache.get(id);
+        if (cached != null) {
+            stats.cacheHit();
+            return CompletableFuture.completedFuture(cached.map(ItemLoader::copy));
+        }
+        return pending.computeIfAbsent(id, k -> new CompletableFuture<>())
+                .thenApply(item -> item.map(ItemLoader::copy));
+    }
+
+    synchronized Optional<Item> get(Long id) {
+        CompletableFuture<Optional<Item>> item = load(id);
+        if (!item.isDone()) {
+            dispatch();
+        }
+        return item.join();
+    }
+
+    synchronized Map<Long, Item> getAll(Collection<Long> ids) {
+        List<CompletableFuture<Optional<Item>>> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            items.add(id == null ? CompletableFuture.completedFuture(Optional.empty()) : load(id));
+        }
+        dispatch();
+        Map<Long, Item> result = new LinkedHashMap<>(ids.size() * 2);
+        for (CompletableFuture<Optional<Item>> item : items) {
+            item.join().ifPresent(found -> result.putIfAbsent(found.getId(), found));
+        }
+        return result;
+    }
+
+    /**
+     * 대기열의 id 를 한 번에 조회한다. 하나뿐이면 findById 로 조회한다
+     */
+    synchronized void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, CompletableFuture<Optional<Item>>> batch = new LinkedHashMap<>(pending);
+        pending.clear();
+        stats.batch(batch.size());
+
+        Map<Long, Item> found;
+        try {
+            if (batch.size() == 1) {
+                Long id = batch.keySet().iterator().next();
+                found = new HashMap<>();
+                delegate.findById(id).ifPresent(item -> found.put(id, item));
+            } else {
+                found = delegate.findAllByIds(batch.keySet());
+            }
+        } catch (RuntimeException e) {
+            batch.values().forEach(item -> item.completeExceptionally(e));
+            throw e;
+        }
+        batch.forEach((id, item) -> {
+            Optional<Item> loaded = Optional.ofNullable(found.get(id)).map(ItemLoader::copy);
+            cache.put(id, loaded);
+            item.complete(loaded);
+        });
+    }
+
+    //검색으로 읽은 상품을 식별자 캐시에 넣는다. 대기 중인 id 는 dispatch 가 채운다
+    synchronized void prime(Item item) {
+        if (item.getId() != null && !pending.containsKey(item.getId())) {
+            cache.put(item.getId(), Optional.of(copy(item)));
+        }
+    }
+
+    synchronized void evict(Long id) {
+        cache.remove(id);
+    }
+
+    synchronized void clear() {
+        cache.clear();
+        pending.values().forEach(item -> item.cancel(false));
+        pending.clear();
+    }
+
+    private static Item copy(Item item) {
+        Item copy = new Item(item.getItemName(), item.getPrice(), item.getQuantity());
+        copy.setId(item.getId());
+        return copy;
+    }
+
+}
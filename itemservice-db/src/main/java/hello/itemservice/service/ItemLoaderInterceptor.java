@@ -0,0 +1,49 @@
+package hello.itemservice.service;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 핸들러가 끝나면 뷰를 그리기 전에 대기 중인 load 를 한 번에 조회하고, 요청이 끝나면 로더를 비운다
+ * - 비동기 요청은 요청 스레드에서 postHandle, afterCompletion 이 호출되지 않는다
+ *   afterConcurrentHandlingStarted 에서 대기 중인 load 를 조회하고 로더를 비운다. 비동기 처리는 로더 없이 위임한다
+ */
+public class ItemLoaderInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        Object loader = request.getAttribute(BatchingItemService.LOADER);
+        if (loader instanceof ItemLoader) {
+            ((ItemLoader) loader).dispatch();
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object loader = request.getAttribute(BatchingItemService.LOADER);
+        if (loader instanceof ItemLoader) {
+            try {
+                ((ItemLoader) loader).dispatch();
+            } finally {
+                clear(request);
+            }
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        clear(request);
+    }
+
+    private static void clear(HttpServletRequest request) {
+        Object loader = request.getAttribute(BatchingItemService.LOADER);
+        if (loader instanceof ItemLoader) {
+            ((ItemLoader) loader).clear();
+            request.removeAttribute(BatchingItemService.LOADER);
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package hello.itemservice.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 상품 로더(ItemLoader) 누적 통계
+ * - 배치 크기 히스토그램 버킷 i 는 [2^(i-1), 2^i) 개 구간이다
+ * - 평균 배치 크기가 1 에 가까우면 findById 가 대기열 없이 하나씩 나가고 있다는 뜻이다
+ */
+public class ItemLoaderStats {
+
+    private static final int BUCKETS = 16;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder loadedIds = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+    public ItemLoaderStats() {
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    void batch(int size) {
+        batches.increment();
+        loadedIds.add(size);
+        maxBatchSize.accumulate(size);
+        int bucket = Math.min(BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(size));
+        histogram[bucket].increment();
+    }
+
+    void cacheHit() {
+        cacheHits.increment();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getLoadedIds() {
+        return loadedIds.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    public double getAvgBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) loadedIds.sum() / count;
+    }
+
+    /**
+     * 배치 크기 상한(2^i) -> 배치 수
+     */
+    public Map<Long, Long> getBatchSizeHistogram() {
+        Map<Long, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = histogram[i].sum();
+            if (count > 0) {
+                buckets.put(1L << i, count);
+            }
+        }
+        return buckets;
+    }
+
+}
@@ -0,0 +1,32 @@
+package hello.itemservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 상품 로더 통계 조회
+ * - GET /item-loader-stats : 배치 수, 조회한 id 수, 평균/최대 배치 크기, 배치 크기 히스토그램, 식별자 캐시 적중 수
+ */
+@RestController
+@RequiredArgsConstructor
+public class ItemLoaderStatsController {
+
+    private final ItemLoaderStats stats;
+
+    @GetMapping("/item-loader-stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("batches", stats.getBatches());
+        map.put("loadedIds", stats.getLoadedIds());
+        map.put("avgBatchSize", stats.getAvgBatchSize());
+        map.put("maxBatchSize", stats.getMaxBatchSize());
+        map.put("batchSizeHistogram", stats.getBatchSizeHistogram());
+        map.put("cacheHits", stats.getCacheHits());
+        return map;
+    }
+
+}
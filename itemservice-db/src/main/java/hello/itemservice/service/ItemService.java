@@ -2,9 +2,12 @@ package hello.itemservice.service;
 
 import hello.itemservice.domain.Item;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ItemService {
@@ -13,7 +16,15 @@ public interface ItemService {
 
     void update(Long itemId, ItemUpdateDto updateParam);
 
+    //amount 가 0 이하면 IllegalArgumentException - 음수로 차감하면 재고가 늘어난다
+    boolean decreaseQuantity(Long itemId, int amount);
+
     Optional<Item> findById(Long id);
 
+    //요청한 id 순서의 맵 - 없는 id 는 맵에 없다
+    Map<Long, Item> findAllByIds(Collection<Long> ids);
+
     List<Item> findItems(ItemSearchCond itemSearch);
+
+    List<ItemSummary> findItemSummaries(ItemSearchCond itemSearch);
 }
@@ -3,13 +3,20 @@ package hello.itemservice.service;
 import hello.itemservice.domain.Item;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * 변경 이벤트(ItemChangedEvent)는 ItemRepository 빈이 발행한다 (ItemChangePublishingPostProcessor)
+ */
 @Service
 @RequiredArgsConstructor
 public class ItemServiceV1 implements ItemService {
@@ -27,12 +34,34 @@ public class ItemServiceV1 implements ItemService {
     }
 
     @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("차감 수량은 0 보다 커야 합니다. amount=" + amount);
+        }
+        return itemRepository.decreaseQuantity(itemId, amount);
+    }
+
+    @Override
+    @Transactional(readOnly = true) //읽기 전용 - 레플리카로 라우팅, 플러시와 변경 감지 생략
     public Optional<Item> findById(Long id) {
         return itemRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        return itemRepository.findAllByIds(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Item> findItems(ItemSearchCond cond) {
         return itemRepository.findAll(cond);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemSummary> findItemSummaries(ItemSearchCond cond) {
+        return itemRepository.findSummaries(cond);
+    }
 }
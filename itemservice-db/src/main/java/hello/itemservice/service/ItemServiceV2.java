@@ -1,28 +1,40 @@
 package hello.itemservice.service;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.feed.ItemChangedEvent;
+import hello.itemservice.repository.ItemIdChunks;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
 import hello.itemservice.repository.v2.ItemQueryRepositoryV2;
 import hello.itemservice.repository.v2.ItemRepositoryV2;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
-public class ItemServiceV2 implements ItemService {
+public class ItemServiceV2 implements ItemService, ApplicationEventPublisherAware {
 
     private final ItemRepositoryV2 itemRepositoryV2;
     private final ItemQueryRepositoryV2 itemQueryRepositoryV2;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
 
     @Override
     public Item save(Item item) {
-        return itemRepositoryV2.save(item);
+        Item savedItem = itemRepositoryV2.save(item);
+        publish(ItemChangedEvent.saved(savedItem));
+        return savedItem;
     }
 
     @Override
@@ -31,16 +43,61 @@ public class ItemServiceV2 implements ItemService {
         findItem.setItemName(updateParam.getItemName());
         findItem.setPrice(updateParam.getPrice());
         findItem.setQuantity(updateParam.getQuantity());
+        publish(ItemChangedEvent.updated(itemId, updateParam));
     }
 
     @Override
+    public boolean decreaseQuantity(Long itemId, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("차감 수량은 0 보다 커야 합니다. amount=" + amount);
+        }
+        //변경 감지 대신 조건부 벌크 update 사용 - 조회 없이 한 번에 차감
+        boolean decreased = itemRepositoryV2.decreaseQuantity(itemId, amount) == 1;
+        if (decreased) {
+            publish(ItemChangedEvent.quantityDecreased(itemId, amount));
+        }
+        return decreased;
+    }
+
+    @Override
+    @Transactional(readOnly = true) //읽기 전용 - 레플리카로 라우팅, 플러시와 변경 감지 생략
     public Optional<Item> findById(Long id) {
         return itemRepositoryV2.findById(id);
     }
 
+    /**
+     * 스프링 데이터 JPA findAllById 를 ItemIdChunks 로 나누고 채운 id 목록마다 호출한다
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+        List<Item> found = new ArrayList<>();
+        for (List<Long> chunk : ItemIdChunks.chunks(ids)) {
+            found.addAll(itemRepositoryV2.findAllById(chunk));
+        }
+        return ItemIdChunks.byRequestedOrder(ids, found);
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public List<Item> findItems(ItemSearchCond cond) {
         return itemQueryRepositoryV2.findAll(cond);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemSummary> findItemSummaries(ItemSearchCond cond) {
+        return itemQueryRepositoryV2.findSummaries(cond);
+    }
+
+    /**
+     * 변경 이벤트는 트랜잭션 안에서 발행하고, 커밋된 후에 변경 피드에 기록된다
+     * - ItemRepositoryV2 는 ItemRepository 빈이 아니라서 ItemChangePublishingPostProcessor 가 발행하지 않는다
+     */
+    private void publish(ItemChangedEvent event) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
 }
@@ -0,0 +1,205 @@
+package hello.itemservice.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 요청 합치기(single-flight) + 조기 갱신 캐시
+ * - 같은 키를 동시에 조회하면 한 스레드만 loader 를 실행하고 나머지는 그 결과를 기다린다
+ * - 결과는 ttl 동안 보관한다
+ * - 만료 직전에는 확률적으로 한 요청이 미리 다시 읽는다 (XFetch)
+ *   now - delta * beta * ln(rand) >= 만료 시각 이면 갱신한다. delta 는 마지막 조회에 걸린 시간이다
+ *   조회가 오래 걸릴수록, 만료가 가까울수록 일찍 갱신하므로 만료 순간에 요청이 한꺼번에 DB 로 몰리지 않는다
+ *   미리 갱신하는 동안 다른 요청은 기존 값을 그대로 받는다
+ *
+ * 무효화
+ * - invalidate 는 그 키의 진행 중인 조회와 값을 지운다. 이후 요청은 새로 조회한다
+ * - 조회 결과는 자기 조회가 아직 그 키의 진행 중인 조회일 때만 저장한다 (확인과 저장은 같은 키의 compute 안에서 한다)
+ *   무효화된 키의 조회 결과만 버리고, 다른 키의 조회에는 영향이 없다
+ *
+ * 크기 제한
+ * - 저장해서 maxSize 를 넘으면 만료된 값을 먼저 지우고, 그래도 넘치면 가장 오래 읽지 않은 값부터 maxSize 의 1/10 만큼 내보낸다
+ * - 한 스레드만 내보내고(tryLock), 나머지는 기다리지 않고 저장한다. 잠깐 maxSize 를 넘을 수 있다
+ */
+class SingleFlightCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final double beta;
+    private final int maxSize;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    SingleFlightCache(long ttlNanos, double beta, int maxSize, LongSupplier nanoClock) {
+        this.ttlNanos = ttlNanos;
+        this.beta = beta;
+        this.maxSize = maxSize;
+        this.nanoClock = nanoClock;
+    }
+
+    private static class Entry<V> {
+
+        final V value;
+        final long deltaNanos;
+        final long expiresAt;
+        volatile long lastAccess;
+
+        Entry(V value, long deltaNanos, long expiresAt, long lastAccess) {
+            this.value = value;
+            this.deltaNanos = deltaNanos;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+
+    }
+
+    V get(K key, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            long now = nanoClock.getAsLong();
+            if (now < entry.expiresAt) {
+                entry.lastAccess = now;
+                if (!refreshEarly(entry, now)) {
+                    hits.increment();
+                    return entry.value;
+                }
+                //한 요청만 미리 갱신하고, 이미 누가 갱신 중이면 기존 값을 준다
+                CompletableFuture<V> refresh = new CompletableFuture<>();
+                if (inFlight.putIfAbsent(key, refresh) != null) {
+                    hits.increment();
+                    return entry.value;
+                }
+                earlyRefreshes.increment();
+                return load(key, loader, refresh);
+            }
+        }
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+        return load(key, loader, mine);
+    }
+
+    private boolean refreshEarly(Entry<V> entry, long now) {
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); //(0, 1]
+        return now - entry.deltaNanos * beta * Math.log(random) >= entry.expiresAt;
+    }
+
+    private V load(K key, Supplier<V> loader, CompletableFuture<V> future) {
+        long start = nanoClock.getAsLong();
+        try {
+            loads.increment();
+            V value = loader.get();
+            long end = nanoClock.getAsLong();
+            Entry<V> loaded = new Entry<>(value, end - start, end + ttlNanos, end);
+            entries.compute(key, (k, existing) -> inFlight.get(k) == future ? loaded : existing);
+            evictIfNeeded(end);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private void evictIfNeeded(long now) {
+        if (entries.size() <= maxSize || !evictLock.tryLock()) {
+            return;
+        }
+        try {
+            for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+                if (now >= entry.getValue().expiresAt && entries.remove(entry.getKey(), entry.getValue())) {
+                    evictions.increment();
+                }
+            }
+            int excess = entries.size() - maxSize;
+            if (excess <= 0) {
+                return;
+            }
+            //한 번에 여유를 두고 내보내서 저장할 때마다 정렬하지 않는다
+            List<Map.Entry<K, Entry<V>>> candidates = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+            int toEvict = Math.min(candidates.size(), excess + Math.max(1, maxSize / 10));
+            for (int i = 0; i < toEvict; i++) {
+                Map.Entry<K, Entry<V>> entry = candidates.get(i);
+                if (entries.remove(entry.getKey(), entry.getValue())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    //진행 중인 조회를 먼저 지운다 - 그 사이에 저장된 결과는 이어서 지우는 값과 함께 지워진다
+    void invalidate(K key) {
+        inFlight.remove(key);
+        entries.remove(key);
+    }
+
+    void invalidateAll() {
+        inFlight.clear();
+        entries.clear();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getLoads() {
+        return loads.sum();
+    }
+
+    long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    long getEarlyRefreshes() {
+        return earlyRefreshes.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+}
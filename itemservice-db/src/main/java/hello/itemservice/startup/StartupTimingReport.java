@@ -0,0 +1,98 @@
+package hello.itemservice.startup;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 시작 시간 리포트
+ * - BufferingApplicationStartup 으로 기록한 빈 생성 단계에서 빈 별 초기화 시간을 계산한다
+ * - 빈 생성 시간에는 의존하는 빈의 생성 시간도 포함되므로, 하위 단계를 뺀 자기 시간(self) 순으로 보여준다
+ * - 기록한 타임라인은 리포트 후 비워서 메모리를 돌려준다
+ */
+@Slf4j
+public class StartupTimingReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+
+    private final int topBeans;
+    private volatile List<BeanTiming> beanTimings = Collections.emptyList();
+
+    public StartupTimingReport(int topBeans) {
+        this.topBeans = topBeans;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        Duration timeTaken = event.getTimeTaken();
+        log.info("시작 완료 {}ms (JVM 시작부터 {}ms)", timeTaken == null ? -1 : timeTaken.toMillis(), uptime);
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup)) {
+            log.debug("BufferingApplicationStartup 이 아니므로 빈 별 시작 시간은 기록하지 않는다");
+            return;
+        }
+
+        StartupTimeline timeline = ((BufferingApplicationStartup) startup).drainBufferedTimeline();
+        beanTimings = beanTimings(timeline.getEvents());
+        beanTimings.stream().limit(topBeans).forEach(timing ->
+                log.info("빈 초기화 self={}ms, total={}ms, bean={}",
+                        timing.getSelf().toMillis(), timing.getTotal().toMillis(), timing.getBeanName()));
+    }
+
+    static List<BeanTiming> beanTimings(List<StartupTimeline.TimelineEvent> events) {
+        Map<Long, Duration> childDurations = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                childDurations.merge(parentId, event.getDuration(), Duration::plus);
+            }
+        }
+
+        return events.stream()
+                .filter(event -> BEAN_INSTANTIATE.equals(event.getStartupStep().getName()))
+                .map(event -> {
+                    Duration total = event.getDuration();
+                    Duration children = childDurations.getOrDefault(event.getStartupStep().getId(), Duration.ZERO);
+                    return new BeanTiming(beanName(event.getStartupStep()), total, total.minus(children));
+                })
+                .sorted(Comparator.comparing(BeanTiming::getSelf).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    public List<BeanTiming> getBeanTimings() {
+        return beanTimings;
+    }
+
+    @Value
+    public static class BeanTiming {
+        String beanName;
+        Duration total;
+        Duration self;
+    }
+
+}
@@ -0,0 +1,93 @@
+package hello.itemservice.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 커넥션 풀 미리 채우기
+ * - 히카리 풀은 첫 getConnection() 때 시작되고, 최소 유휴 커넥션은 백그라운드에서 천천히 채운다
+ * - 최소 유휴 커넥션 수 만큼 동시에 커넥션을 얻었다가 반납해서 첫 요청 전에 풀을 채운다
+ * - 프록시(DelegatingDataSource)와 라우팅 데이터소스 안쪽의 히카리 풀까지 찾아서 채운다
+ */
+@Slf4j
+public class ConnectionPoolWarmup implements WarmupTask {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final ObjectProvider<DataSource> dataSources;
+
+    public ConnectionPoolWarmup(ObjectProvider<DataSource> dataSources) {
+        this.dataSources = dataSources;
+    }
+
+    @Override
+    public void warmup() {
+        Set<HikariDataSource> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        dataSources.orderedStream().forEach(dataSource -> collectPools(dataSource, pools));
+
+        for (HikariDataSource pool : pools) {
+            try {
+                int primed = prime(pool);
+                log.info("커넥션 풀 warm-up pool={}, connections={}", pool.getPoolName(), primed);
+            } catch (SQLException e) {
+                throw new IllegalStateException("커넥션 풀 warm-up 실패 pool=" + pool.getPoolName(), e);
+            }
+        }
+    }
+
+    private int prime(HikariDataSource pool) throws SQLException {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            connections.add(validate(pool.getConnection())); //풀 시작 - 이후 최소 유휴 커넥션 수가 확정된다
+            int target = Math.min(Math.max(pool.getMinimumIdle(), 1), pool.getMaximumPoolSize());
+            while (connections.size() < target) {
+                connections.add(validate(pool.getConnection()));
+            }
+            return connections.size();
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    private Connection validate(Connection connection) throws SQLException {
+        if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+            connection.close();
+            throw new SQLException("유효하지 않은 커넥션");
+        }
+        return connection;
+    }
+
+    private void collectPools(DataSource dataSource, Set<HikariDataSource> pools) {
+        if (dataSource instanceof HikariDataSource) {
+            pools.add((HikariDataSource) dataSource);
+        } else if (dataSource instanceof AbstractRoutingDataSource) {
+            AbstractRoutingDataSource routing = (AbstractRoutingDataSource) dataSource;
+            routing.getResolvedDataSources().values().forEach(target -> collectPools(target, pools));
+        } else if (dataSource instanceof DelegatingDataSource) {
+            DataSource target = ((DelegatingDataSource) dataSource).getTargetDataSource();
+            if (target != null) {
+                collectPools(target, pools);
+            }
+        }
+    }
+
+    @Override
+    public String getWarmupName() {
+        return "connectionPool";
+    }
+
+}
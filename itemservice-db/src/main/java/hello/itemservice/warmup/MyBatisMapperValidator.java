@@ -0,0 +1,61 @@
+package hello.itemservice.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MyBatis 매퍼 검증
+ * - XML 의 resultMap, sql 조각 참조 중 해결되지 않은 것이 있으면 첫 호출 때가 아니라 시작 시 실패한다
+ * - 매퍼 인터페이스의 메서드마다 XML(또는 애노테이션)에 같은 id 의 SQL 이 있는지 확인한다
+ */
+@Slf4j
+public class MyBatisMapperValidator implements WarmupTask {
+
+    private final ObjectProvider<SqlSessionFactory> sqlSessionFactory;
+
+    public MyBatisMapperValidator(ObjectProvider<SqlSessionFactory> sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public void warmup() {
+        SqlSessionFactory factory = sqlSessionFactory.getIfAvailable();
+        if (factory == null) {
+            return;
+        }
+
+        Configuration configuration = factory.getConfiguration();
+        int statements = configuration.getMappedStatementNames().size(); //미완성 statement 를 모두 빌드한다
+
+        List<String> missing = new ArrayList<>();
+        for (Class<?> mapper : configuration.getMapperRegistry().getMappers()) {
+            for (Method method : mapper.getMethods()) {
+                if (method.isDefault() || method.isBridge() || Modifier.isStatic(method.getModifiers())
+                        || method.getDeclaringClass() == Object.class) {
+                    continue;
+                }
+                String id = mapper.getName() + "." + method.getName();
+                if (!configuration.hasStatement(id)) {
+                    missing.add(id);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("SQL 이 없는 매퍼 메서드: " + missing);
+        }
+        log.info("MyBatis 매퍼 검증 mappers={}, statements={}", configuration.getMapperRegistry().getMappers().size(), statements);
+    }
+
+    @Override
+    public String getWarmupName() {
+        return "myBatisMappers";
+    }
+
+}
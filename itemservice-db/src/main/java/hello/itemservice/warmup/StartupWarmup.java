@@ -0,0 +1,69 @@
+package hello.itemservice.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 시작 시 warm-up
+ * - 배포 직후 첫 요청이 테이블 메타데이터 조회, 쿼리 파싱, 커넥션 생성을 대신 떠안지 않도록 미리 실행한다
+ * - 모든 싱글톤 빈이 만들어진 뒤, 웹 서버가 요청을 받기 전에 실행된다
+ * - 이미 만들어진 WarmupTask 빈만 실행한다. 지연 초기화되는 빈을 warm-up 때문에 만들지 않는다
+ */
+@Slf4j
+public class StartupWarmup implements SmartInitializingSingleton {
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final boolean failOnError;
+    private volatile List<WarmupResult> results = Collections.emptyList();
+
+    public StartupWarmup(ConfigurableListableBeanFactory beanFactory, boolean failOnError) {
+        this.beanFactory = beanFactory;
+        this.failOnError = failOnError;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<WarmupTask> tasks = new ArrayList<>();
+        for (String name : beanFactory.getBeanNamesForType(WarmupTask.class, false, false)) {
+            if (beanFactory.containsSingleton(name)) {
+                tasks.add(beanFactory.getBean(name, WarmupTask.class));
+            }
+        }
+        List<WarmupResult> results = new ArrayList<>();
+        long totalStart = System.nanoTime();
+
+        for (WarmupTask task : tasks) {
+            String name = task.getWarmupName();
+            long start = System.nanoTime();
+            String error = null;
+            try {
+                task.warmup();
+            } catch (RuntimeException e) {
+                if (failOnError) {
+                    throw new IllegalStateException("warm-up 실패: " + name, e);
+                }
+                log.warn("warm-up 실패 name={}", name, e);
+                error = e.toString();
+            }
+            results.add(new WarmupResult(name, elapsedMillis(start), error));
+        }
+
+        this.results = Collections.unmodifiableList(results);
+        log.info("warm-up 완료 {}ms, tasks={}", elapsedMillis(totalStart), results);
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    public List<WarmupResult> getResults() {
+        return results;
+    }
+
+}
@@ -0,0 +1,15 @@
+package hello.itemservice.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "itemservice.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    //true 면 warm-up 작업이 하나라도 실패할 때 애플리케이션 시작을 중단한다
+    private boolean failOnError = false;
+
+}
@@ -0,0 +1,16 @@
+package hello.itemservice.warmup;
+
+import lombok.Value;
+
+@Value
+public class WarmupResult {
+
+    String name;
+    long millis;
+    String error; //성공하면 null
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+}
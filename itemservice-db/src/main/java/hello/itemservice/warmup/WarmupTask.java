@@ -0,0 +1,16 @@
+package hello.itemservice.warmup;
+
+/**
+ * 애플리케이션 시작 시 첫 요청 전에 미리 실행할 작업
+ * - 빈으로 등록된 구현체는 StartupWarmup 이 모든 싱글톤 빈이 만들어진 뒤 실행한다
+ * - 지연 초기화되는 빈은 아직 만들어지지 않았으므로 실행되지 않는다
+ */
+public interface WarmupTask {
+
+    void warmup();
+
+    default String getWarmupName() {
+        return getClass().getSimpleName();
+    }
+
+}
@@ -2,6 +2,7 @@ package hello.itemservice.web;
 
 import hello.itemservice.domain.Item;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
 import hello.itemservice.service.ItemService;
 import lombok.RequiredArgsConstructor;
@@ -21,7 +22,7 @@ public class ItemController {
 
     @GetMapping
     public String items(@ModelAttribute("itemSearch") ItemSearchCond itemSearch, Model model) {
-        List<Item> items = itemService.findItems(itemSearch);
+        List<ItemSummary> items = itemService.findItemSummaries(itemSearch); //목록 화면은 조회 전용 DTO 사용
         model.addAttribute("items", items);
         return "items";
     }
@@ -0,0 +1,99 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.columnar.ColumnarItemRepository;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * MemoryItemRepository 와 ColumnarItemRepository 의 메모리, GC, 스캔 비교
+ * - 남는 힙: 상품을 모두 저장한 뒤 GC 하고 늘어난 힙 사용량
+ * - GC 시간: 상품을 들고 있는 상태에서 전체 GC 를 몇 번 실행한 시간 (살아있는 객체가 많을수록 길다)
+ * - 스캔: price <= maxPrice 조건 findAll
+ *
+ * 실행: ./gradlew benchmark --tests '*ColumnarItemRepositoryBenchmark'
+ * 힙이 부족하면 ITEM_COUNT 를 줄이거나 -Xmx 를 늘린다
+ */
+@Slf4j
+@Tag("benchmark")
+class ColumnarItemRepositoryBenchmark {
+
+    static final int ITEM_COUNT = 2_000_000;
+    static final int GC_ROUNDS = 3;
+    static final int SCAN_ITERATIONS = 10;
+
+    @AfterEach
+    void afterEach() {
+        new MemoryItemRepository().clearStore();
+    }
+
+    @Test
+    void memoryVsColumnar() {
+        measure("memory", MemoryItemRepository::new);
+        new MemoryItemRepository().clearStore();
+        measure("columnar", ColumnarItemRepository::new);
+    }
+
+    private void measure(String name, Supplier<ItemRepository> factory) {
+        long heapBefore = usedHeapAfterGc();
+
+        ItemRepository repository = factory.get();
+        List<Item> batch = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            batch.add(new Item("item" + (i % 10_000), i % 100_000, i % 100));
+            if (batch.size() == 10_000) {
+                repository.saveAll(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        repository.saveAll(batch);
+        batch = null;
+
+        long retained = usedHeapAfterGc() - heapBefore;
+
+        long gcBefore = gcMillis();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        long gcPause = (gcMillis() - gcBefore) / GC_ROUNDS;
+
+        ItemSearchCond cond = new ItemSearchCond(null, 1_000);
+        repository.findAll(cond); //워밍업
+        long start = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < SCAN_ITERATIONS; i++) {
+            rows = repository.findAll(cond).size();
+        }
+        long scanMicros = (System.nanoTime() - start) / SCAN_ITERATIONS / 1000;
+
+        log.info("[{}] items={}, retained heap={}MB ({} bytes/item), full gc={}ms, scan rows={} avg={}us",
+                name, ITEM_COUNT, retained / 1024 / 1024, retained / ITEM_COUNT, gcPause, rows, scanMicros);
+        //측정이 끝날 때 까지 저장소를 살려둔다
+        log.debug("size={}", repository.findById(1L).isPresent());
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,111 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.profiler.SqlCapture;
+import hello.itemservice.profiler.SqlType;
+import hello.itemservice.repository.jpa.JpaItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 하이버네이트 기본 설정과 jpa-batch 프로필의 대량 insert/update 비교
+ * - 기본: IDENTITY 라 insert 를 하나씩 즉시 실행, update 도 하나씩 실행
+ * - jpa-batch: 시퀀스(pooled-lo)로 id 를 발급하고 insert, update 를 50 개씩 JDBC 배치로 실행
+ * - DB 왕복 수는 SqlCapture 로 센다 (executeBatch 한 번이 한 번)
+ *
+ * 실행: ./gradlew benchmark --tests '*JpaBatchBenchmark*'
+ */
+@Slf4j
+abstract class JpaBatchBenchmark {
+
+    static final int ITEM_COUNT = 20_000;
+    static final int ITERATIONS = 3;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from item");
+    }
+
+    @Test
+    void bulkInsertAndUpdate() {
+        JpaItemRepository repository = new JpaItemRepository(entityManager);
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+
+        //워밍업
+        txTemplate.executeWithoutResult(status -> repository.saveAll(items()));
+        jdbcTemplate.update("delete from item");
+
+        long insertNanos = 0;
+        long updateNanos = 0;
+        long insertStatements = 0;
+        long updateStatements = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<Item> items = items();
+            try (SqlCapture capture = SqlCapture.start()) {
+                long start = System.nanoTime();
+                txTemplate.executeWithoutResult(status -> repository.saveAll(items));
+                insertNanos += System.nanoTime() - start;
+                insertStatements += capture.total();
+            }
+
+            try (SqlCapture capture = SqlCapture.start()) {
+                long start = System.nanoTime();
+                //변경 감지 - 커밋할 때 변경된 엔티티마다 update
+                txTemplate.executeWithoutResult(status -> {
+                    for (Item item : entityManager.createQuery("select i from Item i", Item.class).getResultList()) {
+                        item.setQuantity(item.getQuantity() + 1);
+                    }
+                });
+                updateNanos += System.nanoTime() - start;
+                updateStatements += capture.total() - capture.count(SqlType.SELECT);
+            }
+            jdbcTemplate.update("delete from item");
+        }
+
+        log.info("[{}] rows={}, insert avg={}ms statements={}, update avg={}ms statements={}",
+                getClass().getSimpleName(), ITEM_COUNT,
+                insertNanos / ITERATIONS / 1_000_000, insertStatements / ITERATIONS,
+                updateNanos / ITERATIONS / 1_000_000, updateStatements / ITERATIONS);
+    }
+
+    private static List<Item> items() {
+        List<Item> items = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item("item" + (i % 1000), i % 100_000, i % 100));
+        }
+        return items;
+    }
+
+    @Tag("benchmark")
+    @SpringBootTest
+    static class HibernateDefaults extends JpaBatchBenchmark {
+    }
+
+    @Tag("benchmark")
+    @SpringBootTest
+    @ActiveProfiles({"test", "jpa-batch"})
+    static class JpaBatchProfile extends JpaBatchBenchmark {
+    }
+
+}
@@ -0,0 +1,121 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.jpa.JpaItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 읽기 전용 트랜잭션과 DTO 프로젝션의 메모리 비교
+ * - 일반 트랜잭션: 엔티티 + 변경 감지용 스냅샷
+ * - 읽기 전용 트랜잭션: 엔티티만 (스냅샷 없음)
+ * - DTO 프로젝션: 영속성 컨텍스트에 아무것도 등록하지 않는다
+ *
+ * 실행: ./gradlew benchmark --tests '*JpaReadOnlyBenchmark'
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class JpaReadOnlyBenchmark {
+
+    static final int ITEM_COUNT = 100_000;
+    static final int ITERATIONS = 5;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            rows.add(new Object[]{"item" + (i % 1000), i % 100_000, i % 100});
+        }
+        jdbcTemplate.batchUpdate("insert into item (item_name, price, quantity) values (?, ?, ?)", rows);
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from item");
+    }
+
+    @Test
+    void readOnlyVsReadWrite() {
+        JpaItemRepository repository = new JpaItemRepository(entityManager);
+        ItemSearchCond cond = new ItemSearchCond();
+
+        measure("entity, read-write tx", false, () -> repository.findAll(cond));
+        measure("entity, read-only tx", true, () -> repository.findAll(cond));
+        measure("dto projection, read-only tx", true, () -> repository.findSummaries(cond));
+    }
+
+    private void measure(String name, boolean readOnly, Supplier<List<?>> query) {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        txTemplate.setReadOnly(readOnly);
+
+        //워밍업
+        txTemplate.executeWithoutResult(status -> query.get());
+
+        long allocated = 0;
+        long retained = 0;
+        long elapsed = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long[] result = txTemplate.execute(status -> {
+                long heapBefore = usedHeapAfterGc();
+                long allocatedBefore = allocatedBytes();
+                long start = System.nanoTime();
+
+                List<?> items = query.get();
+
+                long time = System.nanoTime() - start;
+                long alloc = allocatedBytes() - allocatedBefore;
+                //영속성 컨텍스트가 살아있는 동안 남아있는 메모리
+                long heap = usedHeapAfterGc() - heapBefore;
+                log.debug("rows={}, managed entities={}", items.size(),
+                        entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+                return new long[]{alloc, heap, time};
+            });
+            allocated += result[0];
+            retained += result[1];
+            elapsed += result[2];
+        }
+
+        log.info("[{}] rows={}, avg time={}ms, avg allocated={}KB, avg retained={}KB",
+                name, ITEM_COUNT,
+                elapsed / ITERATIONS / 1_000_000,
+                allocated / ITERATIONS / 1024,
+                retained / ITERATIONS / 1024);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
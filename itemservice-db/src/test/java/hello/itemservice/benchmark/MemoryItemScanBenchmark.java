@@ -0,0 +1,84 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * MemoryItemRepository.findAll 병렬 스캔
+ * - 큰 저장소: ForkJoinPool 병렬도(1, 2, 4 ... 코어 수)별 스캔 시간
+ * - 작은 저장소: 기준 개수보다 적으면 순차로 스캔하므로 병렬도와 상관없이 같아야 한다
+ *
+ * 병렬 스트림은 호출한 스레드가 속한 ForkJoinPool 에서 실행되므로, 병렬도별 풀 안에서 findAll 을 호출한다
+ * 실행: ./gradlew benchmark --tests '*MemoryItemScanBenchmark'
+ */
+@Slf4j
+@Tag("benchmark")
+class MemoryItemScanBenchmark {
+
+    static final int LARGE = 2_000_000;
+    static final int SMALL = 1_000;
+    static final int ITERATIONS = 20;
+
+    MemoryItemRepository repository = new MemoryItemRepository();
+
+    @AfterEach
+    void afterEach() {
+        repository.clearStore();
+    }
+
+    @Test
+    void largeCatalog() throws Exception {
+        load(LARGE);
+        scaling("large");
+    }
+
+    @Test
+    void smallCatalog() throws Exception {
+        load(SMALL);
+        scaling("small");
+    }
+
+    private void scaling(String name) throws Exception {
+        ItemSearchCond cond = new ItemSearchCond("item1", 50_000);
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; parallelism <= cores; parallelism = parallelism == cores ? cores + 1 : Math.min(parallelism * 2, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                long[] result = pool.submit(() -> measure(cond)).get();
+                log.info("[{}] parallelism={}, rows={}, avg={}us", name, parallelism, result[0], result[1]);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private long[] measure(ItemSearchCond cond) {
+        for (int i = 0; i < 3; i++) {
+            repository.findAll(cond); //워밍업
+        }
+        long start = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows = repository.findAll(cond).size();
+        }
+        return new long[]{rows, (System.nanoTime() - start) / ITERATIONS / 1000};
+    }
+
+    private void load(int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item("item" + (i % 100), i % 100_000, i % 100));
+        }
+        repository.saveAll(items);
+    }
+
+}
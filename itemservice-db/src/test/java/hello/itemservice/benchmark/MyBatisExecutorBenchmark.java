@@ -0,0 +1,117 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.profiler.SqlCapture;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.mybatis.ItemMapper;
+import hello.itemservice.repository.mybatis.ItemMapperExecutors;
+import hello.itemservice.repository.mybatis.MyBatisItemRepository;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MyBatis 실행기별 대량 insert 비교 - 한 트랜잭션에서 100,000 건
+ * - 기본 매퍼: SIMPLE 실행기로 insert 를 하나씩 실행하고 생성된 키를 받는다
+ * - BATCH + 생성된 키: addBatch 로 모았다가 executeBatch 한 번, 생성된 키는 배치가 끝난 뒤 채운다
+ * - BATCH + 시퀀스 id: id 를 item_seq 에서 50 개씩 받아 먼저 정하고, 커밋할 때 executeBatch
+ * - DB 왕복 수는 SqlCapture 로 센다 (executeBatch 한 번이 한 번)
+ *
+ * 실행: ./gradlew benchmark --tests '*MyBatisExecutorBenchmark*'
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class MyBatisExecutorBenchmark {
+
+    static final int ITEM_COUNT = 100_000;
+    static final int ITERATIONS = 3;
+
+    @Autowired
+    ItemMapper itemMapper;
+
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from item");
+    }
+
+    @Test
+    void currentMapper() {
+        run("current mapper", new MyBatisItemRepository(itemMapper));
+    }
+
+    @Test
+    void batchWithGeneratedKeys() {
+        ItemMapperExecutors executors = new ItemMapperExecutors(sqlSessionFactory, ExecutorType.REUSE, true);
+        run("batch + generated keys", new MyBatisItemRepository(itemMapper, null, executors));
+    }
+
+    @Test
+    void batchWithSequenceIds() {
+        ItemMapperExecutors executors = new ItemMapperExecutors(sqlSessionFactory, ExecutorType.REUSE, true);
+        PooledIdAllocator idAllocator = new PooledIdAllocator(dataSource, "item_seq", 50);
+        run("batch + sequence ids", new MyBatisItemRepository(itemMapper, idAllocator, executors));
+    }
+
+    private void run(String name, ItemRepository repository) {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+
+        //워밍업
+        txTemplate.executeWithoutResult(status -> repository.saveAll(items(1_000)));
+        jdbcTemplate.update("delete from item");
+
+        long nanos = 0;
+        long statements = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<Item> items = items(ITEM_COUNT);
+            try (SqlCapture capture = SqlCapture.start()) {
+                long start = System.nanoTime();
+                txTemplate.executeWithoutResult(status -> repository.saveAll(items));
+                nanos += System.nanoTime() - start;
+                statements += capture.total();
+            }
+            assertThat(items).allSatisfy(item -> assertThat(item.getId()).isNotNull());
+            assertThat(jdbcTemplate.queryForObject("select count(*) from item", Long.class)).isEqualTo(ITEM_COUNT);
+            jdbcTemplate.update("delete from item");
+        }
+
+        log.info("[{}] rows={}, insert avg={}ms statements={}",
+                name, ITEM_COUNT, nanos / ITERATIONS / 1_000_000, statements / ITERATIONS);
+    }
+
+    private static List<Item> items(int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item("item" + (i % 1000), i % 100_000, i % 100));
+        }
+        return items;
+    }
+
+}
@@ -0,0 +1,54 @@
+package hello.itemservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemBackendTest {
+
+    static final String MYBATIS = "org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration";
+    static final String HIBERNATE = "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration";
+    static final String JDBC = "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration";
+
+    @Test
+    void selectConfig() {
+        ItemBackendSelector selector = new ItemBackendSelector();
+
+        selector.setEnvironment(new MockEnvironment());
+        assertThat(selector.selectImports(null)).containsExactly(V2Config.class.getName());
+
+        selector.setEnvironment(new MockEnvironment().withProperty(ItemBackend.PROPERTY, "jdbc-template-v3"));
+        assertThat(selector.selectImports(null)).containsExactly(JdbcTemplateV3Config.class.getName());
+    }
+
+    @Test
+    void unknownBackend() {
+        MockEnvironment environment = new MockEnvironment().withProperty(ItemBackend.PROPERTY, "mongo");
+
+        assertThatThrownBy(() -> ItemBackend.from(environment))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void excludeUnusedAutoConfiguration() {
+        assertThat(match("mybatis", true)).containsExactly(true, false, true);
+        assertThat(match("v2", true)).containsExactly(false, true, true);
+        assertThat(match("memory", true)).containsExactly(false, false, true);
+    }
+
+    @Test
+    void keepAllAutoConfigurationByDefault() {
+        assertThat(match("memory", false)).containsExactly(true, true, true);
+    }
+
+    private boolean[] match(String backend, boolean enabled) {
+        UnusedBackendAutoConfigurationFilter filter = new UnusedBackendAutoConfigurationFilter();
+        filter.setEnvironment(new MockEnvironment()
+                .withProperty(ItemBackend.PROPERTY, backend)
+                .withProperty(UnusedBackendAutoConfigurationFilter.ENABLED, String.valueOf(enabled)));
+        return filter.match(new String[]{MYBATIS, HIBERNATE, JDBC}, null);
+    }
+
+}
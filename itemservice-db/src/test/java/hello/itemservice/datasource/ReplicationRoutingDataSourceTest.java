@@ -0,0 +1,80 @@
+package hello.itemservice.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicationRoutingDataSourceTest {
+
+    DataSource primary = h2("primary");
+    DataSource replica = h2("replica");
+    ReplicaLagMonitor lagMonitor;
+
+    @BeforeEach
+    void beforeEach() {
+        //임베디드 H2 두 개에 각각 자신의 이름을 저장해두고 어느 쪽에서 조회되는지 확인한다
+        for (String name : new String[]{"primary", "replica"}) {
+            JdbcTemplate template = new JdbcTemplate(name.equals("primary") ? primary : replica);
+            template.execute("create table if not exists node (name varchar(10))");
+            template.update("delete from node");
+            template.update("insert into node (name) values (?)", name);
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        lagMonitor.close();
+    }
+
+    @Test
+    void readOnlyToReplica() {
+        DataSource dataSource = routingDataSource("select 0");
+
+        assertThat(currentNode(dataSource, true)).isEqualTo("replica");
+        assertThat(currentNode(dataSource, false)).isEqualTo("primary");
+    }
+
+    @Test
+    void lagFallbackToPrimary() {
+        //지연 5000ms > 허용 1000ms
+        DataSource dataSource = routingDataSource("select 5000");
+
+        assertThat(currentNode(dataSource, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void brokenReplicaFallbackToPrimary() {
+        DataSource dataSource = routingDataSource("select * from not_exists");
+
+        assertThat(currentNode(dataSource, true)).isEqualTo("primary");
+    }
+
+    private DataSource routingDataSource(String lagQuery) {
+        Map<String, DataSource> replicas = Map.of("replica", replica);
+        lagMonitor = new ReplicaLagMonitor(replicas, lagQuery, 1000);
+        lagMonitor.checkNow();
+        return new LazyConnectionDataSourceProxy(new ReplicationRoutingDataSource(primary, replicas, lagMonitor));
+    }
+
+    private String currentNode(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate txTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        txTemplate.setReadOnly(readOnly);
+        return txTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select name from node", String.class));
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+}
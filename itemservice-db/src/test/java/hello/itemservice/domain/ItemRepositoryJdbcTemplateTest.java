@@ -0,0 +1,10 @@
+package hello.itemservice.domain;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * JdbcTemplateV3Config 에서도 같은 테스트가 통과해야 한다 - saveAll 은 JDBC 배치 insert(ItemBatchInsert)를 사용한다
+ */
+@TestPropertySource(properties = "itemservice.backend=jdbc-template-v3")
+class ItemRepositoryJdbcTemplateTest extends ItemRepositoryTest {
+}
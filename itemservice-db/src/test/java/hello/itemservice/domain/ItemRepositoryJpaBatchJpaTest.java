@@ -0,0 +1,10 @@
+package hello.itemservice.domain;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * jpa-batch 프로필 + JpaConfig
+ */
+@TestPropertySource(properties = "itemservice.backend=jpa")
+class ItemRepositoryJpaBatchJpaTest extends ItemRepositoryJpaBatchTest {
+}
@@ -0,0 +1,10 @@
+package hello.itemservice.domain;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * jpa-batch 프로필 + QuerydslConfig
+ */
+@TestPropertySource(properties = "itemservice.backend=querydsl")
+class ItemRepositoryJpaBatchQuerydslTest extends ItemRepositoryJpaBatchTest {
+}
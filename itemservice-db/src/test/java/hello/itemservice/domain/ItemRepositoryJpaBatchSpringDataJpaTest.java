@@ -0,0 +1,10 @@
+package hello.itemservice.domain;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * jpa-batch 프로필 + SpringDataJpaConfig
+ */
+@TestPropertySource(properties = "itemservice.backend=spring-data-jpa")
+class ItemRepositoryJpaBatchSpringDataJpaTest extends ItemRepositoryJpaBatchTest {
+}
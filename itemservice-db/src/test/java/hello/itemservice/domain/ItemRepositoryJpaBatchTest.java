@@ -0,0 +1,11 @@
+package hello.itemservice.domain;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * jpa-batch 프로필(시퀀스 id, JDBC 배치)에서도 같은 테스트가 통과해야 한다
+ * - 기본 백엔드(V2Config)로 실행한다. JpaConfig, SpringDataJpaConfig, QuerydslConfig 는 하위 클래스에서 실행한다
+ */
+@ActiveProfiles({"test", "jpa-batch"})
+class ItemRepositoryJpaBatchTest extends ItemRepositoryTest {
+}
@@ -2,17 +2,20 @@ package hello.itemservice.domain;
 
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
 import hello.itemservice.repository.ItemUpdateDto;
-import hello.itemservice.repository.memory.MemoryItemRepository;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional //테스트에서 사용 시 트랜잭션을 자동으로 롤백시켜준다
@@ -30,6 +33,7 @@ class ItemRepositoryTest {
      *
      * - 리포지토리나 서비스에 있는 @Transactional 도 테스트에서 시작한 트랜잭션에 참여한다
      * - 테스트에서 트랜잭션을 시작하면 테스트 실행이 종료될 때 까지 모든 코드가 같은 트랜잭션 범위에 들어간다
+     * - 메모리 저장소(TransactionalMemoryItemRepository)도 트랜잭션 롤백으로 정리된다
      */
     @Autowired
     ItemRepository itemRepository;
@@ -44,17 +48,6 @@ class ItemRepositoryTest {
 //        status = transactionManager.getTransaction(new DefaultTransactionDefinition());
 //    }
 
-    @AfterEach
-    void afterEach() {
-        //MemoryItemRepository 의 경우 제한적으로 사용
-        if (itemRepository instanceof MemoryItemRepository) {
-            ((MemoryItemRepository) itemRepository).clearStore();
-        }
-
-        //트랜잭션 롤백
-//        transactionManager.rollback(status);
-    }
-
     @Test
 //    @Transactional //데이터를 DB 에서 직접 눈으로 확인하고 싶으면..
 //    @Commit //강제로 커밋하기
@@ -89,6 +82,28 @@ class ItemRepositoryTest {
         assertThat(findItem.getQuantity()).isEqualTo(updateParam.getQuantity());
     }
 
+    @Test
+    void updateMissingItem() {
+        assertThatThrownBy(() -> itemRepository.update(-1L, new ItemUpdateDto("item", 10000, 10)))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void decreaseQuantity() {
+        //given
+        Item item = new Item("itemA", 10000, 10);
+        Long itemId = itemRepository.save(item).getId();
+
+        //when
+        boolean decreased = itemRepository.decreaseQuantity(itemId, 7);
+        boolean notEnough = itemRepository.decreaseQuantity(itemId, 4);
+
+        //then
+        assertThat(decreased).isTrue();
+        assertThat(notEnough).isFalse(); //재고 부족 시 차감하지 않는다
+        assertThat(itemRepository.findById(itemId).get().getQuantity()).isEqualTo(3);
+    }
+
     @Test
     void findItems() {
         //given
@@ -116,6 +131,85 @@ class ItemRepositoryTest {
         test("itemA", 10000, item1);
     }
 
+    @Test
+    void saveAll() {
+        //given
+        List<Item> items = List.of(
+                new Item("itemA", 10000, 10),
+                new Item("itemB", 20000, 20),
+                new Item("itemC", 30000, 30));
+
+        //when
+        List<Item> savedItems = itemRepository.saveAll(items);
+
+        //then
+        assertThat(savedItems).extracting(Item::getId).doesNotContainNull().doesNotHaveDuplicates();
+        for (Item item : savedItems) {
+            assertThat(itemRepository.findById(item.getId())).contains(item);
+        }
+    }
+
+    @Test
+    void saveAllWithNullValues() {
+        Item item = itemRepository.saveAll(List.of(new Item("itemA", null, null))).get(0);
+
+        Item findItem = itemRepository.findById(item.getId()).get();
+        assertThat(findItem.getPrice()).isNull();
+        assertThat(findItem.getQuantity()).isNull();
+    }
+
+    @Test
+    void findAllByIds() {
+        //given - IN 목록 하나(256개)를 넘도록 저장한다
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            items.add(new Item("item" + i, 10000, 10));
+        }
+        itemRepository.saveAll(items);
+        Item first = items.get(0);
+        Item last = items.get(299);
+
+        //when - 순서를 섞고, 중복과 없는 id 를 넣는다
+        List<Long> ids = new ArrayList<>();
+        ids.add(last.getId());
+        for (Item item : items) {
+            ids.add(item.getId());
+        }
+        ids.add(first.getId());
+        ids.add(-1L);
+        Map<Long, Item> result = itemRepository.findAllByIds(ids);
+
+        //then
+        assertThat(result).hasSize(300).doesNotContainKey(-1L);
+        assertThat(result.keySet()).first().isEqualTo(last.getId());
+        assertThat(result.get(first.getId())).isEqualTo(first);
+    }
+
+    @Test
+    void findSummaries() {
+        //given
+        Item item1 = itemRepository.save(new Item("itemA-1", 10000, 10));
+        Item item2 = itemRepository.save(new Item("itemA-2", 20000, 20));
+        itemRepository.save(new Item("itemB-1", 30000, 30));
+
+        //when
+        List<ItemSummary> result = itemRepository.findSummaries(new ItemSearchCond("itemA", null));
+
+        //then
+        assertThat(result).containsExactly(
+                new ItemSummary(item1.getId(), "itemA-1", 10000, 10),
+                new ItemSummary(item2.getId(), "itemA-2", 20000, 20));
+    }
+
+    @Test
+    void findSummariesWithNullValues() {
+        Item item = itemRepository.save(new Item("itemA", null, null));
+
+        List<ItemSummary> result = itemRepository.findSummaries(new ItemSearchCond("itemA", null));
+
+        assertThat(result).containsExactly(new ItemSummary(item.getId(), "itemA", null, null));
+    }
+
     void test(String itemName, Integer maxPrice, Item... items) {
         List<Item> result = itemRepository.findAll(new ItemSearchCond(itemName, maxPrice));
         assertThat(result).containsExactly(items);
@@ -0,0 +1,135 @@
+package hello.itemservice.exporter;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.importer.ImportFormat;
+import hello.itemservice.importer.ItemRecord;
+import hello.itemservice.importer.ItemRecordReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ItemExporterTest {
+
+    DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate template = new JdbcTemplate(dataSource);
+    ItemExporter exporter = new ItemExporter(dataSource, new DataSourceTransactionManager(dataSource), 100, 3);
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void beforeEach() {
+        template.execute("drop table if exists item");
+        template.execute("create table item (id bigint generated by default as identity, " +
+                "item_name varchar(10), price integer, quantity integer, primary key (id))");
+        template.update("insert into item (item_name, price, quantity) values ('itemA', 10000, 10)");
+        template.update("insert into item (item_name, price, quantity) values ('item,\"B\"', 20000, null)");
+        template.update("insert into item (item_name, price, quantity) values (null, -5, 30)");
+        template.update("insert into item (item_name, price, quantity) values ('상품D', null, 40)");
+    }
+
+    @Test
+    void exportCsv() throws IOException {
+        Path target = tempDir.resolve("items.csv.gz");
+
+        ExportReport report = exporter.exportFile(target, ExportFormat.CSV);
+
+        assertThat(report.getRows()).isEqualTo(4);
+        assertThat(report.getBytes()).isEqualTo(Files.size(target));
+        assertThat(Files.exists(tempDir.resolve("items.csv.gz.tmp"))).isFalse();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(target)), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().map(line -> line.replaceFirst("^\\d+,", "")).collect(Collectors.toList());
+            assertThat(lines).containsExactly("id,item_name,price,quantity",
+                    "itemA,10000,10", "\"item,\"\"B\"\"\",20000,", ",-5,30", "상품D,,40");
+        }
+    }
+
+    /**
+     * 내보낸 CSV 를 가져오기 형식으로 다시 읽는다 - id 컬럼은 건너뛰고, null 이름은 빈 값이 된다
+     */
+    @Test
+    void exportCsvRoundTrip() throws IOException {
+        Path target = tempDir.resolve("items.csv.gz");
+        exporter.exportFile(target, ExportFormat.CSV);
+
+        List<ItemRecord> records = new ArrayList<>();
+        try (ItemRecordReader reader = new ItemRecordReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(target)), StandardCharsets.UTF_8), ImportFormat.CSV)) {
+            for (ItemRecord record = reader.next(); record != null; record = reader.next()) {
+                records.add(record);
+            }
+        }
+
+        assertThat(records).extracting(ItemRecord::getItemName, ItemRecord::getPrice, ItemRecord::getQuantity, ItemRecord::getError)
+                .containsExactly(
+                        tuple("itemA", 10000, 10, null),
+                        tuple("item,\"B\"", 20000, null, null),
+                        tuple("", -5, 30, null),
+                        tuple("상품D", null, 40, null));
+    }
+
+    /**
+     * 줄바꿈이 있는 이름은 큰따옴표로 감싸서 내보내지만, 한 줄씩 읽는 가져오기에서는 오류 행이 된다
+     */
+    @Test
+    void exportCsvNameWithNewlineIsRejectedOnImport() throws IOException {
+        template.update("delete from item");
+        template.update("insert into item (item_name, price, quantity) values ('a\nb', 10000, 10)");
+        Path target = tempDir.resolve("items.csv.gz");
+        exporter.exportFile(target, ExportFormat.CSV);
+
+        try (ItemRecordReader reader = new ItemRecordReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(target)), StandardCharsets.UTF_8), ImportFormat.CSV)) {
+            assertThat(reader.next().getError()).contains("큰따옴표");
+        }
+    }
+
+    /**
+     * 행 그룹 크기(3)보다 행이 많아도 순서와 null 이 그대로 복원된다
+     */
+    @Test
+    void exportColumnarRoundTrip() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            template.update("insert into item (item_name, price, quantity) values (?, ?, ?)", "bulk" + i, i, i % 7);
+        }
+        Path target = tempDir.resolve("items.itemcol.gz");
+
+        ExportReport report = exporter.exportFile(target, ExportFormat.COLUMNAR);
+
+        List<Item> items = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(target)) {
+            assertThat(ColumnarItemReader.read(in, items::add)).isEqualTo(1004);
+        }
+        assertThat(report.getRows()).isEqualTo(1004);
+        assertThat(items).extracting(Item::getId)
+                .containsExactlyElementsOf(template.queryForList("select id from item order by id", Long.class));
+        assertThat(items.subList(0, 4)).extracting(Item::getItemName, Item::getPrice, Item::getQuantity)
+                .containsExactly(
+                        tuple("itemA", 10000, 10),
+                        tuple("item,\"B\"", 20000, null),
+                        tuple(null, -5, 30),
+                        tuple("상품D", null, 40));
+        assertThat(items.get(1003).getItemName()).isEqualTo("bulk999");
+    }
+
+}
@@ -0,0 +1,103 @@
+package hello.itemservice.feed;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemChangeFeedTest {
+
+    ItemChangeFeed feed = new ItemChangeFeed(3);
+
+    @AfterEach
+    void afterEach() {
+        feed.close();
+    }
+
+    @Test
+    void readFromOffset() {
+        feed.append(ItemChangedEvent.saved(item(1L)));
+        feed.append(ItemChangedEvent.updated(1L, new ItemUpdateDto("itemB", 20000, 20)));
+        feed.append(ItemChangedEvent.quantityDecreased(1L, 5));
+
+        ItemChangeBatch batch = feed.read(1, 10);
+
+        assertThat(batch.getChanges()).extracting(ItemChange::getOffset).containsExactly(1L, 2L);
+        assertThat(batch.getChanges()).extracting(ItemChange::getVersion).containsExactly(2L, 3L);
+        assertThat(batch.getChanges().get(1).getQuantityDelta()).isEqualTo(-5);
+        assertThat(batch.getNextOffset()).isEqualTo(3);
+        assertThat(batch.isTruncated()).isFalse();
+
+        //이어서 읽을 변경이 없다
+        assertThat(feed.read(batch.getNextOffset(), 10).getChanges()).isEmpty();
+    }
+
+    @Test
+    void truncated() {
+        for (long id = 1; id <= 5; id++) {
+            feed.append(ItemChangedEvent.saved(item(id)));
+        }
+
+        //용량 3 - offset 0, 1 은 밀려났다
+        ItemChangeBatch batch = feed.read(0, 10);
+
+        assertThat(batch.isTruncated()).isTrue();
+        assertThat(batch.getChanges()).extracting(ItemChange::getOffset).containsExactly(2L, 3L, 4L);
+        assertThat(batch.getNextOffset()).isEqualTo(5);
+    }
+
+    /**
+     * 상품별 버전은 링 버퍼에 남은 상품만 기억한다 - 변경이 모두 밀려난 상품은 1 부터 다시 센다
+     */
+    @Test
+    void versionsBoundedToRing() {
+        feed.append(ItemChangedEvent.saved(item(1L)));
+        feed.append(ItemChangedEvent.quantityDecreased(1L, 1));
+        feed.append(ItemChangedEvent.saved(item(2L)));
+        feed.append(ItemChangedEvent.saved(item(3L)));
+        assertThat(feed.append(ItemChangedEvent.quantityDecreased(2L, 1)).getVersion()).isEqualTo(2);
+
+        //용량 3 - 상품 1 의 변경은 모두 밀려났다
+        assertThat(feed.append(ItemChangedEvent.quantityDecreased(1L, 1)).getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void offsetAheadOfFeed() {
+        //피드가 재시작되어 소비자의 offset 이 더 크다
+        ItemChangeBatch batch = feed.read(100, 10);
+
+        assertThat(batch.isTruncated()).isTrue();
+        assertThat(batch.getNextOffset()).isEqualTo(0);
+    }
+
+    @Test
+    void subscribeInOrder() throws InterruptedException {
+        List<Long> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        feed.subscribe(change -> {
+            received.add(change.getOffset());
+            latch.countDown();
+        });
+
+        for (long id = 1; id <= 3; id++) {
+            feed.append(ItemChangedEvent.saved(item(id)));
+        }
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).containsExactly(0L, 1L, 2L);
+    }
+
+    private Item item(Long id) {
+        Item item = new Item("item" + id, 10000, 10);
+        item.setId(id);
+        return item;
+    }
+
+}
@@ -0,0 +1,96 @@
+package hello.itemservice.feed;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 커밋된 변경만 피드에 기록된다
+ */
+@SpringBootTest
+class ItemChangeFeedTransactionTest {
+
+    @Autowired
+    ItemChangeFeed feed;
+    @Autowired
+    ApplicationEventPublisher publisher;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from item");
+    }
+
+    @Test
+    void onlyCommittedChanges() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long offset = feed.getNextOffset();
+
+        tx.executeWithoutResult(status -> {
+            publisher.publishEvent(ItemChangedEvent.saved(item(1L, "commit")));
+            //커밋 전에는 기록되지 않는다
+            assertThat(feed.getNextOffset()).isEqualTo(offset);
+        });
+        tx.executeWithoutResult(status -> {
+            publisher.publishEvent(ItemChangedEvent.saved(item(2L, "rollback")));
+            status.setRollbackOnly();
+        });
+
+        ItemChangeBatch batch = feed.read(offset, 10);
+        assertThat(batch.getChanges()).extracting(ItemChange::getItemName).containsExactly("commit");
+    }
+
+    @Test
+    void withoutTransaction() {
+        long offset = feed.getNextOffset();
+
+        publisher.publishEvent(ItemChangedEvent.saved(item(3L, "noTx")));
+
+        assertThat(feed.read(offset, 10).getChanges()).extracting(ItemChange::getItemName).containsExactly("noTx");
+    }
+
+    /**
+     * 서비스를 거치지 않는 저장소 쓰기도 기록한다. 대량 등록(saveAll), 없는 상품의 update, 실패한 재고 차감은 기록하지 않는다
+     */
+    @Test
+    void repositoryWrites() {
+        long offset = feed.getNextOffset();
+
+        Item item = itemRepository.save(new Item("saved", 10000, 10));
+        itemRepository.saveAll(List.of(new Item("bulk", 10000, 10)));
+        itemRepository.update(item.getId(), new ItemUpdateDto("updated", 20000, 20));
+        assertThatThrownBy(() -> itemRepository.update(-1L, new ItemUpdateDto("missing", 20000, 20)))
+                .isInstanceOf(NoSuchElementException.class);
+        itemRepository.decreaseQuantity(item.getId(), 5);
+        itemRepository.decreaseQuantity(item.getId(), 100);
+
+        assertThat(feed.read(offset, 10).getChanges()).extracting(ItemChange::getType).containsExactly(
+                ItemChangeType.SAVED, ItemChangeType.UPDATED, ItemChangeType.QUANTITY_DECREASED);
+    }
+
+    private Item item(Long id, String itemName) {
+        Item item = new Item(itemName, 10000, 10);
+        item.setId(id);
+        return item;
+    }
+
+}
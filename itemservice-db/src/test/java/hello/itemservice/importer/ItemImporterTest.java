@@ -0,0 +1,122 @@
+package hello.itemservice.importer;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV1;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemImporterTest {
+
+    DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:import;DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate template = new JdbcTemplate(dataSource);
+    ItemRepository itemRepository = new JdbcTemplateItemRepositoryV1(dataSource);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void beforeEach() {
+        template.execute("drop table if exists item");
+        template.execute("create table item (id bigint generated by default as identity, " +
+                "item_name varchar(10), price integer, quantity integer, primary key (id))");
+    }
+
+    @Test
+    void importCsv() throws IOException {
+        String csv = "item_name,price,quantity\n" +
+                "itemA,10000,10\n" +
+                "\"item,B\",20000,20\n" +
+                "itemNameTooLong,30000,30\n" + //11자
+                "itemD,abc,40\n" +
+                "itemE,50000\n" +
+                "itemF,60000,60\n";
+
+        ImportReport report = importer(itemRepository, 2, 2).importStream(stream(csv), ImportFormat.CSV, ImportCheckpoint.none());
+
+        assertThat(report.isCompleted()).isTrue();
+        assertThat(report.getRowsRead()).isEqualTo(6);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getRejected()).isEqualTo(3);
+        assertThat(report.getErrors()).hasSize(3).first().asString().startsWith("line 4");
+        assertThat(template.queryForList("select item_name from item order by item_name", String.class))
+                .containsExactly("item,B", "itemA", "itemF");
+    }
+
+    @Test
+    void importJsonLines() throws IOException {
+        String jsonLines = "{\"item_name\":\"itemA\",\"price\":10000,\"quantity\":10}\n" +
+                "{\"itemName\":\"itemB\",\"price\":\"20000\",\"quantity\":20}\n" +
+                "{broken\n" +
+                "{\"item_name\":\"itemC\",\"price\":30000}\n";
+
+        ImportReport report = importer(itemRepository, 10, 1).importStream(stream(jsonLines), ImportFormat.JSON_LINES, ImportCheckpoint.none());
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(2);
+    }
+
+    /**
+     * 중간에 실패해도 같은 체크포인트로 다시 실행하면 커밋된 청크는 건너뛰고 나머지만 저장한다
+     */
+    @Test
+    void restartFromCheckpoint() throws IOException {
+        Path source = tempDir.resolve("items.csv");
+        Path checkpoint = tempDir.resolve("items.checkpoint");
+        Files.writeString(source, IntStream.rangeClosed(1, 1000)
+                .mapToObj(i -> "item" + i + "," + i + ",1")
+                .collect(Collectors.joining("\n")));
+
+        //5번째 saveAll 에서 실패
+        ImportReport failed = importer(failingAt(5), 50, 4).importFile(source, ImportFormat.CSV, checkpoint);
+        assertThat(failed.isCompleted()).isFalse();
+        assertThat(failed.getFailure()).contains("강제 실패");
+
+        ImportReport resumed = importer(itemRepository, 50, 4).importFile(source, ImportFormat.CSV, checkpoint);
+        assertThat(resumed.isCompleted()).isTrue();
+        assertThat(resumed.getSkipped()).isEqualTo(failed.getImported());
+
+        //중복 없이 모두 저장
+        assertThat(template.queryForObject("select count(*) from item", Long.class)).isEqualTo(1000);
+        assertThat(template.queryForObject("select count(distinct item_name) from item", Long.class)).isEqualTo(1000);
+    }
+
+    private ItemImporter importer(ItemRepository repository, int chunkSize, int writers) {
+        return new ItemImporter(repository, transactionManager, chunkSize, writers);
+    }
+
+    private ItemRepository failingAt(int call) {
+        AtomicInteger calls = new AtomicInteger();
+        return (ItemRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ItemRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("saveAll") && calls.incrementAndGet() == call) {
+                        throw new IllegalStateException("강제 실패");
+                    }
+                    return method.invoke(itemRepository, args);
+                });
+    }
+
+    private ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,118 @@
+package hello.itemservice.profiler;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlProfilerTest {
+
+    SqlProfiler profiler = new SqlProfiler(1, 3);
+    JdbcTemplate template;
+
+    @BeforeEach
+    void beforeEach() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:profiler;DB_CLOSE_DELAY=-1", "sa", "");
+        DataSource dataSource = new ProfilingDataSource(h2, profiler);
+        template = new JdbcTemplate(dataSource);
+        template.execute("create table if not exists profiled (id bigint, name varchar(10))");
+        template.update("delete from profiled");
+        profiler.reset();
+    }
+
+    @Test
+    void statsByShape() {
+        template.update("insert into profiled (id, name) values (?, ?)", 1L, "a");
+        template.update("insert into profiled (id, name) values (?, ?)", 2L, "b");
+        template.queryForList("select name from profiled where id = 1");
+        template.queryForList("select name from profiled where id = 2");
+
+        List<StatementStats> stats = List.copyOf(profiler.getStats());
+        assertThat(stats).hasSize(2);
+        assertThat(stats).allMatch(s -> s.getCount() == 2);
+
+        StatementStats select = stats.stream().filter(s -> s.getType() == SqlType.SELECT).findFirst().orElseThrow();
+        //리터럴이 ? 로 바뀌어서 같은 모양으로 모인다
+        assertThat(select.getSql()).isEqualTo("select name from profiled where id = ?");
+        assertThat(select.getSampled()).isEqualTo(2);
+        assertThat(select.getAvgRows()).isEqualTo(1.0);
+    }
+
+    @Test
+    void capture() {
+        template.update("insert into profiled (id, name) values (?, ?)", 1L, "a");
+
+        try (SqlCapture capture = SqlCapture.start()) {
+            template.queryForObject("select name from profiled where id = ?", String.class, 1L);
+            template.update("update profiled set name = ? where id = ?", "b", 1L);
+
+            capture.assertExactly(SqlType.SELECT, 1)
+                    .assertExactly(SqlType.UPDATE, 1)
+                    .assertAtMost(SqlType.INSERT, 0);
+            assertThat(capture.total()).isEqualTo(2);
+            assertThatThrownBy(() -> capture.assertAtMost(SqlType.SELECT, 0))
+                    .isInstanceOf(AssertionError.class);
+        }
+    }
+
+    @Test
+    void nPlusOne() {
+        for (long id = 1; id <= 5; id++) {
+            template.update("insert into profiled (id, name) values (?, ?)", id, "item" + id);
+        }
+
+        try (SqlCapture scope = profiler.startScope("test")) {
+            List<Long> ids = template.queryForList("select id from profiled", Long.class);
+            for (Long id : ids) {
+                template.queryForObject("select name from profiled where id = ?", String.class, id);
+            }
+
+            assertThat(scope.repeatedSelects()).containsExactly("select name from profiled where id = ?");
+        }
+
+        StatementStats select = profiler.getStats().stream()
+                .filter(s -> s.getSql().equals("select name from profiled where id = ?"))
+                .findFirst().orElseThrow();
+        assertThat(select.getNPlusOneSuspects()).isEqualTo(1);
+    }
+
+    /**
+     * 비동기 요청은 요청 스레드에서 afterCompletion 이 호출되지 않는다 - 비동기 처리를 시작할 때 범위를 닫는다
+     */
+    @Test
+    void asyncRequestReleasesCapture() {
+        SqlProfilingInterceptor interceptor = new SqlProfilingInterceptor(profiler);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/changes");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+        SqlCapture requestCapture = (SqlCapture) request.getAttribute(SqlProfilingInterceptor.class.getName() + ".CAPTURE");
+        interceptor.afterConcurrentHandlingStarted(request, response, new Object());
+
+        //같은 스레드의 다음 작업이 닫힌 범위에 기록되지 않는다
+        template.queryForList("select name from profiled");
+        assertThat(requestCapture.total()).isZero();
+    }
+
+    @Test
+    void closeClosesTargetPool() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:profiler-pool;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        ProfilingDataSource dataSource = new ProfilingDataSource(pool, profiler);
+
+        dataSource.close();
+
+        assertThat(pool.isClosed()).isTrue();
+    }
+
+}
@@ -0,0 +1,194 @@
+package hello.itemservice.repository;
+
+import hello.itemservice.config.*;
+import hello.itemservice.domain.Item;
+import hello.itemservice.profiler.SqlCapture;
+import hello.itemservice.profiler.SqlType;
+import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV3;
+import hello.itemservice.repository.jpa.SpringDataJpaItemRepository;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import hello.itemservice.repository.mybatis.ItemMapper;
+import hello.itemservice.repository.mybatis.MybatisExecutorProperties;
+import hello.itemservice.repository.sequence.PooledIdAllocator;
+import hello.itemservice.repository.v2.ItemRepositoryV2;
+import hello.itemservice.service.ItemService;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 백엔드별 실행 SQL 수 회귀 테스트
+ * - 10개 *Config 로 만든 ItemService 에 같은 시나리오를 실행하고, 작업마다 실행된 SQL 종류와 수를 검증한다
+ * - JPA 는 변경 감지 때문에 update 전에 select 가 한 번 더 나간다
+ * - 작업이 끝날 때 마다 flush, clear 해서 쓰기 지연된 SQL 도 그 작업에서 센다
+ */
+@SpringBootTest
+@Transactional
+class ItemStatementCountTest {
+
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    ObjectProvider<PooledIdAllocator> idAllocator;
+    @Autowired
+    ItemMapper itemMapper;
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+    @Autowired
+    SpringDataJpaItemRepository springDataJpaItemRepository;
+    @Autowired
+    ItemRepositoryV2 itemRepositoryV2;
+
+    enum Backend {
+        MEMORY(0, 0),
+        COLUMNAR(0, 0),
+        JDBC_TEMPLATE_V1(1, 0),
+        JDBC_TEMPLATE_V2(1, 0),
+        JDBC_TEMPLATE_V3(1, 0),
+        MYBATIS(1, 0),
+        JPA(1, 1),
+        SPRING_DATA_JPA(1, 1),
+        QUERYDSL(1, 1),
+        V2(1, 1);
+
+        //작업 하나에 실행되는 SQL 수 (메모리는 0)
+        final int statements;
+        //update 전에 엔티티를 조회하는 select 수
+        final int selectBeforeUpdate;
+
+        Backend(int statements, int selectBeforeUpdate) {
+            this.statements = statements;
+            this.selectBeforeUpdate = selectBeforeUpdate;
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        new MemoryItemRepository().clearStore();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void statementCounts(Backend backend) {
+        ItemService itemService = itemService(backend);
+        int n = backend.statements;
+
+        Item item = new Item("itemA", 10000, 10);
+        capture(c -> c.assertExactly(SqlType.INSERT, n).assertExactly(SqlType.SELECT, 0),
+                () -> itemService.save(item));
+        Long itemId = item.getId();
+
+        capture(c -> c.assertExactly(SqlType.SELECT, n),
+                () -> assertThat(itemService.findById(itemId)).isPresent());
+
+        capture(c -> c.assertExactly(SqlType.SELECT, backend.selectBeforeUpdate).assertExactly(SqlType.UPDATE, n),
+                () -> itemService.update(itemId, new ItemUpdateDto("itemB", 20000, 20)));
+
+        capture(c -> c.assertExactly(SqlType.UPDATE, n).assertExactly(SqlType.SELECT, 0),
+                () -> assertThat(itemService.decreaseQuantity(itemId, 5)).isTrue());
+
+        //IN 목록은 256개씩 나눈다 - 300개면 select 두 번
+        List<Long> ids = new ArrayList<>(List.of(itemId));
+        for (long missing = 1; missing < 300; missing++) {
+            ids.add(-missing);
+        }
+        capture(c -> c.assertExactly(SqlType.SELECT, 2 * n),
+                () -> assertThat(itemService.findAllByIds(ids)).containsOnlyKeys(itemId));
+
+        capture(c -> c.assertExactly(SqlType.SELECT, n),
+                () -> assertThat(itemService.findItems(new ItemSearchCond("itemB", 20000))).hasSize(1));
+
+        capture(c -> c.assertExactly(SqlType.SELECT, n),
+                () -> assertThat(itemService.findItemSummaries(new ItemSearchCond(null, null))).isNotEmpty());
+    }
+
+    /**
+     * SimpleJdbcInsert 는 처음 insert 할 때 테이블 메타데이터를 조회하고, 이후에는 재사용한다
+     */
+    @Test
+    void simpleJdbcInsertMetadataOnlyOnce() {
+        ItemRepository itemRepository = new JdbcTemplateItemRepositoryV3(dataSource);
+
+        try (SqlCapture cold = SqlCapture.start()) {
+            itemRepository.save(new Item("cold", 10000, 10));
+            cold.assertExactly(SqlType.INSERT, 1);
+            assertThat(cold.count(SqlType.METADATA)).isPositive();
+        }
+
+        try (SqlCapture warm = SqlCapture.start()) {
+            itemRepository.save(new Item("warm", 10000, 10));
+            warm.assertExactly(SqlType.INSERT, 1)
+                    .assertExactly(SqlType.METADATA, 0);
+        }
+    }
+
+    /**
+     * 시작 시 warm-up 으로 미리 컴파일하면 첫 insert 에도 메타데이터 조회가 없다
+     */
+    @Test
+    void simpleJdbcInsertWarmedUp() {
+        JdbcTemplateItemRepositoryV3 itemRepository = new JdbcTemplateItemRepositoryV3(dataSource);
+        itemRepository.warmup();
+
+        try (SqlCapture first = SqlCapture.start()) {
+            itemRepository.save(new Item("first", 10000, 10));
+            first.assertExactly(SqlType.INSERT, 1)
+                    .assertExactly(SqlType.METADATA, 0);
+        }
+    }
+
+    private void capture(Consumer<SqlCapture> verify, Runnable action) {
+        try (SqlCapture capture = SqlCapture.start()) {
+            action.run();
+            entityManager.flush();
+            entityManager.clear();
+            verify.accept(capture);
+            assertThat(capture.total()).as("unexpected statements %s", capture.counts())
+                    .isEqualTo(capture.count(SqlType.SELECT) + capture.count(SqlType.INSERT) + capture.count(SqlType.UPDATE));
+        }
+    }
+
+    private ItemService itemService(Backend backend) {
+        switch (backend) {
+            case MEMORY:
+                return new MemoryConfig().itemService();
+            case COLUMNAR:
+                return new ColumnarConfig().itemService();
+            case JDBC_TEMPLATE_V1:
+                return new JdbcTemplateV1Config(dataSource, idAllocator).itemService();
+            case JDBC_TEMPLATE_V2:
+                return new JdbcTemplateV2Config(dataSource, idAllocator).itemService();
+            case JDBC_TEMPLATE_V3:
+                return new JdbcTemplateV3Config(dataSource, idAllocator).itemService();
+            case MYBATIS:
+                return new MybatisConfig(itemMapper, idAllocator, sqlSessionFactory, new MybatisExecutorProperties()).itemService();
+            case JPA:
+                return new JpaConfig(entityManager).itemService();
+            case SPRING_DATA_JPA:
+                return new SpringDataJpaConfig(springDataJpaItemRepository).itemService();
+            case QUERYDSL:
+                return new QuerydslConfig(entityManager).itemService();
+            case V2:
+                return new V2Config(entityManager, itemRepositoryV2).itemService();
+            default:
+                throw new IllegalArgumentException(backend.name());
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package hello.itemservice.repository.columnar;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ColumnarItemRepositoryTest {
+
+    ColumnarItemRepository repository = new ColumnarItemRepository();
+
+    @Test
+    void saveAndFind() {
+        Item itemA = repository.save(new Item("itemA", 10000, 10));
+        Item itemB = repository.save(new Item(null, null, null));
+
+        assertThat(itemA.getId()).isEqualTo(1L);
+        assertThat(repository.findById(itemA.getId())).get().isEqualTo(itemA);
+        assertThat(repository.findById(itemB.getId())).get().isEqualTo(itemB);
+        assertThat(repository.findById(3L)).isEmpty();
+        assertThat(repository.findById(0L)).isEmpty();
+
+        //돌려받은 Item 을 바꿔도 저장소는 그대로다
+        repository.findById(itemA.getId()).get().setPrice(1);
+        assertThat(repository.findById(itemA.getId())).get().extracting(Item::getPrice).isEqualTo(10000);
+    }
+
+    @Test
+    void findAllByNameAndPrice() {
+        repository.saveAll(List.of(
+                new Item("itemA-1", 10000, 10),
+                new Item("itemA-2", 20000, 20),
+                new Item("itemB-1", 30000, 30),
+                new Item("itemA-1", null, 40),
+                new Item(null, 5000, 50)));
+
+        assertThat(repository.findAll(new ItemSearchCond())).hasSize(5);
+        assertThat(repository.findAll(new ItemSearchCond("itemA", null)))
+                .extracting(Item::getId).containsExactly(1L, 2L, 4L);
+        assertThat(repository.findAll(new ItemSearchCond(null, 20000)))
+                .extracting(Item::getId).containsExactly(1L, 2L, 5L);
+        assertThat(repository.findSummaries(new ItemSearchCond("itemA", 10000)))
+                .extracting("id", "itemName", "price", "quantity")
+                .containsExactly(tuple(1L, "itemA-1", 10000, 10));
+    }
+
+    @Test
+    void update() {
+        Item item = repository.save(new Item("itemA", 10000, 10));
+
+        repository.update(item.getId(), new ItemUpdateDto("itemB", 20000, 30));
+
+        assertThat(repository.findById(item.getId())).get()
+                .extracting(Item::getItemName, Item::getPrice, Item::getQuantity)
+                .containsExactly("itemB", 20000, 30);
+        assertThatThrownBy(() -> repository.update(99L, new ItemUpdateDto("itemC", 1, 1)))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    /**
+     * 세그먼트 경계를 넘어 저장해도 id 순서대로 조회된다
+     */
+    @Test
+    void manySegments() {
+        int count = IntColumn.SEGMENT_SIZE * 2 + 10;
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new Item("item" + (i % 100), i, i % 7));
+        }
+        repository.saveAll(items);
+
+        List<Item> found = repository.findAll(new ItemSearchCond("item42", null));
+        assertThat(found).hasSize((count - 42 + 99) / 100);
+        assertThat(found).extracting(Item::getId).isSorted();
+        assertThat(repository.findById((long) count)).get().extracting(Item::getPrice).isEqualTo(count - 1);
+    }
+
+    /**
+     * 여러 스레드가 동시에 차감해도 재고를 넘겨서 차감하지 않는다
+     */
+    @Test
+    void concurrentDecrease() throws Exception {
+        Item item = repository.save(new Item("itemA", 10000, 1000));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(executor.submit(() -> {
+                int success = 0;
+                for (int i = 0; i < 200; i++) {
+                    if (repository.decreaseQuantity(item.getId(), 1)) {
+                        success++;
+                    }
+                }
+                return success;
+            }));
+        }
+        int success = 0;
+        for (Future<Integer> result : results) {
+            success += result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(success).isEqualTo(1000);
+        assertThat(repository.findById(item.getId())).get().extracting(Item::getQuantity).isEqualTo(0);
+    }
+
+}
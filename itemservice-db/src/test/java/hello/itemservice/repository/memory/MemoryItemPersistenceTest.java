@@ -0,0 +1,131 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MemoryItemPersistenceTest {
+
+    //저장소가 static 이므로 복구 전에 로그 없이 비운다
+    MemoryItemRepository plain = new MemoryItemRepository();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void beforeEach() {
+        plain.clearStore();
+    }
+
+    @AfterEach
+    void afterEach() {
+        plain.clearStore();
+    }
+
+    /**
+     * 스냅샷 없이 죽어도 로그만으로 복구한다
+     */
+    @Test
+    void recoverFromLog() throws IOException {
+        MemoryItemPersistence crashed = persistence();
+        MemoryItemRepository repository = new MemoryItemRepository(crashed);
+        crashed.recover(repository);
+
+        Item itemA = repository.save(new Item("itemA", 10000, 10));
+        Item itemB = repository.save(new Item("itemB", 20000, null));
+        repository.update(itemA.getId(), new ItemUpdateDto("itemA2", 11000, 11));
+        assertThat(repository.decreaseQuantity(itemA.getId(), 5)).isTrue();
+
+        //close 하지 않고(스냅샷 없이) 메모리만 잃어버린다
+        plain.clearStore();
+
+        MemoryItemRepository recovered = recover();
+        assertThat(recovered.findAll(new ItemSearchCond()))
+                .extracting(Item::getId, Item::getItemName, Item::getPrice, Item::getQuantity)
+                .containsExactlyInAnyOrder(
+                        tuple(itemA.getId(), "itemA2", 11000, 6),
+                        tuple(itemB.getId(), "itemB", 20000, null));
+        //id 는 복구한 최대 id 다음부터 발급한다
+        assertThat(recovered.save(new Item("itemC", 30000, 30)).getId()).isGreaterThan(itemB.getId());
+    }
+
+    /**
+     * 스냅샷 이후의 변경은 로그로 적용하고, 스냅샷 이전 로그는 지운다
+     */
+    @Test
+    void recoverFromSnapshotAndLog() throws IOException {
+        MemoryItemPersistence persistence = persistence();
+        MemoryItemRepository repository = new MemoryItemRepository(persistence);
+        persistence.recover(repository);
+
+        Item first = repository.save(new Item("item0", 0, 0));
+        for (int i = 1; i < 1000; i++) {
+            repository.save(new Item("item" + i, i, i));
+        }
+        assertThat(persistence.snapshot()).isTrue();
+        assertThat(persistence.snapshot()).as("변경이 없으면 쓰지 않는다").isFalse();
+
+        repository.update(first.getId(), new ItemUpdateDto("updated", 1, 1));
+        Item last = repository.save(new Item("last", 1, 1));
+        assertThat(files("snapshot")).hasSize(1);
+        assertThat(files("wal")).hasSize(1);
+
+        plain.clearStore();
+
+        MemoryItemRepository recovered = recover();
+        assertThat(recovered.findAll(new ItemSearchCond())).hasSize(1001);
+        assertThat(recovered.findById(first.getId())).get().extracting(Item::getItemName).isEqualTo("updated");
+        assertThat(recovered.findById(last.getId())).isPresent();
+    }
+
+    /**
+     * 정상 종료하면 스냅샷을 남기고, 다음 시작은 로그 없이 스냅샷만 읽는다
+     */
+    @Test
+    void snapshotOnClose() throws IOException {
+        MemoryItemPersistence persistence = persistence();
+        MemoryItemRepository repository = new MemoryItemRepository(persistence);
+        persistence.recover(repository);
+        repository.save(new Item("itemA", 10000, 10));
+        persistence.close();
+
+        plain.clearStore();
+
+        MemoryItemRepository recovered = recover();
+        assertThat(recovered.findAll(new ItemSearchCond())).extracting(Item::getItemName).containsExactly("itemA");
+        assertThat(Files.size(files("wal").get(0))).isZero();
+    }
+
+    private MemoryItemPersistence persistence() {
+        return new MemoryItemPersistence(directory, 4096, false, Duration.ZERO);
+    }
+
+    private MemoryItemRepository recover() {
+        MemoryItemPersistence persistence = persistence();
+        MemoryItemRepository repository = new MemoryItemRepository(persistence);
+        persistence.recover(repository);
+        return repository;
+    }
+
+    private List<Path> files(String extension) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith("." + extension)).sorted().collect(Collectors.toList());
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryItemRepositoryTest {
+
+    MemoryItemRepository repository = new MemoryItemRepository();
+
+    @AfterEach
+    void afterEach() {
+        repository.clearStore();
+    }
+
+    /**
+     * 병렬 스캔 결과도 순차 스캔과 같고 id 순서다
+     */
+    @Test
+    void parallelScanInIdOrder() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < MemoryItemRepository.PARALLEL_THRESHOLD * 3; i++) {
+            items.add(new Item("item" + (i % 10), i % 1000, i));
+        }
+        repository.saveAll(items);
+
+        List<Item> found = repository.findAll(new ItemSearchCond("item3", 500));
+
+        List<Item> expected = items.stream()
+                .filter(item -> item.getItemName().contains("item3") && item.getPrice() <= 500)
+                .collect(Collectors.toList());
+        assertThat(found).containsExactlyElementsOf(expected);
+        assertThat(repository.findSummaries(new ItemSearchCond()))
+                .hasSize(items.size())
+                .extracting("id").isSorted();
+    }
+
+    @Test
+    void sequentialScanBelowThreshold() {
+        Item itemA = repository.save(new Item("itemA", 10000, 10));
+        Item itemB = repository.save(new Item("itemB", 20000, 20));
+        repository.save(new Item("other", 30000, 30));
+
+        assertThat(repository.findAll(new ItemSearchCond("item", null))).containsExactly(itemA, itemB);
+    }
+
+    /**
+     * 조회한 Item 은 복사본이다 - 바꿔도 저장소가 바뀌지 않고, 저장소가 바뀌어도 그대로다
+     */
+    @Test
+    void returnedItemsAreCopies() {
+        Item item = repository.save(new Item("itemA", 10000, 10));
+        Item found = repository.findById(item.getId()).get();
+
+        found.setPrice(1);
+        repository.update(item.getId(), new ItemUpdateDto("itemB", 20000, 20));
+
+        assertThat(found.getItemName()).isEqualTo("itemA");
+        assertThat(item.getItemName()).isEqualTo("itemA");
+        assertThat(repository.findById(item.getId())).get()
+                .extracting(Item::getItemName, Item::getPrice).containsExactly("itemB", 20000);
+    }
+
+    /**
+     * 쓰기가 계속되는 동안에도 스캔은 한 시점의 결과를 본다
+     * - saveAll 로 저장한 100 개는 모두 보이거나 모두 보이지 않는다
+     * - 이름과 가격을 함께 바꾼 상품은 항상 짝이 맞다
+     * - 쓰기는 최대 200 번(2만 개)까지만 하고 스캔이 끝나면 멈춘다. 저장소가 계속 커지면 스캔도 계속 느려진다
+     */
+    @Test
+    void snapshotConsistentScanDuringWrites() throws Exception {
+        List<Item> initial = new ArrayList<>();
+        for (int i = 0; i < MemoryItemRepository.PARALLEL_THRESHOLD; i++) {
+            initial.add(new Item("base", i, i));
+        }
+        repository.saveAll(initial);
+        Item counter = repository.save(new Item("v0", 0, 0));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (int n = 1; n <= 200 && running.get(); n++) {
+                repository.update(counter.getId(), new ItemUpdateDto("v" + n, n, n));
+                List<Item> batch = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    batch.add(new Item("batch" + n, i, i));
+                }
+                repository.saveAll(batch);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 20; i++) {
+                List<Item> items = repository.findAll(new ItemSearchCond());
+                Map<String, Long> batchSizes = items.stream()
+                        .filter(item -> item.getItemName().startsWith("batch"))
+                        .collect(Collectors.groupingBy(Item::getItemName, Collectors.counting()));
+                assertThat(batchSizes.values()).allMatch(size -> size == 100);
+
+                Item seen = items.stream().filter(item -> item.getId().equals(counter.getId())).findFirst().get();
+                assertThat(seen.getItemName()).isEqualTo("v" + seen.getPrice());
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+}
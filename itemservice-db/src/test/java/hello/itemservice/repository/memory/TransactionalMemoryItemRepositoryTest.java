@@ -0,0 +1,110 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class TransactionalMemoryItemRepositoryTest {
+
+    MemoryItemRepository committed = new MemoryItemRepository();
+    TransactionalMemoryItemRepository repository = new TransactionalMemoryItemRepository(committed);
+    DataSourceTransactionManager transactionManager =
+            new DataSourceTransactionManager(new DriverManagerDataSource("jdbc:h2:mem:memorytx;DB_CLOSE_DELAY=-1", "sa", ""));
+    TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+
+    @AfterEach
+    void afterEach() {
+        committed.clearStore();
+    }
+
+    @Test
+    void rollbackDiscardsWrites() {
+        Item existing = repository.save(new Item("itemA", 10000, 10));
+
+        txTemplate.executeWithoutResult(status -> {
+            Item item = repository.save(new Item("itemB", 20000, 20));
+            repository.update(existing.getId(), new ItemUpdateDto("itemA2", 11000, 11));
+            assertThat(repository.decreaseQuantity(existing.getId(), 11)).isTrue();
+
+            //자기 쓰기는 보인다
+            assertThat(repository.findById(item.getId())).isPresent();
+            assertThat(repository.findAll(new ItemSearchCond("item", null)))
+                    .extracting(Item::getItemName, Item::getQuantity)
+                    .containsExactly(tuple("itemA2", 0), tuple("itemB", 20));
+            status.setRollbackOnly();
+        });
+
+        assertThat(repository.findAll(new ItemSearchCond())).containsExactly(existing);
+    }
+
+    @Test
+    void commitAppliesAllWrites() {
+        Item existing = repository.save(new Item("itemA", 10000, 10));
+
+        Item saved = txTemplate.execute(status -> {
+            Item item = repository.save(new Item("itemB", 20000, 20));
+            repository.decreaseQuantity(existing.getId(), 3);
+            repository.decreaseQuantity(existing.getId(), 2);
+
+            //커밋 전에는 다른 스레드에서 보이지 않는다
+            assertThat(CompletableFuture.supplyAsync(() -> repository.findById(item.getId())).join()).isEmpty();
+            assertThat(CompletableFuture.supplyAsync(() -> repository.findById(existing.getId())).join())
+                    .get().extracting(Item::getQuantity).isEqualTo(10);
+            return item;
+        });
+
+        assertThat(repository.findById(saved.getId())).isPresent();
+        assertThat(repository.findById(existing.getId())).get().extracting(Item::getQuantity).isEqualTo(5);
+    }
+
+    /**
+     * 커밋 시점에 재고가 부족하면 트랜잭션 전체가 롤백된다
+     */
+    @Test
+    void decreaseRecheckedAtCommit() {
+        Item item = repository.save(new Item("itemA", 10000, 10));
+
+        assertThatThrownBy(() -> txTemplate.executeWithoutResult(status -> {
+            repository.save(new Item("itemB", 20000, 20));
+            assertThat(repository.decreaseQuantity(item.getId(), 8)).isTrue();
+            //트랜잭션 밖에서 먼저 차감된다
+            assertThat(CompletableFuture.supplyAsync(() -> repository.decreaseQuantity(item.getId(), 5)).join()).isTrue();
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(repository.findById(item.getId())).get().extracting(Item::getQuantity).isEqualTo(5);
+        assertThat(repository.findAll(new ItemSearchCond("itemB", null))).isEmpty();
+    }
+
+    @Test
+    void requiresNewDoesNotSeeOuterWrites() {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        txTemplate.executeWithoutResult(status -> {
+            Item outer = repository.save(new Item("outer", 10000, 10));
+            Item inner = requiresNew.execute(innerStatus -> {
+                assertThat(repository.findById(outer.getId())).isEmpty();
+                return repository.save(new Item("inner", 20000, 20));
+            });
+            //안쪽 트랜잭션은 먼저 커밋됐다
+            assertThat(CompletableFuture.supplyAsync(() -> repository.findById(inner.getId())).join()).isPresent();
+            assertThat(repository.findById(outer.getId())).isPresent();
+        });
+
+        assertThat(repository.findAll(new ItemSearchCond())).extracting(Item::getItemName).containsExactly("outer", "inner");
+    }
+
+}
@@ -0,0 +1,112 @@
+package hello.itemservice.repository.mybatis;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.profiler.SqlCapture;
+import hello.itemservice.profiler.SqlType;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * REUSE 조회 + BATCH 쓰기
+ * - saveAll 은 insert 를 executeBatch 한 번으로 실행하고 생성된 키를 채운다
+ * - BATCH 에 쌓인 update 는 같은 트랜잭션의 조회 전에 실행된다
+ * - 실행기마다 세션(1차 캐시)이 달라도, 같은 조회를 반복하면 쓰기 결과를 본다
+ */
+@SpringBootTest
+@Transactional
+class MyBatisItemRepositoryExecutorTest {
+
+    @Autowired
+    ItemMapper itemMapper;
+
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+
+    @Test
+    void batchSaveAllFillsGeneratedKeys() {
+        MyBatisItemRepository repository = repository();
+        List<Item> items = List.of(new Item("itemA", 10000, 10), new Item("itemB", 20000, 20), new Item("itemC", 30000, 30));
+
+        try (SqlCapture capture = SqlCapture.start()) {
+            repository.saveAll(items);
+            capture.assertExactly(SqlType.INSERT, 1);
+        }
+
+        assertThat(items).extracting(Item::getId).doesNotContainNull().doesNotHaveDuplicates();
+        for (Item item : items) {
+            assertThat(repository.findById(item.getId())).hasValueSatisfying(
+                    found -> assertThat(found.getItemName()).isEqualTo(item.getItemName()));
+        }
+    }
+
+    @Test
+    void readsSeeQueuedWrites() {
+        MyBatisItemRepository repository = repository();
+        Item item = repository.save(new Item("itemA", 10000, 10));
+
+        try (SqlCapture capture = SqlCapture.start()) {
+            repository.update(item.getId(), new ItemUpdateDto("itemB", 20000, 20));
+            capture.assertExactly(SqlType.UPDATE, 0);
+        }
+
+        assertThat(repository.findAll(new ItemSearchCond("itemB", null)))
+                .extracting(Item::getId).containsExactly(item.getId());
+        assertThat(repository.decreaseQuantity(item.getId(), 5)).isTrue();
+        assertThat(repository.findById(item.getId())).hasValueSatisfying(
+                found -> assertThat(found.getQuantity()).isEqualTo(15));
+    }
+
+    /**
+     * 미룬 update 가 0 건이면 실행할 때(다음 조회 전이나 커밋 직전) NoSuchElementException
+     */
+    @Test
+    void deferredUpdateOfMissingItemFailsOnFlush() {
+        MyBatisItemRepository repository = repository();
+        Item item = repository.save(new Item("itemA", 10000, 10));
+
+        repository.update(-1L, new ItemUpdateDto("itemB", 20000, 20));
+
+        assertThatThrownBy(() -> repository.findById(item.getId())).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"REUSE, true", "SIMPLE, true", "REUSE, false"})
+    void repeatedReadsSeeWrites(ExecutorType readExecutor, boolean batchWrites) {
+        MyBatisItemRepository repository = repository(readExecutor, batchWrites);
+        Item item = repository.save(new Item("itemA", 10000, 10));
+        Long itemId = item.getId();
+
+        assertThat(repository.findById(itemId)).hasValueSatisfying(found -> assertThat(found.getItemName()).isEqualTo("itemA"));
+        repository.update(itemId, new ItemUpdateDto("itemB", 20000, 20));
+        assertThat(repository.findById(itemId)).hasValueSatisfying(found -> {
+            assertThat(found.getItemName()).isEqualTo("itemB");
+            assertThat(found.getQuantity()).isEqualTo(20);
+        });
+
+        assertThat(repository.decreaseQuantity(itemId, 5)).isTrue();
+        assertThat(repository.findById(itemId)).hasValueSatisfying(found -> assertThat(found.getQuantity()).isEqualTo(15));
+    }
+
+    private MyBatisItemRepository repository() {
+        return repository(ExecutorType.REUSE, true);
+    }
+
+    private MyBatisItemRepository repository(ExecutorType readExecutor, boolean batchWrites) {
+        return new MyBatisItemRepository(itemMapper, null, new ItemMapperExecutors(sqlSessionFactory, readExecutor, batchWrites));
+    }
+
+}
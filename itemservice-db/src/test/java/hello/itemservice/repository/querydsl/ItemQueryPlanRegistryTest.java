@@ -0,0 +1,86 @@
+package hello.itemservice.repository.querydsl;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static hello.itemservice.domain.QItem.item;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class ItemQueryPlanRegistryTest {
+
+    @Autowired
+    EntityManager entityManager;
+
+    /**
+     * 검색 값이 쿼리 문자열에 들어가면 값마다 다른 JPQL 이 되어 쿼리 플랜 캐시를 재사용할 수 없다
+     */
+    @Test
+    void noLiteralInQueryString() {
+        ItemQueryPlanRegistry registry = new ItemQueryPlanRegistry(entityManager);
+
+        assertNoLiteral(registry, new ItemSearchCond(null, null));
+        assertNoLiteral(registry, new ItemSearchCond("leakName", null));
+        assertNoLiteral(registry, new ItemSearchCond(null, 987654));
+        assertNoLiteral(registry, new ItemSearchCond("leakName", 987654));
+    }
+
+    @Test
+    void sameShapeSameQuery() {
+        ItemQueryPlanRegistry registry = new ItemQueryPlanRegistry(entityManager);
+
+        String query1 = registry.query(item, new ItemSearchCond("itemA", 10000)).toString();
+        String query2 = registry.query(item, new ItemSearchCond("itemB", 20000)).toString();
+
+        assertThat(query1).isEqualTo(query2);
+        assertThat(registry.getMissCount()).isEqualTo(1);
+        assertThat(registry.getHitCount()).isEqualTo(1);
+    }
+
+    /**
+     * 워밍업은 적중/생성 횟수에 들어가지 않고, 이후 요청은 워밍업에서 만든 쿼리에 적중한다
+     */
+    @Test
+    void warmupNotCounted() {
+        ItemQueryPlanRegistry registry = new ItemQueryPlanRegistry(entityManager);
+
+        registry.warmup();
+
+        assertThat(registry.getPlanCount()).isEqualTo(8);
+        assertThat(registry.getMissCount()).isZero();
+        assertThat(registry.getHitCount()).isZero();
+
+        registry.findItems(new ItemSearchCond("itemA", null));
+
+        assertThat(registry.getMissCount()).isZero();
+        assertThat(registry.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findItems() {
+        Item itemA = new Item("itemA", 10000, 10);
+        Item itemB = new Item("itemB", 20000, 20);
+        entityManager.persist(itemA);
+        entityManager.persist(itemB);
+        ItemQueryPlanRegistry registry = new ItemQueryPlanRegistry(entityManager);
+
+        assertThat(registry.findItems(new ItemSearchCond("temA", null))).containsExactly(itemA);
+        assertThat(registry.findItems(new ItemSearchCond(null, 15000))).containsExactly(itemA);
+        assertThat(registry.findItems(new ItemSearchCond("item", 20000))).containsExactly(itemA, itemB);
+        assertThat(registry.findSummaries(new ItemSearchCond("itemB", null)))
+                .extracting("id").containsExactly(itemB.getId());
+    }
+
+    private void assertNoLiteral(ItemQueryPlanRegistry registry, ItemSearchCond cond) {
+        String jpql = registry.query(item, cond).toString();
+        assertThat(jpql).doesNotContain("leakName").doesNotContain("987654");
+    }
+
+}
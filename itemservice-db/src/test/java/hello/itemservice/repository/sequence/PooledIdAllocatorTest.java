@@ -0,0 +1,111 @@
+package hello.itemservice.repository.sequence;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV1;
+import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV2;
+import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV3;
+import hello.itemservice.repository.mybatis.ItemMapper;
+import hello.itemservice.repository.mybatis.MyBatisItemRepository;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PooledIdAllocatorTest {
+
+    DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:idallocator;DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate template = new JdbcTemplate(dataSource);
+
+    @BeforeEach
+    void beforeEach() {
+        template.execute("drop table if exists item");
+        template.execute("drop sequence if exists item_seq");
+        template.execute("create table item (id bigint generated by default as identity, " +
+                "item_name varchar(10), price integer, quantity integer, primary key (id))");
+        template.execute("create sequence item_seq start with 1 increment by 50");
+    }
+
+    /**
+     * 16 개 스레드가 동시에 발급해도 id 가 겹치거나 비지 않고, 시퀀스는 50 개에 한 번만 읽는다
+     */
+    @Test
+    void concurrentAllocation() throws Exception {
+        PooledIdAllocator allocator = new PooledIdAllocator(dataSource, "item_seq", 50);
+        int threads = 16;
+        int perThread = 5_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<long[]>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            tasks.add(() -> {
+                long[] ids = new long[perThread];
+                for (int j = 0; j < perThread; j++) {
+                    ids[j] = allocator.next();
+                }
+                return ids;
+            });
+        }
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        for (Future<long[]> result : executor.invokeAll(tasks)) {
+            for (long id : result.get()) {
+                ids.add(id);
+            }
+        }
+        executor.shutdown();
+
+        int total = threads * perThread;
+        assertThat(ids).hasSize(total);
+        assertThat(ids.stream().mapToLong(Long::longValue).min().getAsLong()).isEqualTo(1);
+        assertThat(ids.stream().mapToLong(Long::longValue).max().getAsLong()).isEqualTo(total);
+        assertThat(allocator.getSequenceCalls()).isEqualTo(total / 50);
+    }
+
+    @Test
+    void repositoriesUseAllocator() {
+        PooledIdAllocator allocator = new PooledIdAllocator(dataSource, "item_seq", 50);
+        List<ItemRepository> repositories = List.of(
+                new JdbcTemplateItemRepositoryV1(dataSource, allocator),
+                new JdbcTemplateItemRepositoryV2(dataSource, allocator),
+                new JdbcTemplateItemRepositoryV3(dataSource, allocator),
+                new MyBatisItemRepository(itemMapper(), allocator));
+
+        long expectedId = 1;
+        for (ItemRepository repository : repositories) {
+            Item saved = repository.save(new Item("item", 10000, 10));
+            List<Item> savedAll = repository.saveAll(List.of(new Item("itemA", null, null), new Item("itemB", 20000, 20)));
+
+            assertThat(saved.getId()).isEqualTo(expectedId);
+            assertThat(savedAll).extracting(Item::getId).containsExactly(expectedId + 1, expectedId + 2);
+            assertThat(repository.findById(savedAll.get(1).getId())).get().extracting(Item::getItemName).isEqualTo("itemB");
+            assertThat(repository.findById(savedAll.get(0).getId())).get().extracting(Item::getPrice).isNull();
+            expectedId += 3;
+        }
+        assertThat(template.queryForObject("select count(*) from item", Integer.class)).isEqualTo(12);
+        assertThat(allocator.getSequenceCalls()).isEqualTo(1);
+    }
+
+    //스프링 컨텍스트 없이 같은 DataSource 로 ItemMapper 를 만든다 - ItemMapper.xml 은 인터페이스와 같은 경로에서 읽는다
+    private ItemMapper itemMapper() {
+        Configuration configuration = new Configuration(
+                new Environment("idallocator", new SpringManagedTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.getTypeAliasRegistry().registerAliases("hello.itemservice.domain");
+        configuration.addMapper(ItemMapper.class);
+        return new SqlSessionTemplate(new SqlSessionFactoryBuilder().build(configuration)).getMapper(ItemMapper.class);
+    }
+
+}
@@ -0,0 +1,198 @@
+package hello.itemservice.repository.tiered;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV3;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredItemRepositoryTest {
+
+    DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:tiered;DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate template = new JdbcTemplate(dataSource);
+    TransactionTemplate txTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    ItemRepository db = new JdbcTemplateItemRepositoryV3(dataSource);
+
+    @BeforeEach
+    void beforeEach() {
+        template.execute("drop table if exists item");
+        template.execute("create table item (id bigint generated by default as identity, " +
+                "item_name varchar(10), price integer, quantity integer, primary key (id))");
+    }
+
+    @Test
+    void readThroughAndInvalidateAfterCommit() {
+        TieredItemRepository repository = new TieredItemRepository(db, 10);
+        Item item = db.save(new Item("itemA", 10000, 10));
+
+        assertThat(repository.findById(item.getId())).get().isEqualTo(item);
+        assertThat(repository.findById(item.getId())).get().isEqualTo(item);
+        assertThat(repository.getTier().getMisses()).isEqualTo(1);
+        assertThat(repository.getTier().getHits()).isEqualTo(1);
+
+        txTemplate.executeWithoutResult(status -> {
+            repository.update(item.getId(), new ItemUpdateDto("itemB", 20000, 20));
+            //자기 쓰기는 DB 에서 읽는다
+            assertThat(repository.findById(item.getId())).get().extracting(Item::getItemName).isEqualTo("itemB");
+        });
+        assertThat(repository.getTier().size()).isZero();
+        assertThat(repository.findById(item.getId())).get().extracting(Item::getItemName).isEqualTo("itemB");
+        assertThat(repository.getTier().size()).isEqualTo(1);
+
+        assertThat(repository.decreaseQuantity(item.getId(), 5)).isTrue();
+        assertThat(repository.findById(item.getId())).get().extracting(Item::getQuantity).isEqualTo(15);
+    }
+
+    @Test
+    void rollbackKeepsTier() {
+        TieredItemRepository repository = new TieredItemRepository(db, 10);
+        Item item = repository.save(new Item("itemA", 10000, 10));
+
+        txTemplate.executeWithoutResult(status -> {
+            repository.update(item.getId(), new ItemUpdateDto("itemB", 20000, 20));
+            status.setRollbackOnly();
+        });
+
+        assertThat(repository.findById(item.getId())).get().extracting(Item::getItemName).isEqualTo("itemA");
+    }
+
+    @Test
+    void evictsColdItems() {
+        TieredItemRepository repository = new TieredItemRepository(db, 10);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            items.add(db.save(new Item("item" + i, i, i)));
+        }
+
+        for (int round = 0; round < 3; round++) {
+            //자주 읽는 상품
+            repository.findById(items.get(0).getId());
+            for (Item item : items) {
+                repository.findById(item.getId());
+            }
+        }
+
+        assertThat(repository.getTier().size()).isLessThanOrEqualTo(10);
+        assertThat(repository.getTier().getEvictions()).isPositive();
+    }
+
+    /**
+     * 읽기와 쓰기가 동시에 일어나도 끝난 뒤 메모리 계층의 값은 DB 와 같다
+     * - DB 조회를 느리게 해서 읽는 도중에 쓰기가 끼어드는 경우를 자주 만든다
+     */
+    @Test
+    void tierMatchesDatabaseUnderConcurrency() throws Exception {
+        TieredItemRepository repository = new TieredItemRepository(new SlowReads(db), 5);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ids.add(db.save(new Item("item" + i, 0, 1_000_000)).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int writer = t;
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 200; i++) {
+                    Long id = ids.get(random.nextInt(ids.size()));
+                    if (writer % 2 == 0) {
+                        repository.findById(id);
+                    } else if (random.nextBoolean()) {
+                        int price = random.nextInt(100_000);
+                        txTemplate.executeWithoutResult(status -> repository.update(id, new ItemUpdateDto("item", price, 1_000_000)));
+                    } else {
+                        txTemplate.executeWithoutResult(status -> repository.decreaseQuantity(id, 1));
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        for (Long id : ids) {
+            Item cached = repository.getTier().get(id);
+            if (cached != null) {
+                assertThat(cached).isEqualTo(db.findById(id).get());
+            }
+        }
+    }
+
+    /**
+     * 조회를 무작위로 늦추는 DB 계층
+     */
+    static class SlowReads implements ItemRepository {
+
+        private final ItemRepository target;
+
+        SlowReads(ItemRepository target) {
+            this.target = target;
+        }
+
+        @Override
+        public Item save(Item item) {
+            return target.save(item);
+        }
+
+        @Override
+        public List<Item> saveAll(List<Item> items) {
+            return target.saveAll(items);
+        }
+
+        @Override
+        public void update(Long itemId, ItemUpdateDto updateParam) {
+            target.update(itemId, updateParam);
+        }
+
+        @Override
+        public boolean decreaseQuantity(Long itemId, int amount) {
+            return target.decreaseQuantity(itemId, amount);
+        }
+
+        @Override
+        public Optional<Item> findById(Long id) {
+            Optional<Item> item = target.findById(id);
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(200_000));
+            return item;
+        }
+
+        @Override
+        public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+            Map<Long, Item> items = target.findAllByIds(ids);
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(200_000));
+            return items;
+        }
+
+        @Override
+        public List<Item> findAll(ItemSearchCond cond) {
+            return target.findAll(cond);
+        }
+
+        @Override
+        public List<ItemSummary> findSummaries(ItemSearchCond cond) {
+            return target.findSummaries(cond);
+        }
+
+    }
+
+}
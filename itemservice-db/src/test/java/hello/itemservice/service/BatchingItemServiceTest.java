@@ -0,0 +1,198 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchingItemServiceTest {
+
+    MemoryItemRepository itemRepository = new MemoryItemRepository();
+    CountingItemService counting = new CountingItemService(new ItemServiceV1(itemRepository));
+    ItemLoaderStats stats = new ItemLoaderStats();
+    BatchingItemService service = new BatchingItemService(counting, stats);
+    MockHttpServletRequest request = new MockHttpServletRequest();
+
+    Item itemA;
+    Item itemB;
+    Item itemC;
+
+    @BeforeEach
+    void beforeEach() {
+        itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        itemB = itemRepository.save(new Item("itemB", 20000, 20));
+        itemC = itemRepository.save(new Item("itemC", 30000, 30));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void afterEach() {
+        RequestContextHolder.resetRequestAttributes();
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void deferredLoadsBatchedIntoOneQuery() {
+        //여러 컴포넌트가 미리 요청해 둔다
+        CompletableFuture<Optional<Item>> a = service.load(itemA.getId());
+        CompletableFuture<Optional<Item>> b = service.load(itemB.getId());
+        CompletableFuture<Optional<Item>> missing = service.load(-1L);
+        assertThat(a).isNotDone();
+
+        //값이 처음 필요한 시점에 대기열과 함께 한 번에 조회한다
+        assertThat(service.findById(itemC.getId())).contains(itemC);
+
+        assertThat(counting.findAllByIds).containsExactly(4);
+        assertThat(counting.findById).isZero();
+        assertThat(a.join()).contains(itemA);
+        assertThat(b.join()).contains(itemB);
+        assertThat(missing.join()).isEmpty();
+        assertThat(stats.getBatches()).isEqualTo(1);
+        assertThat(stats.getMaxBatchSize()).isEqualTo(4);
+    }
+
+    @Test
+    void identityCache() {
+        service.findById(itemA.getId()).get().setItemName("changed");
+
+        assertThat(service.findById(itemA.getId()).get().getItemName()).isEqualTo("itemA");
+        assertThat(service.findById(-1L)).isEmpty();
+        assertThat(service.findById(-1L)).isEmpty();
+        assertThat(counting.findById).isEqualTo(2);
+        assertThat(stats.getCacheHits()).isEqualTo(2);
+    }
+
+    @Test
+    void findAllByIdsLoadsOnlyMisses() {
+        service.findById(itemA.getId());
+
+        Map<Long, Item> items = service.findAllByIds(List.of(itemC.getId(), itemA.getId(), itemB.getId()));
+
+        assertThat(items.keySet()).containsExactly(itemC.getId(), itemA.getId(), itemB.getId());
+        assertThat(counting.findAllByIds).containsExactly(2);
+    }
+
+    @Test
+    void searchResultsAreReused() {
+        service.findItems(new ItemSearchCond("item", null));
+
+        assertThat(service.findById(itemB.getId())).contains(itemB);
+        assertThat(counting.findById).isZero();
+        assertThat(counting.findAllByIds).isEmpty();
+    }
+
+    @Test
+    void writeEvicts() {
+        service.findById(itemA.getId());
+        service.update(itemA.getId(), new ItemUpdateDto("itemA2", 10000, 10));
+
+        assertThat(service.findById(itemA.getId()).get().getItemName()).isEqualTo("itemA2");
+        assertThat(counting.findById).isEqualTo(2);
+    }
+
+    @Test
+    void requestsDoNotShareLoader() {
+        service.findById(itemA.getId());
+        new ItemLoaderInterceptor().afterCompletion(request, new MockHttpServletResponse(), null, null);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        service.findById(itemA.getId());
+
+        assertThat(counting.findById).isEqualTo(2);
+    }
+
+    @Test
+    void interceptorDispatchesBeforeView() {
+        CompletableFuture<Optional<Item>> a = service.load(itemA.getId());
+        CompletableFuture<Optional<Item>> b = service.load(itemB.getId());
+
+        new ItemLoaderInterceptor().postHandle(request, new MockHttpServletResponse(), null, null);
+
+        assertThat(a.join()).contains(itemA);
+        assertThat(b.join()).contains(itemB);
+        assertThat(counting.findAllByIds).containsExactly(2);
+    }
+
+    @Test
+    void asyncRequestDispatchesAndReleasesLoader() {
+        CompletableFuture<Optional<Item>> a = service.load(itemA.getId());
+
+        new ItemLoaderInterceptor().afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), null);
+
+        assertThat(a.join()).contains(itemA);
+        assertThat(request.getAttribute(BatchingItemService.LOADER)).isNull();
+    }
+
+    @Test
+    void outsideRequestDelegates() {
+        RequestContextHolder.resetRequestAttributes();
+
+        service.findById(itemA.getId());
+        service.findById(itemA.getId());
+
+        assertThat(counting.findById).isEqualTo(2);
+        assertThat(stats.getBatches()).isZero();
+    }
+
+    static class CountingItemService implements ItemService {
+
+        final ItemService delegate;
+        int findById;
+        final List<Integer> findAllByIds = new ArrayList<>();
+
+        CountingItemService(ItemService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Item save(Item item) {
+            return delegate.save(item);
+        }
+
+        @Override
+        public void update(Long itemId, ItemUpdateDto updateParam) {
+            delegate.update(itemId, updateParam);
+        }
+
+        @Override
+        public boolean decreaseQuantity(Long itemId, int amount) {
+            return delegate.decreaseQuantity(itemId, amount);
+        }
+
+        @Override
+        public Optional<Item> findById(Long id) {
+            findById++;
+            return delegate.findById(id);
+        }
+
+        @Override
+        public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+            findAllByIds.add(ids.size());
+            return delegate.findAllByIds(ids);
+        }
+
+        @Override
+        public List<Item> findItems(ItemSearchCond itemSearch) {
+            return delegate.findItems(itemSearch);
+        }
+
+        @Override
+        public List<ItemSummary> findItemSummaries(ItemSearchCond itemSearch) {
+            return delegate.findItemSummaries(itemSearch);
+        }
+    }
+
+}
@@ -0,0 +1,302 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemSummary;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescingItemServiceTest {
+
+    static final int THREADS = 32;
+
+    MemoryItemRepository itemRepository = new MemoryItemRepository();
+    CountingItemService counting = new CountingItemService(new ItemServiceV1(itemRepository));
+    AtomicLong clock = new AtomicLong();
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void concurrentFindByIdQueriesOnce() throws Exception {
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        CoalescingItemService service = service(1.0);
+        counting.block();
+
+        List<Future<Optional<Item>>> results = concurrently(() -> service.findById(item.getId()), service);
+
+        for (Future<Optional<Item>> result : results) {
+            assertThat(result.get().get().getItemName()).isEqualTo("itemA");
+        }
+        assertThat(counting.findById.get()).isEqualTo(1);
+        assertThat(service.getCoalesced()).isEqualTo(THREADS - 1);
+    }
+
+    @Test
+    void concurrentFindItemsQueriesOnce() throws Exception {
+        itemRepository.save(new Item("itemA", 10000, 10));
+        itemRepository.save(new Item("itemB", 20000, 20));
+        CoalescingItemService service = service(1.0);
+        counting.block();
+
+        //조건 객체는 요청마다 새로 만들어도 같은 조건이면 합친다
+        List<Future<List<Item>>> results = concurrently(() -> service.findItems(new ItemSearchCond("item", 15000)), service);
+
+        for (Future<List<Item>> result : results) {
+            assertThat(result.get()).extracting("itemName").containsExactly("itemA");
+        }
+        assertThat(counting.findItems.get()).isEqualTo(1);
+    }
+
+    @Test
+    void writeInvalidates() {
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        CoalescingItemService service = service(1.0);
+
+        service.findById(item.getId());
+        service.findItems(new ItemSearchCond(null, null));
+        service.update(item.getId(), new ItemUpdateDto("itemB", 20000, 20));
+
+        assertThat(service.findById(item.getId()).get().getItemName()).isEqualTo("itemB");
+        assertThat(service.findItems(new ItemSearchCond(null, null))).extracting("itemName").containsExactly("itemB");
+        assertThat(counting.findById.get()).isEqualTo(2);
+        assertThat(counting.findItems.get()).isEqualTo(2);
+    }
+
+    /**
+     * 다른 상품의 쓰기는 진행 중인 조회의 결과를 버리지 않는다
+     */
+    @Test
+    void otherItemWriteKeepsConcurrentLoad() throws Exception {
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 20));
+        CoalescingItemService service = service(0);
+        counting.block();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Optional<Item>> load = executor.submit(() -> service.findById(itemA.getId()));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (counting.findById.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        service.update(itemB.getId(), new ItemUpdateDto("itemB2", 20000, 20));
+        counting.release();
+        assertThat(load.get().get().getItemName()).isEqualTo("itemA");
+        executor.shutdown();
+
+        service.findById(itemA.getId());
+        assertThat(counting.findById.get()).isEqualTo(1);
+    }
+
+    @Test
+    void returnedItemsAreCopies() {
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        CoalescingItemService service = service(1.0);
+
+        service.findById(item.getId()).get().setItemName("changed");
+
+        assertThat(service.findById(item.getId()).get().getItemName()).isEqualTo("itemA");
+        assertThat(counting.findById.get()).isEqualTo(1);
+    }
+
+    /**
+     * 조회에 100ms 가 걸리고 ttl 이 1s 이면 1.1s 에 만료된다
+     * - 1.0s 에 beta 가 크면 미리 갱신하고, beta 가 0 이면 만료 전까지 캐시된 값을 준다
+     */
+    @Test
+    void earlyRefreshBeforeExpiry() {
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        counting.loadTime = Duration.ofMillis(100).toNanos();
+
+        CoalescingItemService eager = service(1e12);
+        eager.findById(item.getId());
+        clock.set(Duration.ofMillis(1000).toNanos());
+        eager.findById(item.getId());
+        assertThat(eager.getEarlyRefreshes()).isEqualTo(1);
+        assertThat(counting.findById.get()).isEqualTo(2);
+
+        counting.findById.set(0);
+        clock.set(0);
+        CoalescingItemService lazy = service(0);
+        lazy.findById(item.getId());
+        clock.set(Duration.ofMillis(1000).toNanos());
+        lazy.findById(item.getId());
+        assertThat(lazy.getEarlyRefreshes()).isZero();
+        assertThat(counting.findById.get()).isEqualTo(1);
+
+        clock.set(Duration.ofMillis(1100).toNanos());
+        lazy.findById(item.getId());
+        assertThat(counting.findById.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failureIsNotCached() {
+        CoalescingItemService service = service(1.0);
+        counting.fail = true;
+        try {
+            service.findById(1L);
+        } catch (IllegalStateException expected) {
+        }
+        counting.fail = false;
+
+        assertThat(service.findById(1L)).isEmpty();
+        assertThat(counting.findById.get()).isEqualTo(2);
+    }
+
+    /**
+     * 가득 차도 새 키를 보관한다 - 오래 읽지 않은 값부터 내보내고, 만료된 값은 먼저 지운다
+     */
+    @Test
+    void evictsLeastRecentlyReadWhenFull() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            ids.add(itemRepository.save(new Item("item" + i, 10000, 10)).getId());
+        }
+        CoalescingItemService service = service(0, 10);
+        for (int i = 0; i < 10; i++) {
+            clock.set(Duration.ofMillis(i).toNanos());
+            service.findById(ids.get(i));
+        }
+        clock.set(Duration.ofMillis(20).toNanos());
+        service.findById(ids.get(0));
+        service.findById(ids.get(1));
+
+        //11 번째 키 - 넘친 1개와 여유분 1개(maxSize/10)를 내보낸다: 가장 오래 읽지 않은 ids[2], ids[3]
+        clock.set(Duration.ofMillis(30).toNanos());
+        service.findById(ids.get(10));
+        assertThat(service.getEvictions()).isEqualTo(2);
+
+        counting.findById.set(0);
+        service.findById(ids.get(0));
+        service.findById(ids.get(10));
+        assertThat(counting.findById.get()).isZero();
+        service.findById(ids.get(2));
+        assertThat(counting.findById.get()).isEqualTo(1);
+
+        //ttl 이 지나면 다음에 넘칠 때 만료된 값을 모두 지운다
+        clock.set(Duration.ofSeconds(2).toNanos());
+        for (int i = 3; i < 12; i++) {
+            service.findById(ids.get(i));
+        }
+        counting.findById.set(0);
+        service.findById(ids.get(11));
+        assertThat(counting.findById.get()).isZero();
+    }
+
+    private CoalescingItemService service(double beta) {
+        return service(beta, new CoalescingProperties().getMaxSize());
+    }
+
+    private CoalescingItemService service(double beta, int maxSize) {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setTtl(Duration.ofSeconds(1));
+        properties.setBeta(beta);
+        properties.setMaxSize(maxSize);
+        return new CoalescingItemService(counting, properties, clock::get);
+    }
+
+    /**
+     * THREADS 개의 요청을 동시에 보내고, 첫 요청의 DB 조회는 나머지가 모두 합류할 때까지 붙잡아 둔다
+     */
+    private <T> List<Future<T>> concurrently(Callable<T> call, CoalescingItemService service) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(call));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.getCoalesced() < THREADS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        counting.release();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        return results;
+    }
+
+    class CountingItemService implements ItemService {
+
+        final ItemService delegate;
+        final AtomicInteger findById = new AtomicInteger();
+        final AtomicInteger findItems = new AtomicInteger();
+        volatile CountDownLatch blocked = new CountDownLatch(0);
+        volatile long loadTime;
+        volatile boolean fail;
+
+        CountingItemService(ItemService delegate) {
+            this.delegate = delegate;
+        }
+
+        void block() {
+            blocked = new CountDownLatch(1);
+        }
+
+        void release() {
+            blocked.countDown();
+        }
+
+        private void query() {
+            try {
+                blocked.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            clock.addAndGet(loadTime);
+            if (fail) {
+                throw new IllegalStateException("DB 오류");
+            }
+        }
+
+        @Override
+        public Item save(Item item) {
+            return delegate.save(item);
+        }
+
+        @Override
+        public void update(Long itemId, ItemUpdateDto updateParam) {
+            delegate.update(itemId, updateParam);
+        }
+
+        @Override
+        public boolean decreaseQuantity(Long itemId, int amount) {
+            return delegate.decreaseQuantity(itemId, amount);
+        }
+
+        @Override
+        public Optional<Item> findById(Long id) {
+            findById.incrementAndGet();
+            query();
+            return delegate.findById(id);
+        }
+
+        @Override
+        public Map<Long, Item> findAllByIds(Collection<Long> ids) {
+            return delegate.findAllByIds(ids);
+        }
+
+        @Override
+        public List<Item> findItems(ItemSearchCond itemSearch) {
+            findItems.incrementAndGet();
+            query();
+            return delegate.findItems(itemSearch);
+        }
+
+        @Override
+        public List<ItemSummary> findItemSummaries(ItemSearchCond itemSearch) {
+            return delegate.findItemSummaries(itemSearch);
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HotItemStockUpdaterTest {
+
+    MemoryItemRepository itemRepository = new MemoryItemRepository();
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void concurrentDecrease() throws Exception {
+        //given
+        Item item = itemRepository.save(new Item("hotItem", 10000, 100));
+        HotItemStockUpdater updater = new HotItemStockUpdater(itemRepository, Set.of(item.getId()), 50);
+
+        //when - 재고 100 개에 150 건의 주문이 동시에 들어온다
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Callable<Boolean>> orders = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            orders.add(() -> updater.decreaseQuantity(item.getId(), 1));
+        }
+        int success = 0;
+        for (Future<Boolean> result : executor.invokeAll(orders)) {
+            if (result.get()) {
+                success++;
+            }
+        }
+        executor.shutdown();
+
+        //then - 정확히 재고만큼만 성공한다
+        assertThat(success).isEqualTo(100);
+        assertThat(itemRepository.findById(item.getId()).get().getQuantity()).isZero();
+    }
+
+    @Test
+    void notHotItem() {
+        Item item = itemRepository.save(new Item("item", 10000, 1));
+        HotItemStockUpdater updater = new HotItemStockUpdater(itemRepository, Set.of(), 50);
+
+        assertThat(updater.decreaseQuantity(item.getId(), 1)).isTrue();
+        assertThat(updater.decreaseQuantity(item.getId(), 1)).isFalse();
+    }
+
+    /**
+     * 음수 수량이 합쳐지면 재고가 늘어나거나 다른 요청의 부족한 재고를 가린다
+     */
+    @Test
+    void rejectsNonPositiveAmount() {
+        Item item = itemRepository.save(new Item("hotItem", 10000, 10));
+        HotItemStockUpdater updater = new HotItemStockUpdater(itemRepository, Set.of(item.getId()), 50);
+
+        assertThatThrownBy(() -> updater.decreaseQuantity(item.getId(), -5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> updater.decreaseQuantity(item.getId(), 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(itemRepository.findById(item.getId()).get().getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void itemServiceRejectsNonPositiveAmount() {
+        Item item = itemRepository.save(new Item("item", 10000, 10));
+        ItemService itemService = new ItemServiceV1(itemRepository);
+
+        assertThatThrownBy(() -> itemService.decreaseQuantity(item.getId(), -5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> itemService.decreaseQuantity(item.getId(), 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(itemRepository.findById(item.getId()).get().getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void hotItemItemService() throws Exception {
+        Item item = itemRepository.save(new Item("hotItem", 10000, 100));
+        HotItemProperties properties = new HotItemProperties();
+        properties.setItemIds(Set.of(item.getId()));
+        ItemService itemService = new HotItemItemService(new ItemServiceV1(itemRepository), properties);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Callable<Boolean>> orders = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            orders.add(() -> itemService.decreaseQuantity(item.getId(), 1));
+        }
+        int success = 0;
+        for (Future<Boolean> result : executor.invokeAll(orders)) {
+            if (result.get()) {
+                success++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(success).isEqualTo(100);
+        assertThat(itemService.findById(item.getId()).get().getQuantity()).isZero();
+    }
+
+}
@@ -0,0 +1,65 @@
+package hello.itemservice.warmup;
+
+import hello.itemservice.repository.v2.ItemQueryRepositoryV2;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class StartupWarmupTest {
+
+    @Autowired
+    StartupWarmup startupWarmup;
+    @Autowired
+    ItemQueryRepositoryV2 itemQueryRepository;
+
+    @Test
+    void warmupOnStartup() {
+        assertThat(startupWarmup.getResults())
+                .extracting(WarmupResult::getName)
+                .contains("connectionPool", "myBatisMappers", "ItemQueryRepositoryV2");
+        assertThat(startupWarmup.getResults()).allMatch(WarmupResult::isSuccess);
+    }
+
+    /**
+     * 지연 초기화되는 WarmupTask 빈은 만들지 않고 실행하지도 않는다
+     */
+    @Test
+    void skipsLazyTasks() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("eagerTask", new RootBeanDefinition(EagerTask.class));
+        RootBeanDefinition lazy = new RootBeanDefinition(LazyTask.class);
+        lazy.setLazyInit(true);
+        beanFactory.registerBeanDefinition("lazyTask", lazy);
+        beanFactory.preInstantiateSingletons();
+
+        StartupWarmup warmup = new StartupWarmup(beanFactory, true);
+        warmup.afterSingletonsInstantiated();
+
+        assertThat(warmup.getResults()).extracting(WarmupResult::getName).containsExactly("EagerTask");
+        assertThat(beanFactory.containsSingleton("lazyTask")).isFalse();
+    }
+
+    @Test
+    void queryPlansCreatedOnStartup() {
+        //2가지 조회 대상 x 4가지 검색 조건 모양
+        assertThat(itemQueryRepository.getQueryPlans().getPlanCount()).isEqualTo(8);
+    }
+
+    static class EagerTask implements WarmupTask {
+        @Override
+        public void warmup() {
+        }
+    }
+
+    static class LazyTask implements WarmupTask {
+        @Override
+        public void warmup() {
+        }
+    }
+
+}
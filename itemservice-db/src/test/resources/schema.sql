@@ -1,6 +1,7 @@
 -- 파일 이름 주의
 
 drop table if exists item CASCADE;
+drop sequence if exists item_seq;
 create table item
 (
      id bigint generated by default as identity,
@@ -8,4 +9,7 @@ create table item
      price integer,
      quantity integer,
      primary key (id)
-);
\ No newline at end of file
+);
+
+--Item id 시퀀스 - jpa-batch 프로필, itemservice.id-allocator 가 pooled-lo 로 사용한다. 발급 단위와 같은 50 씩 증가
+create sequence item_seq start with 1 increment by 50;
\ No newline at end of file
@@ -1,5 +1,7 @@
 package hello.springtx.order;
 
+import hello.springtx.outbox.OrderOutbox;
+import hello.springtx.outbox.OrderOutboxRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,12 +13,16 @@ import org.springframework.transaction.annotation.Transactional;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderOutboxRepository orderOutboxRepository;
 
     /**
      * 예외와 트랜잭션 커밋, 롤백
      * - 스프링은 체크 예외는 커밋하고, 언체크(런타임) 예외는 롤백을 한다
      * - 스프링은 기본적으로 체크 예외는 비즈니스 의미가 있을 때 사용하고, 런타임 예외는 복구 불가능한 예외로 가정한다
      * - 이런 정책을 반드시 따를 필요는 없고, rollbackFor 설정으로 체크 예외도 롤백하게 할 수 있다
+     *
+     * 결제 결과 발행
+     * - 결제 결과를 주문과 같은 트랜잭션에서 아웃박스에 저장하고, OutboxRelay 가 커밋된 것만 전송한다
      */
     @Transactional
     public void order(Order order) throws NotEnoughMoneyException {
@@ -39,10 +45,12 @@ public class OrderService {
              */
             log.info("잔고 부족 비즈니스 예외 발생");
             order.setPayStatus("대기");
+            orderOutboxRepository.save(OrderOutbox.paymentResult(order)); //체크 예외는 커밋되므로 결제 대기 이벤트도 함께 커밋된다
             throw new NotEnoughMoneyException("잔고가 부족합니다.");
         }else{
             log.info("정상 승인");
             order.setPayStatus("완료");
+            orderOutboxRepository.save(OrderOutbox.paymentResult(order)); //주문과 같은 트랜잭션에서 저장 - 결제 결과 이벤트
         }
 
         log.info("결제 프로세스 완료");
@@ -0,0 +1,44 @@
+package hello.springtx.outbox;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * 메모리에 쌓아두는 OutboxSink - 실제 메시지 브로커 대신 로컬, 테스트에서 사용한다
+ * - 최근 capacity 개만 보관한다. 넘치면 가장 오래된 이벤트를 버린다
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final int capacity;
+    private final ArrayDeque<OrderOutbox> events = new ArrayDeque<>();
+
+    public InMemoryOutboxSink() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InMemoryOutboxSink(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity 는 0 보다 커야 합니다. capacity=" + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void send(OrderOutbox event) {
+        if (events.size() == capacity) {
+            events.removeFirst();
+        }
+        events.addLast(event);
+    }
+
+    public synchronized List<OrderOutbox> getEvents() {
+        return List.copyOf(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+
+}
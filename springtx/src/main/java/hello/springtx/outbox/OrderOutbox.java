@@ -0,0 +1,52 @@
+package hello.springtx.outbox;
+
+import hello.springtx.order.Order;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * 주문 결제 결과 아웃박스
+ * - 주문과 같은 트랜잭션에서 저장되므로 주문이 커밋되면 이벤트도 반드시 남고, 롤백되면 함께 사라진다
+ * - OutboxRelay 가 claimToken, leaseUntil 로 선점한 뒤 전송하고 publishedAt 을 기록한다
+ */
+@Entity
+@Table(name = "order_outbox", indexes = @Index(name = "idx_order_outbox_published_at", columnList = "publishedAt"))
+@Data
+public class OrderOutbox {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private Long orderId;
+
+    private String username;
+
+    private String payStatus; //대기, 완료
+
+    private Instant createdAt;
+
+    private String claimToken; //선점한 릴레이 배치
+
+    private Instant leaseUntil; //선점 만료 시각 - 지나면 다른 워커가 다시 가져간다
+
+    private int attempts;
+
+    private Instant publishedAt;
+
+    public static OrderOutbox paymentResult(Order order) {
+        OrderOutbox outbox = new OrderOutbox();
+        outbox.setOrderId(order.getId());
+        outbox.setUsername(order.getUsername());
+        outbox.setPayStatus(order.getPayStatus());
+        outbox.setCreatedAt(Instant.now());
+        return outbox;
+    }
+
+}
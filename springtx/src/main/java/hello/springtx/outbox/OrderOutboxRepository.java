@@ -0,0 +1,59 @@
+package hello.springtx.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutbox, Long> {
+
+    /**
+     * 파티션에서 전송 대기 중이고 선점되지 않은(또는 선점이 만료된) 아웃박스 id
+     */
+    @Query("select o.id from OrderOutbox o " +
+            "where o.publishedAt is null and (o.leaseUntil is null or o.leaseUntil < :now) " +
+            "and mod(o.id, :partitions) = :partition " +
+            "order by o.id")
+    List<Long> findClaimable(@Param("now") Instant now,
+                             @Param("partitions") int partitions,
+                             @Param("partition") int partition,
+                             Pageable pageable);
+
+    /**
+     * 조건부 선점 - 그 사이에 다른 릴레이가 선점한 행은 조건에 맞지 않아 건너뛴다 (skip locked 대신 사용)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update OrderOutbox o set o.claimToken = :token, o.leaseUntil = :leaseUntil, o.attempts = o.attempts + 1 " +
+            "where o.id in :ids and o.publishedAt is null and (o.leaseUntil is null or o.leaseUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("token") String token,
+              @Param("leaseUntil") Instant leaseUntil,
+              @Param("now") Instant now);
+
+    List<OrderOutbox> findByClaimTokenOrderById(String claimToken);
+
+    @Modifying
+    @Query("update OrderOutbox o set o.publishedAt = :publishedAt, o.leaseUntil = null " +
+            "where o.id in :ids and o.claimToken = :token")
+    int markPublished(@Param("ids") Collection<Long> ids,
+                      @Param("token") String token,
+                      @Param("publishedAt") Instant publishedAt);
+
+    /**
+     * 전송 실패 - retryAt 이후에 다시 선점할 수 있다
+     */
+    @Modifying
+    @Query("update OrderOutbox o set o.leaseUntil = :retryAt " +
+            "where o.id in :ids and o.claimToken = :token")
+    int release(@Param("ids") Collection<Long> ids,
+                @Param("token") String token,
+                @Param("retryAt") Instant retryAt);
+
+    long countByPublishedAtIsNull();
+
+}
@@ -0,0 +1,26 @@
+package hello.springtx.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(OutboxRelayProperties.class)
+public class OutboxConfig {
+
+    //다른 OutboxSink 빈(메시지 브로커 등)을 등록하면 대체된다
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public InMemoryOutboxSink inMemoryOutboxSink() {
+        return new InMemoryOutboxSink();
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OrderOutboxRepository outboxRepository, OutboxSink outboxSink,
+                                   OutboxRelayProperties properties, PlatformTransactionManager transactionManager) {
+        return new OutboxRelay(outboxRepository, outboxSink, properties, transactionManager);
+    }
+
+}
@@ -0,0 +1,171 @@
+package hello.springtx.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 아웃박스 릴레이
+ * - 워커마다 자신의 파티션(mod(id, workers))에서 배치 단위로 선점 -> 전송 -> 완료 기록을 반복한다
+ * - 선점과 완료 기록은 각각 짧은 트랜잭션이고, 전송은 트랜잭션 밖에서 한다
+ * - 전송 후 완료 기록 전에 죽으면 선점이 만료된 뒤 다시 전송한다 (최소 한 번 전달)
+ *
+ * skip locked
+ * - select ... for update skip locked 대신 조건부 update 로 선점한다
+ * - 같은 파티션을 여러 인스턴스가 처리해도 먼저 선점한 쪽만 update 에 성공하고 나머지는 그 행을 건너뛴다
+ */
+@Slf4j
+public class OutboxRelay implements SmartLifecycle {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OutboxSink sink;
+    private final OutboxRelayProperties properties;
+    private final TransactionTemplate txTemplate;
+
+    private volatile boolean running;
+    private ExecutorService workers;
+
+    public OutboxRelay(OrderOutboxRepository outboxRepository, OutboxSink sink,
+                       OutboxRelayProperties properties, PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 파티션에서 한 배치를 전송하고 선점한 건수를 반환한다
+     */
+    public int drain(int partition) {
+        String token = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+
+        List<OrderOutbox> claimed = txTemplate.execute(status -> {
+            List<Long> ids = outboxRepository.findClaimable(now, properties.getWorkers(), partition,
+                    PageRequest.of(0, properties.getBatchSize()));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            outboxRepository.claim(ids, token, now.plus(properties.getLease()), now);
+            return outboxRepository.findByClaimTokenOrderById(token);
+        });
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> published = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        for (OrderOutbox event : claimed) {
+            try {
+                sink.send(event);
+                published.add(event.getId());
+            } catch (Exception e) {
+                log.warn("아웃박스 전송 실패 id={}, attempts={}", event.getId(), event.getAttempts(), e);
+                failed.add(event.getId());
+            }
+        }
+
+        txTemplate.executeWithoutResult(status -> {
+            if (!published.isEmpty()) {
+                outboxRepository.markPublished(published, token, Instant.now());
+            }
+            if (!failed.isEmpty()) {
+                outboxRepository.release(failed, token, Instant.now().plus(properties.getRetryDelay()));
+            }
+        });
+        log.debug("아웃박스 전송 partition={}, published={}, failed={}", partition, published.size(), failed.size());
+        return claimed.size();
+    }
+
+    /**
+     * 모든 파티션에서 더 이상 선점할 것이 없을 때까지 전송한다
+     */
+    public int drainAll() {
+        int total = 0;
+        int drained;
+        do {
+            drained = 0;
+            for (int partition = 0; partition < properties.getWorkers(); partition++) {
+                drained += drain(partition);
+            }
+            total += drained;
+        } while (drained > 0);
+        return total;
+    }
+
+    private void work(int partition) {
+        while (running) {
+            try {
+                if (drain(partition) == 0) {
+                    TimeUnit.MILLISECONDS.sleep(properties.getPollInterval().toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("아웃박스 릴레이 오류 partition={}", partition, e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(properties.getPollInterval().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger sequence = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(properties.getWorkers(), r -> {
+            Thread thread = new Thread(r, "outbox-relay-" + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int partition = 0; partition < properties.getWorkers(); partition++) {
+            int p = partition;
+            workers.execute(() -> work(p));
+        }
+        log.info("아웃박스 릴레이 시작 workers={}", properties.getWorkers());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (workers == null) {
+            return;
+        }
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(properties.getPollInterval().toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.isAutoStart();
+    }
+
+}
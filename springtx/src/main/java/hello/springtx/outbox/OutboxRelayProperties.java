@@ -0,0 +1,27 @@
+package hello.springtx.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "outbox.relay")
+public class OutboxRelayProperties {
+
+    //true 면 애플리케이션 시작 시 워커를 시작한다. false 면 drain() 을 직접 호출해서 사용
+    private boolean autoStart = false;
+
+    //워커 수 = 파티션 수, 워커마다 mod(id, workers) 가 다른 행만 가져간다
+    private int workers = 4;
+
+    private int batchSize = 100;
+
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    //선점 후 이 시간 안에 전송 완료를 기록하지 못하면 다른 워커가 다시 보낸다
+    private Duration lease = Duration.ofSeconds(30);
+
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+}
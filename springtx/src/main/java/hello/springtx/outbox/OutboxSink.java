@@ -0,0 +1,12 @@
+package hello.springtx.outbox;
+
+/**
+ * 아웃박스 이벤트를 전달할 대상 (메시지 브로커, HTTP 등)
+ * - 최소 한 번 전달하므로 같은 이벤트가 다시 올 수 있다. 받는 쪽은 OrderOutbox.id 로 중복을 걸러야 한다
+ * - 예외를 던지면 전송 실패로 보고 나중에 다시 보낸다
+ */
+public interface OutboxSink {
+
+    void send(OrderOutbox event) throws Exception;
+
+}
@@ -0,0 +1,22 @@
+package hello.springtx.outbox;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryOutboxSinkTest {
+
+    @Test
+    void keepsLatestEvents() {
+        InMemoryOutboxSink sink = new InMemoryOutboxSink(2);
+
+        for (long id = 1; id <= 3; id++) {
+            OrderOutbox event = new OrderOutbox();
+            event.setId(id);
+            sink.send(event);
+        }
+
+        assertThat(sink.getEvents()).extracting(OrderOutbox::getId).containsExactly(2L, 3L);
+    }
+
+}
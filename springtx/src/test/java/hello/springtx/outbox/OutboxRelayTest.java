@@ -0,0 +1,134 @@
+package hello.springtx.outbox;
+
+import hello.springtx.order.NotEnoughMoneyException;
+import hello.springtx.order.Order;
+import hello.springtx.order.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {"outbox.relay.auto-start=false", "outbox.relay.workers=4", "outbox.relay.batch-size=10"})
+class OutboxRelayTest {
+
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    OrderOutboxRepository outboxRepository;
+    @Autowired
+    OutboxRelay outboxRelay;
+    @Autowired
+    InMemoryOutboxSink sink;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void beforeEach() {
+        outboxRepository.deleteAll();
+        sink.clear();
+    }
+
+    /**
+     * 커밋된 주문만 아웃박스에 남는다
+     * - 정상: 완료, 잔고부족(체크 예외 - 커밋): 대기, 시스템 예외(롤백): 없음
+     */
+    @Test
+    void outboxInOrderTransaction() {
+        order("정상");
+        assertThatThrownBy(() -> order("잔고부족")).isInstanceOf(NotEnoughMoneyException.class);
+        assertThatThrownBy(() -> order("예외")).isInstanceOf(RuntimeException.class);
+
+        assertThat(outboxRepository.findAll())
+                .extracting(OrderOutbox::getUsername, OrderOutbox::getPayStatus)
+                .containsExactlyInAnyOrder(tuple("정상", "완료"), tuple("잔고부족", "대기"));
+    }
+
+    @Test
+    void drainOnce() throws NotEnoughMoneyException {
+        for (int i = 0; i < 25; i++) {
+            order("정상");
+        }
+
+        assertThat(outboxRelay.drainAll()).isEqualTo(25);
+
+        assertThat(sink.getEvents()).hasSize(25);
+        assertThat(outboxRepository.countByPublishedAtIsNull()).isZero();
+        //이미 전송한 것은 다시 보내지 않는다
+        assertThat(outboxRelay.drainAll()).isZero();
+    }
+
+    /**
+     * 워커(파티션)별로 동시에 전송해도 중복 없이 모두 전송된다
+     */
+    @Test
+    void parallelWorkers() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            order("정상");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int partition = 0; partition < 4; partition++) {
+                int p = partition;
+                results.add(executor.submit(() -> {
+                    int total = 0;
+                    int drained;
+                    while ((drained = outboxRelay.drain(p)) > 0) {
+                        total += drained;
+                    }
+                    return total;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            assertThat(total).isEqualTo(100);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(sink.getEvents()).extracting(OrderOutbox::getId).doesNotHaveDuplicates().hasSize(100);
+    }
+
+    /**
+     * 이미 선점된 행은 선점이 만료되기 전까지 다른 릴레이가 가져가지 않는다
+     */
+    @Test
+    void claimSkipsClaimedRows() throws NotEnoughMoneyException {
+        order("정상");
+        Long id = outboxRepository.findAll().get(0).getId();
+        Instant now = Instant.now();
+
+        int first = claim(id, "relay-a", now);
+        int second = claim(id, "relay-b", now);
+
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+    }
+
+    private int claim(Long id, String token, Instant now) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> outboxRepository.claim(List.of(id), token, now.plusSeconds(30), now));
+    }
+
+    private void order(String username) throws NotEnoughMoneyException {
+        Order order = new Order();
+        order.setUsername(username);
+        orderService.order(order);
+    }
+
+}